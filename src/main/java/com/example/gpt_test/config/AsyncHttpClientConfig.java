@@ -0,0 +1,64 @@
+package com.example.gpt_test.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * 비동기 외부 API 클라이언트 설정 클래스 (java.net.http.HttpClient)
+ * 응답을 기다리는 동안 스레드를 점유하지 않으며, 커넥션은 클라이언트 내부에서 keep-alive로 재사용
+ * 타임아웃과 최대 동시 요청 수는 RestTemplate 클라이언트(RestTemplateConfig)와 같은 설정을 공유
+ * (max-connections = 동시 요청 상한, pool-acquire-timeout = 대기열 대기 상한)
+ */
+@Configuration
+public class AsyncHttpClientConfig {
+
+    public static final String OPENAI_ASYNC_CLIENT = RestTemplateConfig.OPENAI_CLIENT + "-async";
+    public static final String SERP_ASYNC_CLIENT = RestTemplateConfig.SERP_CLIENT + "-async";
+
+    @Value("${http.client.openai.connect-timeout:5s}")
+    private Duration openAiConnectTimeout;
+
+    @Value("${http.client.openai.max-connections:20}")
+    private int openAiMaxInFlight;
+
+    @Value("${http.client.openai.pool-acquire-timeout:5s}")
+    private Duration openAiAcquireTimeout;
+
+    @Value("${http.client.serp.connect-timeout:5s}")
+    private Duration serpConnectTimeout;
+
+    @Value("${http.client.serp.max-connections:10}")
+    private int serpMaxInFlight;
+
+    @Value("${http.client.serp.pool-acquire-timeout:5s}")
+    private Duration serpAcquireTimeout;
+
+    /**
+     * OpenAI API 전용 비동기 HttpClient
+     */
+    @Bean(name = "openAiHttpClient")
+    public ThrottledHttpClient openAiHttpClient(MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(openAiConnectTimeout)
+            .version(HttpClient.Version.HTTP_2)
+            .build();
+        return new ThrottledHttpClient(httpClient, OPENAI_ASYNC_CLIENT, openAiMaxInFlight, openAiAcquireTimeout, meterRegistry);
+    }
+
+    /**
+     * SERP API (Google Lens) 전용 비동기 HttpClient
+     */
+    @Bean(name = "serpHttpClient")
+    public ThrottledHttpClient serpHttpClient(MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(serpConnectTimeout)
+            .version(HttpClient.Version.HTTP_2)
+            .build();
+        return new ThrottledHttpClient(httpClient, SERP_ASYNC_CLIENT, serpMaxInFlight, serpAcquireTimeout, meterRegistry);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.gpt_test.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 비동기 작업용 Executor 설정 클래스
+ * spring.threads.virtual.enabled=true (Java 21 이상)이면 제한된 스레드 풀 대신 작업마다 가상 스레드를 생성하며,
+ * 이때도 pool-size를 동시 실행 한도로 적용하여 외부 API별 동시 호출 수 제한을 유지
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${idol.analysis.executor.pool-size:8}")
+    private int analysisPoolSize;
+
+    @Value("${idol.analysis.executor.queue-capacity:100}")
+    private int analysisQueueCapacity;
+
+    @Value("${idol.cloudinary.executor.pool-size:4}")
+    private int cloudinaryPoolSize;
+
+    @Value("${idol.cloudinary.executor.queue-capacity:100}")
+    private int cloudinaryQueueCapacity;
+
+    /**
+     * 이미지 분석 체인의 후속 단계(Google Lens 결과 가공, 프롬프트 생성, GPT 응답 파싱)를 실행하는 동시 실행 수 제한 Executor
+     * 스레드 풀 모드에서는 큐가 가득 차면 호출 스레드에서 실행하여 자연스럽게 부하를 조절
+     */
+    @Bean(name = "imageAnalysisExecutor")
+    public AsyncTaskExecutor imageAnalysisExecutor() {
+        return taskExecutor("image-analysis-", analysisPoolSize, analysisQueueCapacity);
+    }
+
+    /**
+     * Cloudinary SDK 호출(업로드/삭제) 전용 동시 실행 수 제한 Executor (Cloudinary 호출 격리)
+     * Cloudinary SDK는 블로킹 방식이므로 요청 스레드 대신 이 Executor에서 실행
+     */
+    @Bean(name = "cloudinaryExecutor")
+    public AsyncTaskExecutor cloudinaryExecutor() {
+        return taskExecutor("cloudinary-", cloudinaryPoolSize, cloudinaryQueueCapacity);
+    }
+
+    /**
+     * @Scheduled 작업(Cloudinary 삭제 큐 등) 전용 스케줄러
+     * TaskScheduler 빈이 여러 개이면 @Scheduled는 이 이름(taskScheduler)의 빈을 사용
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        return scheduler("scheduling-");
+    }
+
+    /**
+     * GPT 마이크로 배치의 window flush 예약 전용 스케줄러
+     * 블로킹될 수 있는 @Scheduled 작업과 분리하여 flush가 늦어지지 않도록 함
+     */
+    @Bean(name = "identificationBatchScheduler")
+    public ThreadPoolTaskScheduler identificationBatchScheduler() {
+        return scheduler("identification-batcher-");
+    }
+
+    private ThreadPoolTaskScheduler scheduler(String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+
+    private AsyncTaskExecutor taskExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        if (virtualThreadsEnabled) {
+            // 가상 스레드는 I/O 대기 중 캐리어 스레드를 반환하므로 풀 크기 조정이 필요 없지만,
+            // 외부 API별 동시 호출 수 제한은 유지하도록 pool-size를 동시 실행 한도로 사용 (한도를 넘으면 제출 스레드가 대기)
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize);
+            executor.setTaskTerminationTimeout(30_000);
+            return executor;
+        }
+        return boundedExecutor(threadNamePrefix, poolSize, queueCapacity);
+    }
+
+    private ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.gpt_test.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 외부 API 클라이언트별 진행 중인 요청 수를 집계하는 인터셉터
+ * http.client.in.flight{client=...} 게이지로 노출
+ */
+public class InFlightRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public InFlightRequestInterceptor(String clientName, MeterRegistry meterRegistry) {
+        Gauge.builder("http.client.in.flight", inFlight, AtomicInteger::get)
+            .description("진행 중인 외부 API 요청 수")
+            .tag("client", clientName)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        inFlight.incrementAndGet();
+        try {
+            return execution.execute(request, body);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -1,18 +1,161 @@
 package com.example.gpt_test.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * RestTemplate 설정 클래스
+ * 외부 API(OpenAI, SERP)마다 별도의 커넥션 풀과 타임아웃을 가진 RestTemplate을 제공
+ * 커넥션을 keep-alive로 재사용하여 요청마다 TLS 핸드셰이크를 반복하지 않음
  */
 @Configuration
-public class RestTemplateConfig {
-    
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+public class RestTemplateConfig implements DisposableBean {
+
+    public static final String OPENAI_CLIENT = "openai";
+    public static final String SERP_CLIENT = "serp";
+
+    // OpenAI API 클라이언트 설정
+    @Value("${http.client.openai.max-connections:20}")
+    private int openAiMaxConnections;
+
+    @Value("${http.client.openai.connect-timeout:5s}")
+    private Duration openAiConnectTimeout;
+
+    @Value("${http.client.openai.read-timeout:60s}")
+    private Duration openAiReadTimeout;
+
+    @Value("${http.client.openai.response-timeout:60s}")
+    private Duration openAiResponseTimeout;
+
+    @Value("${http.client.openai.pool-acquire-timeout:5s}")
+    private Duration openAiPoolAcquireTimeout;
+
+    // SERP API (Google Lens) 클라이언트 설정
+    @Value("${http.client.serp.max-connections:10}")
+    private int serpMaxConnections;
+
+    @Value("${http.client.serp.connect-timeout:5s}")
+    private Duration serpConnectTimeout;
+
+    @Value("${http.client.serp.read-timeout:20s}")
+    private Duration serpReadTimeout;
+
+    @Value("${http.client.serp.response-timeout:20s}")
+    private Duration serpResponseTimeout;
+
+    @Value("${http.client.serp.pool-acquire-timeout:5s}")
+    private Duration serpPoolAcquireTimeout;
+
+    // 공통 설정
+    @Value("${http.client.idle-eviction:30s}")
+    private Duration idleEviction;
+
+    @Value("${http.client.connection-ttl:5m}")
+    private Duration connectionTimeToLive;
+
+    private final List<CloseableHttpClient> httpClients = new ArrayList<>();
+
+    /**
+     * OpenAI API 전용 RestTemplate
+     */
+    @Bean(name = "openAiRestTemplate")
+    public RestTemplate openAiRestTemplate(RestTemplateBuilder builder, MeterRegistry meterRegistry) {
+        return pooledRestTemplate(OPENAI_CLIENT, builder, meterRegistry, openAiMaxConnections,
+            openAiConnectTimeout, openAiReadTimeout, openAiResponseTimeout, openAiPoolAcquireTimeout);
     }
-}
 
+    /**
+     * SERP API (Google Lens) 전용 RestTemplate
+     */
+    @Bean(name = "serpRestTemplate")
+    public RestTemplate serpRestTemplate(RestTemplateBuilder builder, MeterRegistry meterRegistry) {
+        return pooledRestTemplate(SERP_CLIENT, builder, meterRegistry, serpMaxConnections,
+            serpConnectTimeout, serpReadTimeout, serpResponseTimeout, serpPoolAcquireTimeout);
+    }
+
+    /**
+     * 커넥션 풀 기반 RestTemplate 생성 및 풀/진행 중 요청 게이지 등록
+     * 모든 요청이 한 호스트로 가므로 호스트당 최대 커넥션 수 = 전체 최대 커넥션 수
+     */
+    private RestTemplate pooledRestTemplate(String clientName, RestTemplateBuilder builder, MeterRegistry meterRegistry,
+                                            int maxConnections, Duration connectTimeout, Duration readTimeout,
+                                            Duration responseTimeout, Duration poolAcquireTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(connectionTimeToLive))
+                .build())
+            .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(poolAcquireTimeout))
+                .setResponseTimeout(Timeout.of(responseTimeout))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(idleEviction))
+            .build();
+        httpClients.add(httpClient);
+
+        registerPoolGauges(clientName, connectionManager, meterRegistry);
+
+        return builder
+            .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+            .additionalInterceptors(new InFlightRequestInterceptor(clientName, meterRegistry))
+            .build();
+    }
+
+    /**
+     * 커넥션 풀 상태 게이지 (사용 중 / 대기 중 / 유휴 / 최대)
+     * pending이 0보다 크면 풀이 포화되어 요청이 커넥션을 기다리는 중
+     */
+    private void registerPoolGauges(String clientName, PoolingHttpClientConnectionManager connectionManager, MeterRegistry meterRegistry) {
+        Gauge.builder("http.client.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+            .description("사용 중인 커넥션 수")
+            .tag("client", clientName)
+            .register(meterRegistry);
+        Gauge.builder("http.client.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+            .description("커넥션을 기다리는 요청 수")
+            .tag("client", clientName)
+            .register(meterRegistry);
+        Gauge.builder("http.client.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+            .description("유휴 커넥션 수")
+            .tag("client", clientName)
+            .register(meterRegistry);
+        Gauge.builder("http.client.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+            .description("최대 커넥션 수")
+            .tag("client", clientName)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (CloseableHttpClient httpClient : httpClients) {
+            httpClient.close();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.gpt_test.config;
 
 import com.example.gpt_test.service.JwtService;
 import com.example.gpt_test.service.UserService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -42,12 +43,15 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                // 비동기 응답(CompletableFuture) 재디스패치는 원 요청에서 이미 인가됨
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // 인증 없이 접근 가능한 엔드포인트
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/idol/progress/**").permitAll() // SSE 진행 상황 엔드포인트
                 .requestMatchers("/api/idol/all-group-shared").permitAll() // 그룹 공유 이미지 조회
                 .requestMatchers("/api/idol/group-shared").permitAll() // 특정 그룹 공유 이미지 조회
                 .requestMatchers("/api/group-idol/**").permitAll() // 그룹_아이돌 정보 조회
+                .requestMatchers("/api/staging/**").permitAll() // 서명된 임시 이미지 URL (Google Lens 조회용)
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/").permitAll()
@@ -0,0 +1,135 @@
+package com.example.gpt_test.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 외부 API별 동시 요청 수를 제한하는 비동기 HttpClient 래퍼
+ * 허용 수를 넘는 요청은 스레드를 점유하지 않고 대기열에서 기다리다가 앞선 요청이 끝나면 전송되며,
+ * acquireTimeout 안에 전송되지 못하면 HttpTimeoutException으로 실패 (RestTemplate 풀의 pool-acquire-timeout과 같은 역할)
+ * http.client.in.flight / http.client.pool.pending / http.client.pool.max 게이지와 http.client.async.requests 타이머로 노출
+ */
+public class ThrottledHttpClient {
+
+    private final HttpClient httpClient;
+    private final String clientName;
+    private final Duration acquireTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore permits;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ThrottledHttpClient(HttpClient httpClient, String clientName, int maxInFlight,
+                               Duration acquireTimeout, MeterRegistry meterRegistry) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight는 1 이상이어야 합니다: " + maxInFlight);
+        }
+        this.httpClient = httpClient;
+        this.clientName = clientName;
+        this.acquireTimeout = acquireTimeout;
+        this.meterRegistry = meterRegistry;
+        this.permits = new Semaphore(maxInFlight);
+
+        Gauge.builder("http.client.in.flight", inFlight, AtomicInteger::get)
+            .description("진행 중인 외부 API 요청 수")
+            .tag("client", clientName)
+            .register(meterRegistry);
+        Gauge.builder("http.client.pool.pending", waiting, Queue::size)
+            .description("전송 허용을 기다리는 요청 수")
+            .tag("client", clientName)
+            .register(meterRegistry);
+        Gauge.builder("http.client.pool.max", () -> maxInFlight)
+            .description("최대 동시 요청 수")
+            .tag("client", clientName)
+            .register(meterRegistry);
+    }
+
+    /**
+     * HttpClient.sendAsync와 같은 계약 (응답 본문까지 모두 받으면 완료되며, 그때 다음 요청에 자리를 넘김)
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        Runnable send = () -> send(request, bodyHandler, result);
+        waiting.add(send);
+        drain();
+
+        if (waiting.contains(send)) {
+            CompletableFuture.delayedExecutor(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+                if (waiting.remove(send)) {
+                    result.completeExceptionally(new HttpTimeoutException(
+                        clientName + " 요청이 " + acquireTimeout.toMillis() + "ms 동안 전송 대기열에서 기다리다 취소되었습니다."));
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * 남은 허용 수만큼 대기 중인 요청 전송
+     * 허용을 얻은 뒤 대기열이 비어 있으면 반납하고 다시 확인하여, 동시에 추가된 요청이 남지 않도록 함
+     */
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable send = waiting.poll();
+            if (send == null) {
+                permits.release();
+            } else {
+                send.run();
+            }
+        }
+    }
+
+    private <T> void send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, CompletableFuture<HttpResponse<T>> result) {
+        inFlight.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        CompletableFuture<HttpResponse<T>> response;
+        try {
+            response = httpClient.sendAsync(request, bodyHandler);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        response.whenComplete((httpResponse, e) -> {
+            sample.stop(Timer.builder("http.client.async.requests")
+                .description("비동기 외부 API 요청 시간 (대기열 대기 시간 제외)")
+                .tag("client", clientName)
+                .tag("outcome", outcome(httpResponse, e))
+                .register(meterRegistry));
+            inFlight.decrementAndGet();
+            permits.release();
+            drain();
+
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(httpResponse);
+            }
+        });
+    }
+
+    private static String outcome(HttpResponse<?> response, Throwable e) {
+        if (e != null || response == null) {
+            return "UNKNOWN";
+        }
+        return switch (response.statusCode() / 100) {
+            case 2 -> "SUCCESS";
+            case 4 -> "CLIENT_ERROR";
+            case 5 -> "SERVER_ERROR";
+            default -> "UNKNOWN";
+        };
+    }
+}
@@ -5,8 +5,15 @@ import com.example.gpt_test.dto.ChatResponseDto;
 import com.example.gpt_test.service.ChatService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * GPT 채팅 API 컨트롤러
@@ -46,6 +53,60 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * GPT 답변을 스트리밍으로 받는 API (SSE)
+     * 답변 조각은 delta 이벤트({"content": "..."})로 도착하는 즉시 전달하고,
+     * 끝나면 done 이벤트로 모델과 전체 응답 시간(answer는 null)을, 실패하면 error 이벤트를 보냄
+     * 
+     * @param request 사용자의 질문이 포함된 요청 객체
+     * @return SSE 스트림
+     */
+    @PostMapping(value = "/ask/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter askQuestionStream(@RequestBody ChatRequestDto request) {
+        
+        String modelUsed = request.getModel() != null ? request.getModel() : "기본 모델";
+        logger.info("GPT 스트리밍 질문 요청 - 모델: {}, 질문 길이: {}", modelUsed, request.getQuestion().length());
+        
+        SseEmitter emitter = new SseEmitter(180000L); // 3분 타임아웃
+        AtomicInteger answerLength = new AtomicInteger();
+        
+        chatService.streamChatResponse(request, delta -> {
+                answerLength.addAndGet(delta.length());
+                sendEvent(emitter, "delta", Map.of("content", delta));
+            })
+            .whenComplete((response, e) -> {
+                if (e != null) {
+                    logger.error("GPT 스트리밍 응답 실패 - 모델: {}, 오류: {}", modelUsed, e.getMessage());
+                    try {
+                        sendEvent(emitter, "error", Map.of("message", "죄송합니다. 요청을 처리하는 중 오류가 발생했습니다: " + e.getMessage()));
+                        emitter.complete();
+                    } catch (RuntimeException ignored) {
+                        // 클라이언트 연결이 이미 끊어진 경우
+                    }
+                    return;
+                }
+                
+                logger.info("GPT 스트리밍 응답 완료 - 모델: {}, 응답 길이: {}, 소요 시간: {}ms",
+                           modelUsed, answerLength.get(), response.getResponseTime());
+                try {
+                    sendEvent(emitter, "done", response);
+                    emitter.complete();
+                } catch (RuntimeException ex) {
+                    emitter.completeWithError(ex);
+                }
+            });
+        
+        return emitter;
+    }
+    
+    private static void sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
     /**
      * 서비스 상태 확인 API
      * 
@@ -3,6 +3,7 @@ package com.example.gpt_test.controller;
 import com.example.gpt_test.dto.GoogleLensRequestDto;
 import com.example.gpt_test.dto.PersonIdentificationResponseDto;
 import com.example.gpt_test.service.ImageAnalysisService;
+import com.example.gpt_test.util.IngestedImage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
@@ -11,6 +12,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 이미지 분석 및 인물 식별 컨트롤러
  */
@@ -29,17 +32,18 @@ public class ImageAnalysisController {
     
     /**
      * 이미지 URL을 받아서 인물을 식별하는 API
+     * 외부 API 응답을 기다리는 동안 요청 스레드를 반환 (서블릿 비동기 처리)
      * 
      * @param request 이미지 URL이 포함된 요청 객체
      * @return 인물 식별 결과
      */
     @PostMapping("/identify-person")
     @Operation(summary = "이미지에서 인물 식별", description = "이미지 URL을 받아서 Google Lens로 분석하고 GPT로 인물을 식별합니다.")
-    public ResponseEntity<PersonIdentificationResponseDto> identifyPerson(@RequestBody GoogleLensRequestDto request) {
+    public CompletableFuture<ResponseEntity<PersonIdentificationResponseDto>> identifyPerson(@RequestBody GoogleLensRequestDto request) {
         
         if (request.getImageUrl() == null || request.getImageUrl().trim().isEmpty()) {
             logger.warn("빈 이미지 URL로 요청됨");
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
         
         // URL 길이 제한 (로깅용)
@@ -49,32 +53,31 @@ public class ImageAnalysisController {
         
         logger.info("인물 식별 요청 - 이미지 URL: {}", shortUrl);
         
-        try {
-            PersonIdentificationResponseDto response = imageAnalysisService.identifyPersonFromImage(request);
-            
-            logger.info("인물 식별 완료 - URL: {}, 식별된 인물: {}, 처리시간: {}ms", 
-                       shortUrl, response.getIdentifiedPerson(), response.getProcessingTime());
-            
-            return ResponseEntity.ok(response);
-            
-        } catch (Exception e) {
-            logger.error("인물 식별 중 오류 발생 - URL: {}, 오류: {}", shortUrl, e.getMessage(), e);
-            
-            // 오류가 발생해도 기본 응답 구조는 유지
-            PersonIdentificationResponseDto errorResponse = new PersonIdentificationResponseDto(
-                request.getImageUrl(),
-                null,
-                null,
-                "처리 중 오류가 발생했습니다: " + e.getMessage(),
-                "unknown",
-                "unknown",
-                false,
-                "분석 오류로 인해 판별 불가",
-                0
-            );
-            
-            return ResponseEntity.status(500).body(errorResponse);
-        }
+        return imageAnalysisService.identifyPersonFromImageAsync(request)
+            .thenApply(response -> {
+                logger.info("인물 식별 완료 - URL: {}, 식별된 인물: {}, 처리시간: {}ms", 
+                           shortUrl, response.getIdentifiedPerson(), response.getProcessingTime());
+                
+                return ResponseEntity.ok(response);
+            })
+            .exceptionally(e -> {
+                logger.error("인물 식별 중 오류 발생 - URL: {}, 오류: {}", shortUrl, e.getMessage(), e);
+                
+                // 오류가 발생해도 기본 응답 구조는 유지
+                PersonIdentificationResponseDto errorResponse = new PersonIdentificationResponseDto(
+                    request.getImageUrl(),
+                    null,
+                    null,
+                    "처리 중 오류가 발생했습니다: " + e.getMessage(),
+                    "unknown",
+                    "unknown",
+                    false,
+                    "분석 오류로 인해 판별 불가",
+                    0
+                );
+                
+                return ResponseEntity.status(500).body(errorResponse);
+            });
     }
     
     /**
@@ -97,11 +100,11 @@ public class ImageAnalysisController {
      */
     @GetMapping("/identify-person")
     @Operation(summary = "이미지에서 인물 식별 (GET)", description = "테스트용 GET API - 이미지 URL을 파라미터로 받아서 인물을 식별합니다.")
-    public ResponseEntity<PersonIdentificationResponseDto> identifyPersonByUrl(@RequestParam String imageUrl) {
+    public CompletableFuture<ResponseEntity<PersonIdentificationResponseDto>> identifyPersonByUrl(@RequestParam String imageUrl) {
         
         if (imageUrl == null || imageUrl.trim().isEmpty()) {
             logger.warn("빈 이미지 URL로 GET 요청됨");
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
         
         GoogleLensRequestDto request = new GoogleLensRequestDto(imageUrl);
@@ -117,15 +120,15 @@ public class ImageAnalysisController {
      * @return 인물 식별 결과
      */
     @PostMapping("/upload-and-identify")
-    @Operation(summary = "파일 업로드 후 인물 식별", description = "이미지 파일을 Cloudinary에 업로드하고 Google Lens로 분석하여 인물을 식별합니다.")
-    public ResponseEntity<PersonIdentificationResponseDto> uploadAndIdentifyPerson(
+    @Operation(summary = "파일 업로드 후 인물 식별", description = "이미지 파일을 분석용으로 임시 저장(staging)한 뒤 Google Lens로 분석하여 인물을 식별합니다. Cloudinary에는 선호 인물과 일치한 이미지만 보관합니다.")
+    public CompletableFuture<ResponseEntity<PersonIdentificationResponseDto>> uploadAndIdentifyPerson(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "favoriteGroup", required = false) String favoriteGroup,
             @RequestParam(value = "favoriteName", required = false) String favoriteName) {
         
         if (file == null || file.isEmpty()) {
             logger.warn("빈 파일로 업로드 요청됨");
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
         
         // 파일명을 로깅용으로 짧게 표시
@@ -137,30 +140,41 @@ public class ImageAnalysisController {
         logger.info("파일 업로드 및 인물 식별 요청 - 파일: {}, 크기: {}bytes", shortFileName, file.getSize());
         
         try {
-            PersonIdentificationResponseDto response = imageAnalysisService.identifyPersonFromFile(file, favoriteGroup, favoriteName);
+            // 멀티파트 임시 파일은 요청이 끝나면 정리되므로 요청 스레드에서 먼저 읽어 둠
+            IngestedImage image = IngestedImage.from(file);
             
-            logger.info("파일 업로드 및 인물 식별 완료 - 파일: {}, 식별된 인물: {}, 처리시간: {}ms", 
-                       shortFileName, response.getIdentifiedPerson(), response.getProcessingTime());
-            
-            return ResponseEntity.ok(response);
+            return imageAnalysisService.identifyPersonFromFileAsync(image, favoriteGroup, favoriteName)
+                .thenApply(response -> {
+                    logger.info("파일 업로드 및 인물 식별 완료 - 파일: {}, 식별된 인물: {}, 처리시간: {}ms", 
+                               shortFileName, response.getIdentifiedPerson(), response.getProcessingTime());
+                    
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(e -> fileErrorResponse(shortFileName, e));
             
         } catch (Exception e) {
-            logger.error("파일 업로드 및 인물 식별 중 오류 발생 - 파일: {}, 오류: {}", shortFileName, e.getMessage(), e);
-            
-            // 오류가 발생해도 기본 응답 구조는 유지
-            PersonIdentificationResponseDto errorResponse = new PersonIdentificationResponseDto(
-                "",
-                null,
-                null,
-                "파일 처리 중 오류가 발생했습니다: " + e.getMessage(),
-                "unknown",
-                "unknown",
-                false,
-                "파일 처리 오류로 인해 판별 불가",
-                0
-            );
-            
-            return ResponseEntity.status(500).body(errorResponse);
+            return CompletableFuture.completedFuture(fileErrorResponse(shortFileName, e));
         }
     }
+    
+    /**
+     * 파일 처리 오류 응답 (오류가 발생해도 기본 응답 구조는 유지)
+     */
+    private ResponseEntity<PersonIdentificationResponseDto> fileErrorResponse(String shortFileName, Throwable e) {
+        logger.error("파일 업로드 및 인물 식별 중 오류 발생 - 파일: {}, 오류: {}", shortFileName, e.getMessage(), e);
+        
+        PersonIdentificationResponseDto errorResponse = new PersonIdentificationResponseDto(
+            "",
+            null,
+            null,
+            "파일 처리 중 오류가 발생했습니다: " + e.getMessage(),
+            "unknown",
+            "unknown",
+            false,
+            "파일 처리 오류로 인해 판별 불가",
+            0
+        );
+        
+        return ResponseEntity.status(500).body(errorResponse);
+    }
 }
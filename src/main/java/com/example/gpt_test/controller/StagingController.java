@@ -0,0 +1,53 @@
+package com.example.gpt_test.controller;
+
+import com.example.gpt_test.service.LocalSignedUrlStagingStore;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+
+/**
+ * 로컬 임시 저장 이미지 제공 컨트롤러 (Google Lens가 서명된 URL로 이미지를 가져감)
+ */
+@RestController
+@RequestMapping("/api/staging")
+@ConditionalOnProperty(name = "idol.staging.store", havingValue = "local")
+@Hidden
+public class StagingController {
+
+    private final LocalSignedUrlStagingStore stagingStore;
+
+    public StagingController(LocalSignedUrlStagingStore stagingStore) {
+        this.stagingStore = stagingStore;
+    }
+
+    /**
+     * 서명과 만료 시각이 유효한 경우에만 임시 이미지 반환
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Resource> getStagedImage(@PathVariable String id,
+                                                   @RequestParam long expires,
+                                                   @RequestParam String signature) {
+        Path file = stagingStore.resolve(id, expires, signature);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Resource resource = new FileSystemResource(file);
+        return ResponseEntity.ok()
+            .contentType(MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM))
+            .cacheControl(CacheControl.noStore())
+            .body(resource);
+    }
+}
@@ -7,6 +7,7 @@ public class ChatRequestDto {
     
     private String question;
     private String model; // 사용할 GPT 모델명
+    private boolean noCache; // true면 응답 캐시를 사용하지 않고 항상 새로 요청
     
     public ChatRequestDto() {}
     
@@ -34,4 +35,12 @@ public class ChatRequestDto {
     public void setModel(String model) {
         this.model = model;
     }
+    
+    public boolean isNoCache() {
+        return noCache;
+    }
+    
+    public void setNoCache(boolean noCache) {
+        this.noCache = noCache;
+    }
 }
@@ -0,0 +1,63 @@
+package com.example.gpt_test.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * GPT 인물 식별 판정 DTO (구조화된 출력 JSON 스키마와 동일한 형식)
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class IdentificationVerdictDto {
+    
+    private String name;
+    
+    @JsonProperty("group_name")
+    private String groupName;
+    
+    @JsonProperty("is_match")
+    private boolean match;
+    
+    @JsonProperty("match_reason")
+    private String matchReason;
+    
+    public IdentificationVerdictDto() {}
+    
+    public IdentificationVerdictDto(String name, String groupName, boolean match, String matchReason) {
+        this.name = name;
+        this.groupName = groupName;
+        this.match = match;
+        this.matchReason = matchReason;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getGroupName() {
+        return groupName;
+    }
+    
+    public void setGroupName(String groupName) {
+        this.groupName = groupName;
+    }
+    
+    public boolean isMatch() {
+        return match;
+    }
+    
+    public void setMatch(boolean match) {
+        this.match = match;
+    }
+    
+    public String getMatchReason() {
+        return matchReason;
+    }
+    
+    public void setMatchReason(String matchReason) {
+        this.matchReason = matchReason;
+    }
+}
@@ -81,6 +81,8 @@ public class IdolUploadResponseDto {
         private String identifiedGroup;
         private String gptAnalysis;
         private long processingTime;
+        private String analysisSource;  // 분석 결과 출처 (FULL_ANALYSIS, REUSED_EXACT_DUPLICATE, REUSED_NEAR_DUPLICATE)
+        private Long reusedFromImageId; // 재사용한 그룹 DB 이미지 ID
         
         public ImageAnalysisResult() {}
         
@@ -170,5 +172,21 @@ public class IdolUploadResponseDto {
         public void setProcessingTime(long processingTime) {
             this.processingTime = processingTime;
         }
+        
+        public String getAnalysisSource() {
+            return analysisSource;
+        }
+        
+        public void setAnalysisSource(String analysisSource) {
+            this.analysisSource = analysisSource;
+        }
+        
+        public Long getReusedFromImageId() {
+            return reusedFromImageId;
+        }
+        
+        public void setReusedFromImageId(Long reusedFromImageId) {
+            this.reusedFromImageId = reusedFromImageId;
+        }
     }
 }
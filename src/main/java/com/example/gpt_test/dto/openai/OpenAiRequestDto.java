@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * OpenAI API 요청 DTO
@@ -23,6 +24,13 @@ public class OpenAiRequestDto {
 
     private Double temperature;
 
+    // 구조화된 출력 (예: {"type": "json_schema", "json_schema": {...}} 또는 {"type": "json_object"})
+    @JsonProperty("response_format")
+    private Map<String, Object> responseFormat;
+
+    // true면 응답을 SSE(data: {...}) 조각으로 스트리밍
+    private Boolean stream;
+
     public OpenAiRequestDto() {}
 
     public OpenAiRequestDto(String model, List<Message> messages, Double temperature) {
@@ -71,6 +79,22 @@ public class OpenAiRequestDto {
         this.temperature = temperature;
     }
 
+    public Map<String, Object> getResponseFormat() {
+        return responseFormat;
+    }
+
+    public void setResponseFormat(Map<String, Object> responseFormat) {
+        this.responseFormat = responseFormat;
+    }
+
+    public Boolean getStream() {
+        return stream;
+    }
+
+    public void setStream(Boolean stream) {
+        this.stream = stream;
+    }
+
     public static class Message {
         private String role;
         private String content;
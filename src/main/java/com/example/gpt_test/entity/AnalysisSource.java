@@ -0,0 +1,22 @@
+package com.example.gpt_test.entity;
+
+/**
+ * 이미지 분석 결과의 출처
+ */
+public enum AnalysisSource {
+    
+    /**
+     * Cloudinary 업로드 + Google Lens + GPT 전체 분석
+     */
+    FULL_ANALYSIS,
+    
+    /**
+     * 그룹 DB에 있는 동일 파일(SHA-256)의 분석 결과 재사용
+     */
+    REUSED_EXACT_DUPLICATE,
+    
+    /**
+     * 그룹 DB에 있는 유사 이미지(pHash)의 분석 결과 재사용
+     */
+    REUSED_NEAR_DUPLICATE
+}
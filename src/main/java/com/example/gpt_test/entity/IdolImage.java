@@ -9,7 +9,11 @@ import java.time.LocalDateTime;
  * 아이돌 이미지 엔티티 (사용자별 개인 갤러리 + 그룹별 공유 DB)
  */
 @Entity
-@Table(name = "idol_images")
+@Table(
+    name = "idol_images",
+    uniqueConstraints = @UniqueConstraint(name = "uk_idol_images_user_content_hash", columnNames = {"user_id", "content_hash"}),
+    indexes = @Index(name = "idx_idol_images_content_hash", columnList = "content_hash")
+)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class IdolImage {
     
@@ -29,6 +33,10 @@ public class IdolImage {
     @Column(nullable = false)
     private String pHash;
     
+    // 파일 원본 바이트의 SHA-256 (정확히 같은 파일 재업로드 판별용, 사용자별 유일)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
     @Column(nullable = false)
     private String originalFileName;
     
@@ -44,6 +52,21 @@ public class IdolImage {
     @Column(columnDefinition = "TEXT")
     private String gptAnalysis;
     
+    @Column
+    private String identifiedPerson;
+    
+    @Column
+    private String identifiedGroup;
+    
+    // 분석 결과 출처 (전체 분석 / 그룹 DB 결과 재사용)
+    @Enumerated(EnumType.STRING)
+    @Column
+    private AnalysisSource analysisSource;
+    
+    // 재사용한 경우 원본 이미지 ID
+    @Column
+    private Long reusedFromImageId;
+    
     @Column
     private Boolean isVerified;
     
@@ -125,6 +148,14 @@ public class IdolImage {
         this.pHash = pHash;
     }
     
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
     public String getOriginalFileName() {
         return originalFileName;
     }
@@ -165,6 +196,38 @@ public class IdolImage {
         this.gptAnalysis = gptAnalysis;
     }
     
+    public String getIdentifiedPerson() {
+        return identifiedPerson;
+    }
+    
+    public void setIdentifiedPerson(String identifiedPerson) {
+        this.identifiedPerson = identifiedPerson;
+    }
+    
+    public String getIdentifiedGroup() {
+        return identifiedGroup;
+    }
+    
+    public void setIdentifiedGroup(String identifiedGroup) {
+        this.identifiedGroup = identifiedGroup;
+    }
+    
+    public AnalysisSource getAnalysisSource() {
+        return analysisSource;
+    }
+    
+    public void setAnalysisSource(AnalysisSource analysisSource) {
+        this.analysisSource = analysisSource;
+    }
+    
+    public Long getReusedFromImageId() {
+        return reusedFromImageId;
+    }
+    
+    public void setReusedFromImageId(Long reusedFromImageId) {
+        this.reusedFromImageId = reusedFromImageId;
+    }
+    
     public Boolean getIsVerified() {
         return isVerified;
     }
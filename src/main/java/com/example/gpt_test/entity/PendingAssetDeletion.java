@@ -0,0 +1,77 @@
+package com.example.gpt_test.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 삭제 대기 중인 Cloudinary 이미지 (백그라운드 작업이 일괄 삭제, 실패 시 backoff 후 재시도)
+ */
+@Entity
+@Table(
+    name = "pending_asset_deletions",
+    indexes = @Index(name = "idx_pending_asset_deletions_next_attempt_at", columnList = "next_attempt_at")
+)
+public class PendingAssetDeletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String publicId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public PendingAssetDeletion() {}
+
+    public PendingAssetDeletion(String publicId) {
+        this.publicId = publicId;
+        this.attempts = 0;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    /**
+     * 삭제 실패 기록 후 다음 시도 시각 예약
+     */
+    public void recordFailure(String error, LocalDateTime nextAttemptAt) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getPublicId() {
+        return publicId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
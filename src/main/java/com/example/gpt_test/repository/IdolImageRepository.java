@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 아이돌 이미지 Repository
@@ -21,6 +22,16 @@ public interface IdolImageRepository extends JpaRepository<IdolImage, Long> {
      */
     boolean existsByUserAndPHash(User user, String pHash);
     
+    /**
+     * 특정 사용자가 같은 파일(SHA-256)을 이미 업로드했는지 확인
+     */
+    boolean existsByUserAndContentHash(User user, String contentHash);
+    
+    /**
+     * 같은 파일(SHA-256)로 그룹 DB에 검증된 이미지 조회 (분석 결과 재사용용)
+     */
+    Optional<IdolImage> findFirstByContentHashAndIsInGroupDatabaseTrueAndIsVerifiedTrue(String contentHash);
+    
     /**
      * 특정 아이돌의 모든 이미지 조회 (기존 호환성)
      */
@@ -37,10 +48,10 @@ public interface IdolImageRepository extends JpaRepository<IdolImage, Long> {
     IdolImage findByPHash(String pHash);
     
     /**
-     * 특정 사용자의 모든 pHash 값 조회 (개인 갤러리 중복 검사용)
+     * 특정 사용자의 모든 이미지 ID와 pHash 조회 (개인 갤러리 pHash 인덱스 로드용)
      */
-    @Query("SELECT i.pHash FROM IdolImage i WHERE i.user = :user")
-    List<String> findPHashesByUser(@Param("user") User user);
+    @Query("SELECT i.id, i.pHash FROM IdolImage i WHERE i.user = :user")
+    List<Object[]> findHashesByUser(@Param("user") User user);
     
     // === 새로운 사용자별/그룹별 조회 메서드 ===
     
@@ -80,6 +91,12 @@ public interface IdolImageRepository extends JpaRepository<IdolImage, Long> {
      */
     List<IdolImage> findByIsInGroupDatabaseTrueAndIsVerifiedTrue();
     
+    /**
+     * 그룹 DB에 있는 검증된 이미지의 ID와 pHash만 조회 (그룹 pHash 인덱스 로드용)
+     */
+    @Query("SELECT i.id, i.pHash FROM IdolImage i WHERE i.isInGroupDatabase = true AND i.isVerified = true")
+    List<Object[]> findGroupDatabaseHashes();
+    
     /**
      * 특정 아이돌의 모든 이미지 조회 (업로더 정보 포함)
      */
@@ -0,0 +1,21 @@
+package com.example.gpt_test.repository;
+
+import com.example.gpt_test.entity.PendingAssetDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cloudinary 삭제 대기열 Repository
+ */
+@Repository
+public interface PendingAssetDeletionRepository extends JpaRepository<PendingAssetDeletion, Long> {
+
+    /**
+     * 재시도 시각이 지난 삭제 대기 항목을 오래된 순으로 조회
+     */
+    List<PendingAssetDeletion> findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,73 @@
+package com.example.gpt_test.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 채팅 API(/api/chat/ask) 응답 캐시
+ * 모델, 정규화한 질문(NFKC, 공백 정리, 소문자), temperature의 해시를 키로 사용 (LRU + TTL)
+ * 요청의 noCache가 true면 조회/저장 모두 생략
+ */
+@Component
+public class ChatResponseCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final boolean enabled;
+    private final Cache<String, String> cache;
+
+    public ChatResponseCache(@Value("${chat.cache.enabled:true}") boolean enabled,
+                             @Value("${chat.cache.max-size:1000}") long maxSize,
+                             @Value("${chat.cache.ttl:1h}") Duration ttl,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "chatResponse");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 모델, 정규화한 질문, temperature의 SHA-256 키 생성
+     */
+    public static String key(String model, String question, double temperature) {
+        return DigestUtils.sha256Hex(model + "\n" + temperature + "\n" + normalize(question));
+    }
+
+    private static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(question, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(normalized.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return 캐시된 답변, 없으면 null
+     */
+    public String get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, String answer) {
+        if (answer != null) {
+            cache.put(key, answer);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.gpt_test.service;
 
+import com.example.gpt_test.config.ThrottledHttpClient;
 import com.example.gpt_test.dto.ChatRequestDto;
 import com.example.gpt_test.dto.ChatResponseDto;
 import com.example.gpt_test.dto.openai.OpenAiRequestDto;
 import com.example.gpt_test.dto.openai.OpenAiResponseDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -14,7 +18,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
 /**
  * GPT 채팅 서비스
@@ -24,6 +37,8 @@ public class ChatService {
     
     private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
     
+    private static final double DEFAULT_TEMPERATURE = 0.7;
+    
     @Value("${openai.api.key}")
     private String apiKey;
     
@@ -33,62 +48,290 @@ public class ChatService {
     @Value("${openai.api.model}")
     private String defaultModel;
     
+    @Value("${http.client.openai.response-timeout:60s}")
+    private Duration responseTimeout;
+    
     private final RestTemplate restTemplate;
+    private final ThrottledHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ChatResponseCache chatResponseCache;
     
-    public ChatService(RestTemplate restTemplate) {
+    public ChatService(@Qualifier("openAiRestTemplate") RestTemplate restTemplate,
+                       @Qualifier("openAiHttpClient") ThrottledHttpClient httpClient,
+                       ObjectMapper objectMapper,
+                       ChatResponseCache chatResponseCache) {
         this.restTemplate = restTemplate;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.chatResponseCache = chatResponseCache;
+    }
+    
+    /**
+     * OpenAI 요청 옵션 (응답 형식, 최대 출력 토큰)
+     */
+    public static class CompletionOptions {
+        public static final CompletionOptions DEFAULT = new CompletionOptions(null, 1000);
+        
+        private final Map<String, Object> responseFormat;
+        private final int maxTokens;
+        
+        /**
+         * @param responseFormat OpenAI response_format (null이면 일반 텍스트 응답)
+         * @param maxTokens 최대 출력 토큰 수
+         */
+        public CompletionOptions(Map<String, Object> responseFormat, int maxTokens) {
+            this.responseFormat = responseFormat;
+            this.maxTokens = maxTokens;
+        }
+        
+        public Map<String, Object> getResponseFormat() { return responseFormat; }
+        public int getMaxTokens() { return maxTokens; }
     }
     
     /**
      * GPT에게 질문하고 답변을 받는 메서드
+     * 같은 모델/질문(정규화)/temperature의 답변이 캐시에 있으면 OpenAI를 호출하지 않음 (request.noCache로 생략 가능)
      */
     public ChatResponseDto getChatResponse(ChatRequestDto request) {
+        if (!chatResponseCache.isEnabled() || request.isNoCache()) {
+            return getChatResponse(request, CompletionOptions.DEFAULT);
+        }
+        
+        long startTime = System.currentTimeMillis();
+        String model = resolveModel(request);
+        String cacheKey = ChatResponseCache.key(model, request.getQuestion(), DEFAULT_TEMPERATURE);
+        
+        String cachedAnswer = chatResponseCache.get(cacheKey);
+        if (cachedAnswer != null) {
+            logger.info("채팅 응답 캐시 적중 - 모델: {}", model);
+            return new ChatResponseDto(cachedAnswer, model, System.currentTimeMillis() - startTime);
+        }
+        
+        try {
+            ChatResponseDto response = requestChatResponse(request, model, CompletionOptions.DEFAULT, startTime);
+            chatResponseCache.put(cacheKey, response.getAnswer());
+            return response;
+        } catch (Exception e) {
+            return errorResponse(request, e, startTime);
+        }
+    }
+    
+    /**
+     * 응답 형식과 출력 토큰 수를 지정해 GPT에게 질문 (캐시 사용 안 함)
+     */
+    public ChatResponseDto getChatResponse(ChatRequestDto request, CompletionOptions options) {
         long startTime = System.currentTimeMillis();
         
         try {
             // 사용할 모델 결정
-            String model = request.getModel() != null ? request.getModel() : defaultModel;
-            
-            // OpenAI API 요청 객체 생성
-            OpenAiRequestDto.Message message = new OpenAiRequestDto.Message("user", request.getQuestion());
-            OpenAiRequestDto openAiRequest = new OpenAiRequestDto(
-                model,
-                Arrays.asList(message),
-                0.7   // temperature
-            );
-            openAiRequest.setMaxTokens(1000);
-            
-            // HTTP 헤더 설정
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("Content-Type", "application/json");
+            String model = resolveModel(request);
             
-            HttpEntity<OpenAiRequestDto> entity = new HttpEntity<>(openAiRequest, headers);
+            return requestChatResponse(request, model, options, startTime);
             
-            // OpenAI API 호출
-            ResponseEntity<OpenAiResponseDto> response = restTemplate.exchange(
-                apiUrl,
-                HttpMethod.POST,
-                entity,
-                OpenAiResponseDto.class
-            );
+        } catch (Exception e) {
+            return errorResponse(request, e, startTime);
+        }
+    }
+    
+    private ChatResponseDto requestChatResponse(ChatRequestDto request, String model, CompletionOptions options, long startTime) {
+        // OpenAI API 요청 객체 생성
+        OpenAiRequestDto openAiRequest = createOpenAiRequest(request, model, options);
+        
+        // HTTP 헤더 설정
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("Content-Type", "application/json");
+        
+        HttpEntity<OpenAiRequestDto> entity = new HttpEntity<>(openAiRequest, headers);
+        
+        // OpenAI API 호출
+        ResponseEntity<OpenAiResponseDto> response = restTemplate.exchange(
+            apiUrl,
+            HttpMethod.POST,
+            entity,
+            OpenAiResponseDto.class
+        );
+        
+        // 응답 처리
+        return toChatResponse(response.getBody(), model, startTime);
+    }
+    
+    /**
+     * GPT에게 질문하고 답변을 받는 비동기 메서드
+     * 응답을 기다리는 동안 스레드를 점유하지 않으며, 오류 시 동기 메서드와 같은 오류 응답으로 완료됨
+     */
+    public CompletableFuture<ChatResponseDto> getChatResponseAsync(ChatRequestDto request) {
+        return getChatResponseAsync(request, CompletionOptions.DEFAULT);
+    }
+    
+    /**
+     * getChatResponse(request, options)의 비동기 버전
+     */
+    public CompletableFuture<ChatResponseDto> getChatResponseAsync(ChatRequestDto request, CompletionOptions options) {
+        long startTime = System.currentTimeMillis();
+        String model = resolveModel(request);
+        
+        HttpRequest httpRequest;
+        try {
+            httpRequest = HttpRequest.newBuilder(URI.create(apiUrl))
+                .timeout(responseTimeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(createOpenAiRequest(request, model, options))))
+                .build();
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(errorResponse(request, e, startTime));
+        }
+        
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(response -> {
+                if (response.statusCode() / 100 != 2) {
+                    throw new IllegalStateException("OpenAI API 오류 응답: HTTP " + response.statusCode());
+                }
+                try {
+                    return toChatResponse(objectMapper.readValue(response.body(), OpenAiResponseDto.class), model, startTime);
+                } catch (IOException e) {
+                    throw new IllegalStateException("OpenAI API 응답을 해석할 수 없습니다: " + e.getMessage(), e);
+                }
+            })
+            .exceptionally(e -> errorResponse(request, e.getCause() != null ? e.getCause() : e, startTime));
+    }
+    
+    /**
+     * GPT 답변을 스트리밍으로 받는 메서드 (stream=true)
+     * 도착한 답변 조각을 onDelta로 바로 넘기고 답변 전체를 모아 두지 않으며,
+     * 스트림이 끝나면 모델과 전체 응답 시간만 담은 응답(answer는 null)으로 완료됨
+     * onDelta가 예외를 던지면(클라이언트 연결 종료 등) OpenAI 응답 수신을 중단하고 그 예외로 실패
+     */
+    public CompletableFuture<ChatResponseDto> streamChatResponse(ChatRequestDto request, Consumer<String> onDelta) {
+        long startTime = System.currentTimeMillis();
+        String model = resolveModel(request);
+        
+        HttpRequest httpRequest;
+        try {
+            OpenAiRequestDto openAiRequest = createOpenAiRequest(request, model, CompletionOptions.DEFAULT);
+            openAiRequest.setStream(true);
+            httpRequest = HttpRequest.newBuilder(URI.create(apiUrl))
+                .timeout(responseTimeout)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(openAiRequest)))
+                .build();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        CompletableFuture<ChatResponseDto> result = new CompletableFuture<>();
+        DeltaSubscriber subscriber = new DeltaSubscriber(objectMapper, onDelta, result);
+        
+        httpClient.sendAsync(httpRequest, responseInfo -> responseInfo.statusCode() / 100 == 2
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(subscriber)
+                : HttpResponse.BodySubscribers.<Void>replacing(null))
+            .whenComplete((response, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+                } else if (response.statusCode() / 100 != 2) {
+                    result.completeExceptionally(new IllegalStateException("OpenAI API 오류 응답: HTTP " + response.statusCode()));
+                } else {
+                    result.complete(new ChatResponseDto(null, model, System.currentTimeMillis() - startTime));
+                }
+            });
+        return result;
+    }
+    
+    /**
+     * OpenAI 스트리밍 응답(SSE)의 줄을 읽어 choices[0].delta.content 조각만 전달
+     */
+    private static class DeltaSubscriber implements Flow.Subscriber<String> {
+        private final ObjectMapper objectMapper;
+        private final Consumer<String> onDelta;
+        private final CompletableFuture<ChatResponseDto> result;
+        private Flow.Subscription subscription;
+        
+        private DeltaSubscriber(ObjectMapper objectMapper, Consumer<String> onDelta, CompletableFuture<ChatResponseDto> result) {
+            this.objectMapper = objectMapper;
+            this.onDelta = onDelta;
+            this.result = result;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+        
+        @Override
+        public void onNext(String line) {
+            if (result.isDone() || !line.startsWith("data:")) {
+                return;
+            }
+            String payload = line.substring(5).trim();
+            if (payload.isEmpty() || "[DONE]".equals(payload)) {
+                return;
+            }
             
-            // 응답 처리
-            OpenAiResponseDto openAiResponse = response.getBody();
-            if (openAiResponse != null && openAiResponse.getChoices() != null && !openAiResponse.getChoices().isEmpty()) {
-                String answer = openAiResponse.getChoices().get(0).getMessage().getContent();
-                long responseTime = System.currentTimeMillis() - startTime;
-                
-                return new ChatResponseDto(answer, model, responseTime);
-            } else {
-                throw new RuntimeException("OpenAI API에서 유효한 응답을 받지 못했습니다.");
+            JsonNode content;
+            try {
+                content = objectMapper.readTree(payload).path("choices").path(0).path("delta").path("content");
+            } catch (IOException e) {
+                logger.warn("OpenAI 스트리밍 조각을 해석할 수 없음: {}", payload);
+                return;
+            }
+            if (!content.isTextual() || content.asText().isEmpty()) {
+                return;
             }
             
-        } catch (Exception e) {
-            logger.error("GPT API 호출 중 오류 발생: {}", e.getMessage(), e);
+            try {
+                onDelta.accept(content.asText());
+            } catch (RuntimeException e) {
+                subscription.cancel();
+                result.completeExceptionally(e);
+            }
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+        
+        @Override
+        public void onComplete() {
+            // 완료 응답은 sendAsync 완료 시 생성
+        }
+    }
+    
+    private String resolveModel(ChatRequestDto request) {
+        return request.getModel() != null ? request.getModel() : defaultModel;
+    }
+    
+    private OpenAiRequestDto createOpenAiRequest(ChatRequestDto request, String model, CompletionOptions options) {
+        OpenAiRequestDto.Message message = new OpenAiRequestDto.Message("user", request.getQuestion());
+        OpenAiRequestDto openAiRequest = new OpenAiRequestDto(
+            model,
+            Arrays.asList(message),
+            DEFAULT_TEMPERATURE
+        );
+        openAiRequest.setMaxTokens(options.getMaxTokens());
+        openAiRequest.setResponseFormat(options.getResponseFormat());
+        return openAiRequest;
+    }
+    
+    private ChatResponseDto toChatResponse(OpenAiResponseDto openAiResponse, String model, long startTime) {
+        if (openAiResponse != null && openAiResponse.getChoices() != null && !openAiResponse.getChoices().isEmpty()) {
+            String answer = openAiResponse.getChoices().get(0).getMessage().getContent();
             long responseTime = System.currentTimeMillis() - startTime;
-            return new ChatResponseDto("죄송합니다. 요청을 처리하는 중 오류가 발생했습니다: " + e.getMessage(), 
-                                     request.getModel(), responseTime);
+            
+            return new ChatResponseDto(answer, model, responseTime);
+        } else {
+            throw new RuntimeException("OpenAI API에서 유효한 응답을 받지 못했습니다.");
         }
     }
+    
+    private ChatResponseDto errorResponse(ChatRequestDto request, Throwable e, long startTime) {
+        logger.error("GPT API 호출 중 오류 발생: {}", e.getMessage(), e);
+        long responseTime = System.currentTimeMillis() - startTime;
+        return new ChatResponseDto("죄송합니다. 요청을 처리하는 중 오류가 발생했습니다: " + e.getMessage(),
+                                 request.getModel(), responseTime);
+    }
 }
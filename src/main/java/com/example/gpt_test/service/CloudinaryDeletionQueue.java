@@ -0,0 +1,146 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.entity.PendingAssetDeletion;
+import com.example.gpt_test.repository.PendingAssetDeletionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cloudinary 이미지 삭제 대기열
+ * 요청 처리 중에는 삭제할 public_id를 DB에 기록만 하고, 백그라운드 작업이 모아서 일괄 삭제 API로 처리
+ * 삭제에 실패한 항목은 지수 backoff 후 재시도하며, max-attempts를 넘으면 대기열에서 제거
+ */
+@Service
+public class CloudinaryDeletionQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(CloudinaryDeletionQueue.class);
+
+    // Cloudinary Admin API 일괄 삭제 한 번에 보낼 수 있는 최대 개수
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final PendingAssetDeletionRepository pendingAssetDeletionRepository;
+    private final CloudinaryImageStore cloudinaryImageStore;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final Counter deletedCounter;
+    private final Counter failureCounter;
+    private final Counter droppedCounter;
+
+    public CloudinaryDeletionQueue(PendingAssetDeletionRepository pendingAssetDeletionRepository,
+                                   CloudinaryImageStore cloudinaryImageStore,
+                                   @Value("${idol.cloudinary.deletion.batch-size:100}") int batchSize,
+                                   @Value("${idol.cloudinary.deletion.max-attempts:8}") int maxAttempts,
+                                   @Value("${idol.cloudinary.deletion.initial-backoff:30s}") Duration initialBackoff,
+                                   @Value("${idol.cloudinary.deletion.max-backoff:1h}") Duration maxBackoff,
+                                   MeterRegistry meterRegistry) {
+        this.pendingAssetDeletionRepository = pendingAssetDeletionRepository;
+        this.cloudinaryImageStore = cloudinaryImageStore;
+        this.batchSize = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        Gauge.builder("cloudinary.deletion.queue.depth", pendingAssetDeletionRepository, PendingAssetDeletionRepository::count)
+            .description("삭제 대기 중인 Cloudinary 이미지 수")
+            .register(meterRegistry);
+        this.deletedCounter = Counter.builder("cloudinary.deletion.deleted")
+            .description("삭제 완료된 Cloudinary 이미지 수")
+            .register(meterRegistry);
+        this.failureCounter = Counter.builder("cloudinary.deletion.failures")
+            .description("삭제에 실패해 재시도 예약된 횟수")
+            .register(meterRegistry);
+        this.droppedCounter = Counter.builder("cloudinary.deletion.dropped")
+            .description("최대 재시도 횟수를 넘어 포기한 삭제 수")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 삭제할 이미지를 대기열에 추가 (Cloudinary 호출 없이 바로 반환)
+     */
+    public void enqueue(String publicId) {
+        if (publicId == null || publicId.trim().isEmpty()) {
+            logger.warn("삭제할 public_id가 없습니다.");
+            return;
+        }
+        pendingAssetDeletionRepository.save(new PendingAssetDeletion(publicId));
+        logger.debug("Cloudinary 삭제 대기열 추가: {}", publicId);
+    }
+
+    /**
+     * 재시도 시각이 지난 항목을 batch-size개씩 일괄 삭제 (대기 항목이 없을 때까지 반복)
+     */
+    @Scheduled(fixedDelayString = "${idol.cloudinary.deletion.interval:10s}")
+    public void drain() {
+        List<PendingAssetDeletion> batch;
+        do {
+            batch = pendingAssetDeletionRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (!batch.isEmpty()) {
+                deleteBatch(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void deleteBatch(List<PendingAssetDeletion> batch) {
+        List<String> publicIds = new ArrayList<>(batch.size());
+        for (PendingAssetDeletion deletion : batch) {
+            publicIds.add(deletion.getPublicId());
+        }
+
+        Set<String> completed;
+        String error;
+        try {
+            completed = cloudinaryImageStore.deleteAll(publicIds);
+            error = "삭제되지 않음";
+        } catch (Exception e) {
+            logger.error("Cloudinary 이미지 일괄 삭제 실패: {}개, 오류={}", publicIds.size(), e.getMessage());
+            completed = Set.of();
+            error = e.getMessage();
+        }
+
+        List<PendingAssetDeletion> finished = new ArrayList<>();
+        List<PendingAssetDeletion> retries = new ArrayList<>();
+        for (PendingAssetDeletion deletion : batch) {
+            if (completed.contains(deletion.getPublicId())) {
+                finished.add(deletion);
+            } else if (deletion.getAttempts() + 1 >= maxAttempts) {
+                logger.error("Cloudinary 이미지 삭제 포기 ({}회 실패): public_id={}, 오류={}",
+                    deletion.getAttempts() + 1, deletion.getPublicId(), error);
+                finished.add(deletion);
+                droppedCounter.increment();
+            } else {
+                deletion.recordFailure(error, LocalDateTime.now().plus(backoff(deletion.getAttempts())));
+                retries.add(deletion);
+                failureCounter.increment();
+            }
+        }
+
+        pendingAssetDeletionRepository.deleteAll(finished);
+        pendingAssetDeletionRepository.saveAll(retries);
+        deletedCounter.increment(completed.size());
+    }
+
+    /**
+     * 재시도 대기 시간 (initial-backoff * 2^실패 횟수, 최대 max-backoff)
+     */
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
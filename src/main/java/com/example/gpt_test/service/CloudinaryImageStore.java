@@ -0,0 +1,134 @@
+package com.example.gpt_test.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.example.gpt_test.util.IngestedImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cloudinary 이미지 저장소 (업로드/삭제)
+ * 일치 판정을 받아 보관하는 이미지의 최종 저장소
+ */
+@Component
+public class CloudinaryImageStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CloudinaryImageStore.class);
+    
+    // https://res.cloudinary.com/{cloud}/image/upload/v{version}/{public_id}.{format}
+    private static final Pattern UPLOAD_URL = Pattern.compile("^https?://res\\.cloudinary\\.com/[^/]+/image/upload/(?:v\\d+/)?(.+?)(?:\\.[A-Za-z0-9]+)?$");
+    
+    private final Cloudinary cloudinary;
+    
+    public CloudinaryImageStore(Cloudinary cloudinary) {
+        this.cloudinary = cloudinary;
+    }
+    
+    /**
+     * Cloudinary 업로드 결과
+     */
+    public static class UploadResult {
+        private final String secureUrl;
+        private final String publicId;
+        
+        public UploadResult(String secureUrl, String publicId) {
+            this.secureUrl = secureUrl;
+            this.publicId = publicId;
+        }
+        
+        public String getSecureUrl() { return secureUrl; }
+        public String getPublicId() { return publicId; }
+    }
+    
+    /**
+     * Cloudinary에 파일 업로드 (public_id 포함 반환)
+     */
+    public UploadResult upload(IngestedImage file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("업로드할 파일이 없습니다.");
+        }
+        
+        // 파일 크기 제한 (10MB)
+        if (file.getSize() > 10 * 1024 * 1024) {
+            throw new IllegalArgumentException("파일 크기는 10MB를 초과할 수 없습니다.");
+        }
+        
+        // 이미지 파일인지 확인 (매직 바이트로 판별한 실제 형식)
+        if (file.getFormat() == null) {
+            throw new IllegalArgumentException("이미지 파일만 업로드 가능합니다.");
+        }
+        
+        try {
+            logger.info("Cloudinary 업로드 시작: {} ({}bytes)", file.getOriginalFilename(), file.getSize());
+            
+            // Cloudinary 업로드 옵션 설정
+            Map<?, ?> uploadOptions = ObjectUtils.asMap(
+                "resource_type", "image",
+                "folder", "gpt_test_images", // 폴더명 설정
+                "use_filename", true,
+                "unique_filename", true,
+                "overwrite", false,
+                "format", "jpg" // 자동으로 JPG로 변환
+            );
+            
+            // 파일 업로드 실행 (수집 시 읽어 둔 버퍼를 그대로 전달)
+            Map<?, ?> uploadResult = cloudinary.uploader().upload(file.getBytes(), uploadOptions);
+            
+            String secureUrl = (String) uploadResult.get("secure_url");
+            String publicId = (String) uploadResult.get("public_id");
+            
+            logger.info("Cloudinary 업로드 성공: public_id={}, url={}", publicId, secureUrl);
+            
+            return new UploadResult(secureUrl, publicId);
+            
+        } catch (IOException e) {
+            logger.error("Cloudinary 업로드 실패: {}", e.getMessage(), e);
+            throw new IOException("이미지 업로드에 실패했습니다: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 업로드 결과 URL(secure_url)에서 public_id 추출
+     * @return public_id, Cloudinary 업로드 URL이 아니면 null
+     */
+    public static String publicIdFromUrl(String secureUrl) {
+        if (secureUrl == null) {
+            return null;
+        }
+        Matcher matcher = UPLOAD_URL.matcher(secureUrl);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+    
+    /**
+     * Cloudinary에서 여러 이미지를 한 번의 Admin API 호출로 삭제 (호출당 최대 100개)
+     * @return 삭제가 확인된 public_id 목록 (이미 없는 이미지 포함)
+     */
+    public Set<String> deleteAll(List<String> publicIds) throws Exception {
+        logger.info("Cloudinary 이미지 일괄 삭제 시작: {}개", publicIds.size());
+        
+        Map<?, ?> response = cloudinary.api().deleteResources(publicIds, ObjectUtils.asMap("resource_type", "image"));
+        Map<?, ?> deleted = response.get("deleted") instanceof Map<?, ?> map ? map : Map.of();
+        
+        Set<String> completed = new HashSet<>();
+        for (String publicId : publicIds) {
+            Object result = deleted.get(publicId);
+            if ("deleted".equals(result) || "not_found".equals(result)) {
+                completed.add(publicId);
+            } else {
+                logger.warn("Cloudinary 이미지 삭제 결과: {}, public_id: {}", result, publicId);
+            }
+        }
+        
+        logger.info("Cloudinary 이미지 일괄 삭제 완료: {}/{}개", completed.size(), publicIds.size());
+        return completed;
+    }
+}
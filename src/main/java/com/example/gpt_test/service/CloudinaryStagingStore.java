@@ -0,0 +1,42 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.util.IngestedImage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Cloudinary 임시 저장소 (기본값)
+ * 분석 전에 Cloudinary에 업로드하고, 일치하면 그대로 보관하며 불일치하면 삭제 대기열에 추가
+ */
+@Component
+@ConditionalOnProperty(name = "idol.staging.store", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryStagingStore implements ImageStagingStore {
+    
+    private final CloudinaryImageStore cloudinaryImageStore;
+    private final CloudinaryDeletionQueue cloudinaryDeletionQueue;
+    
+    public CloudinaryStagingStore(CloudinaryImageStore cloudinaryImageStore, CloudinaryDeletionQueue cloudinaryDeletionQueue) {
+        this.cloudinaryImageStore = cloudinaryImageStore;
+        this.cloudinaryDeletionQueue = cloudinaryDeletionQueue;
+    }
+    
+    @Override
+    public StagedImage stage(IngestedImage image) throws IOException {
+        CloudinaryImageStore.UploadResult uploadResult = cloudinaryImageStore.upload(image);
+        return new StagedImage(uploadResult.getSecureUrl(), uploadResult.getPublicId(), uploadResult.getSecureUrl());
+    }
+    
+    @Override
+    public String keep(StagedImage staged, IngestedImage image) {
+        // 이미 Cloudinary에 있으므로 그대로 보관
+        return staged.getPermanentUrl();
+    }
+    
+    @Override
+    public void discard(StagedImage staged) {
+        // 삭제 대기열에 기록만 하고 실제 삭제는 백그라운드에서 일괄 처리
+        cloudinaryDeletionQueue.enqueue(staged.getHandle());
+    }
+}
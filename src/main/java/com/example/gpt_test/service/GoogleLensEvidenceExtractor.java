@@ -0,0 +1,102 @@
+package com.example.gpt_test.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Google Lens(SERP) 응답에서 근거 데이터만 스트리밍으로 추출
+ * 응답 전체를 DTO로 바인딩하지 않고 visual_matches[].title, related_content[].query만 읽으며,
+ * 나머지 필드(썸네일, 출처, 가격 등)는 객체로 만들지 않고 건너뜀. 두 목록이 모두 가득 차면 즉시 중단
+ */
+@Component
+public class GoogleLensEvidenceExtractor {
+
+    // 최대 20개 title, 5개 query까지만
+    private static final int MAX_TITLES = 20;
+    private static final int MAX_QUERIES = 5;
+
+    private final JsonFactory jsonFactory;
+
+    public GoogleLensEvidenceExtractor(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public LensEvidenceCache.LensEvidence extract(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return extract(parser);
+        }
+    }
+
+    public LensEvidenceCache.LensEvidence extract(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return extract(parser);
+        }
+    }
+
+    private LensEvidenceCache.LensEvidence extract(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Google Lens API에서 응답을 받지 못했습니다.");
+        }
+
+        List<String> titles = new ArrayList<>();
+        List<String> queries = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+
+            if ("visual_matches".equals(field)) {
+                collect(parser, "title", titles, MAX_TITLES);
+            } else if ("related_content".equals(field)) {
+                collect(parser, "query", queries, MAX_QUERIES);
+            } else {
+                parser.skipChildren();
+            }
+
+            if (titles.size() >= MAX_TITLES && queries.size() >= MAX_QUERIES) {
+                break;
+            }
+        }
+        return new LensEvidenceCache.LensEvidence(titles, queries);
+    }
+
+    /**
+     * 객체 배열에서 지정한 문자열 필드만 limit개까지 수집 (parser는 배열 시작 토큰에 위치)
+     * 배열이 끝나면 parser는 배열 종료 토큰에 위치
+     */
+    private static void collect(JsonParser parser, String key, List<String> values, int limit) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        JsonToken element;
+        while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+            if (values.size() >= limit || element != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            String found = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (key.equals(field) && value == JsonToken.VALUE_STRING) {
+                    found = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (found != null && !found.trim().isEmpty()) {
+                values.add(found);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.gpt_test.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * GPT 인물 식별 응답 캐시
+ * 프롬프트는 Google Lens 근거(titles, queries)와 사용자 선호 정보로만 만들어지므로,
+ * 정렬/중복 제거한 근거와 선호 정보의 해시를 키로 사용 (LRU + TTL)
+ */
+@Component
+public class GptIdentificationCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Cache<String, String> cache;
+
+    public GptIdentificationCache(@Value("${idol.gpt-cache.max-size:5000}") long maxSize,
+                                  @Value("${idol.gpt-cache.ttl:6h}") Duration ttl,
+                                  MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gptIdentification");
+    }
+
+    /**
+     * 정규화한 근거와 선호 정보의 SHA-256 키 생성
+     */
+    public static String key(List<String> titles, List<String> queries, String favoriteGroup, String favoriteName) {
+        StringBuilder canonical = new StringBuilder();
+        canonical.append("titles:").append(normalize(titles)).append('\n');
+        canonical.append("queries:").append(normalize(queries)).append('\n');
+        canonical.append("group:").append(normalize(favoriteGroup)).append('\n');
+        canonical.append("name:").append(normalize(favoriteName));
+        return DigestUtils.sha256Hex(canonical.toString());
+    }
+
+    private static String normalize(List<String> values) {
+        return values.stream()
+            .map(GptIdentificationCache::normalize)
+            .filter(value -> !value.isEmpty())
+            .distinct()
+            .sorted()
+            .collect(Collectors.joining("\u0000"));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : WHITESPACE.matcher(value.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return 캐시된 GPT 응답, 없으면 null
+     */
+    public String get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * 판정 결과(is_match)가 포함된 응답만 저장 (오류 메시지 응답은 캐시하지 않음)
+     */
+    public void put(String key, String answer) {
+        if (answer != null && answer.contains("\"is_match\"")) {
+            cache.put(key, answer);
+        }
+    }
+}
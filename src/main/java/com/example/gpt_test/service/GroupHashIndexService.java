@@ -0,0 +1,137 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.entity.IdolImage;
+import com.example.gpt_test.repository.IdolImageRepository;
+import com.example.gpt_test.util.ImageHashUtil;
+import com.example.gpt_test.util.MultiIndexHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 그룹 DB(공유) pHash 인덱스 (멀티 인덱스 해싱)
+ * 애플리케이션 시작 시 검증된 그룹 DB 이미지로 채우고, 업로드/삭제 시 증분 갱신
+ */
+@Service
+public class GroupHashIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupHashIndexService.class);
+
+    @Autowired
+    private IdolImageRepository idolImageRepository;
+
+    private final MultiIndexHash index;
+
+    // synchronized 대신 읽기/쓰기 잠금 사용 (조회가 대부분이며, 가상 스레드 pinning 방지)
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 조회에 사용하는 최대 거리(참고용 유사 이미지 검색, 분석 재사용)가 band 수로 보장되는지 시작 시 검증
+     * @throws IllegalStateException 검색 가능한 최대 거리(bands - 1)보다 큰 거리가 설정된 경우
+     */
+    public GroupHashIndexService(@Value("${idol.group-index.bands:4}") int bands,
+                                 @Value("${idol.reuse.max-distance:2}") int reuseMaxDistance) {
+        this.index = new MultiIndexHash(bands);
+        int requiredDistance = Math.max(reuseMaxDistance, ImageHashUtil.DEFAULT_DUPLICATE_DISTANCE);
+        if (requiredDistance > index.maxSearchDistance()) {
+            throw new IllegalStateException("idol.group-index.bands=" + bands + "로는 거리 " + index.maxSearchDistance()
+                + "까지만 검색할 수 있습니다 (필요한 최대 거리: " + requiredDistance
+                + ", idol.reuse.max-distance를 줄이거나 band 수를 늘려야 합니다)");
+        }
+    }
+
+    /**
+     * 시작 시 그룹 DB의 검증된 이미지 해시 로드
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        long startTime = System.currentTimeMillis();
+        List<Object[]> rows = idolImageRepository.findGroupDatabaseHashes();
+
+        int loaded = 0;
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                try {
+                    index.add(ImageHashUtil.parseHash((String) row[1]), (Long) row[0]);
+                    loaded++;
+                } catch (IllegalArgumentException e) {
+                    // 이전 형식의 해시는 인덱스에서 제외
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("그룹 DB pHash 인덱스 로드 완료: {}개 ({}ms)", loaded, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * maxDistance 이내의 그룹 DB 이미지 검색 (거리 오름차순)
+     * 설정된 거리는 생성 시 검증하므로 maxDistance는 항상 인덱스가 보장하는 범위 안
+     */
+    public List<MultiIndexHash.Match> findNearDuplicates(long pHash, int maxDistance) {
+        lock.readLock().lock();
+        try {
+            return index.findWithin(pHash, maxDistance);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 그룹 DB에 추가된 이미지를 인덱스에 반영
+     */
+    public void add(IdolImage image) {
+        if (!Boolean.TRUE.equals(image.getIsInGroupDatabase()) || !Boolean.TRUE.equals(image.getIsVerified())) {
+            return;
+        }
+        try {
+            long hash = ImageHashUtil.parseHash(image.getpHash());
+            lock.writeLock().lock();
+            try {
+                index.add(hash, image.getId());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("그룹 인덱스에 추가할 수 없는 pHash: id={}, pHash={}", image.getId(), image.getpHash());
+        }
+    }
+
+    /**
+     * 삭제된 이미지를 인덱스에서 제거
+     */
+    public void remove(IdolImage image) {
+        try {
+            long hash = ImageHashUtil.parseHash(image.getpHash());
+            lock.writeLock().lock();
+            try {
+                index.remove(hash, image.getId());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IllegalArgumentException e) {
+            // 인덱스에 없는 형식
+        }
+    }
+
+    /**
+     * 인덱스된 이미지 수
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.dto.ChatResponseDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 요청 간 GPT 식별 마이크로 배칭
+ * 동시에 들어온 식별 요청을 짧은 시간(window) 동안 또는 최대 개수까지 모아 한 번의 배치 프롬프트로 보내고,
+ * 응답을 기다리던 호출자들에게 나눠 전달 (OpenAI 요청 수를 줄이는 대신 몇 ms의 지연이 추가됨)
+ */
+@Component
+public class IdentificationBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdentificationBatcher.class);
+
+    private final IdentificationService identificationService;
+    private final TaskScheduler scheduler;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<PendingItem> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private final DistributionSummary batchSizeSummary;
+
+    /**
+     * 응답을 기다리는 식별 요청
+     */
+    private static class PendingItem {
+        private final IdentificationService.IdentificationItem item;
+        private final CompletableFuture<ChatResponseDto> future = new CompletableFuture<>();
+
+        private PendingItem(IdentificationService.IdentificationItem item) {
+            this.item = item;
+        }
+    }
+
+    public IdentificationBatcher(IdentificationService identificationService,
+                                 @Qualifier("identificationBatchScheduler") TaskScheduler scheduler,
+                                 @Value("${idol.gpt-batcher.enabled:true}") boolean enabled,
+                                 @Value("${idol.gpt-batcher.window:30ms}") Duration window,
+                                 @Value("${idol.gpt-batcher.max-batch-size:8}") int maxBatchSize,
+                                 MeterRegistry meterRegistry) {
+        this.identificationService = identificationService;
+        this.scheduler = scheduler;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+
+        Gauge.builder("gpt.batcher.queue.depth", this, IdentificationBatcher::queueDepth)
+            .description("배치 전송을 기다리는 식별 요청 수")
+            .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("gpt.batcher.batch.size")
+            .description("한 번에 전송한 식별 요청 수")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 식별 요청 제출 (캐시에 있거나 로컬 판정이 가능하면 즉시 완료)
+     */
+    public CompletableFuture<ChatResponseDto> submit(IdentificationService.IdentificationItem item) {
+        ChatResponseDto cached = identificationService.findWithoutGpt(item);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (!enabled) {
+            return identificationService.identifyAsync(item);
+        }
+
+        PendingItem pendingItem = new PendingItem(item);
+        List<PendingItem> fullBatch = null;
+        lock.lock();
+        try {
+            pending.add(pendingItem);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = drain();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, Instant.now().plus(window));
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (fullBatch != null) {
+            send(fullBatch);
+        }
+        return pendingItem.future;
+    }
+
+    /**
+     * 여러 식별 요청 제출 (입력 순서와 같은 순서의 응답)
+     * 배칭을 끄면 요청 단위 배치(IdentificationService.identifyBatchAsync)로 처리
+     */
+    public CompletableFuture<List<ChatResponseDto>> submitAll(List<IdentificationService.IdentificationItem> items) {
+        if (!enabled) {
+            return identificationService.identifyBatchAsync(items);
+        }
+
+        List<CompletableFuture<ChatResponseDto>> futures = new ArrayList<>(items.size());
+        for (IdentificationService.IdentificationItem item : items) {
+            futures.add(submit(item));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(v -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    private void flush() {
+        List<PendingItem> batch;
+        lock.lock();
+        try {
+            batch = drain();
+        } finally {
+            lock.unlock();
+        }
+        send(batch);
+    }
+
+    /**
+     * 대기 중인 요청을 꺼내고 예약된 flush 취소 (lock을 잡은 상태에서 호출)
+     */
+    private List<PendingItem> drain() {
+        List<PendingItem> batch = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void send(List<PendingItem> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizeSummary.record(batch.size());
+        logger.debug("GPT 마이크로 배치 전송: {}개", batch.size());
+
+        List<IdentificationService.IdentificationItem> items = new ArrayList<>(batch.size());
+        for (PendingItem pendingItem : batch) {
+            items.add(pendingItem.item);
+        }
+
+        CompletableFuture<List<ChatResponseDto>> responsesFuture;
+        try {
+            responsesFuture = identificationService.identifyBatchAsync(items);
+        } catch (RuntimeException e) {
+            responsesFuture = CompletableFuture.failedFuture(e);
+        }
+
+        responsesFuture.whenComplete((responses, e) -> {
+            for (int i = 0; i < batch.size(); i++) {
+                if (e != null) {
+                    batch.get(i).future.completeExceptionally(e);
+                } else {
+                    batch.get(i).future.complete(responses.get(i));
+                }
+            }
+        });
+    }
+
+    private int queueDepth() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 종료 시 남은 요청 전송 (스케줄러는 Spring이 이 빈보다 나중에 종료)
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
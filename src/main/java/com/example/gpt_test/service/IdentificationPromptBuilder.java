@@ -0,0 +1,230 @@
+package com.example.gpt_test.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * GPT 인물 식별 프롬프트 생성
+ * 변하지 않는 지시사항/규칙을 앞에 두고 그 뒤에 선호 정보와 근거를 붙임. 근거는 거의 같은 title을 제거하고 길이를 자른 뒤 토큰 예산에 맞춤
+ * 고정 접두부는 약 300토큰으로 OpenAI 프롬프트 캐시의 최소 일치 길이(1024토큰)보다 짧으므로, 이 순서로 인한 캐시 효과는 없음
+ */
+@Component
+public class IdentificationPromptBuilder {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // 단건/배치 공통 지시사항 (요청마다 바뀌는 내용을 넣지 않음)
+    private static final String STATIC_PREFIX =
+        "You identify the person in a photo from Google Lens image search results and compare them with the user's favorite.\n\n"
+            + "Rules:\n"
+            + "- Use only lowercase English letters and numbers\n"
+            + "- For name: use the person's stage name or commonly known name\n"
+            + "- For group_name: use the group/band name if applicable, or \"solo\" if solo artist\n"
+            + "- For is_match: compare identified person/group with user's favorite and return true if they match, false otherwise\n"
+            + "- For match_reason: explain why they match or don't match (e.g., \"same person\", \"same group\", \"different person\", \"different group\")\n"
+            + "- If you recognize the person, fill in any missing information\n"
+            + "- If uncertain, use \"unknown\" for unknown fields\n";
+
+    private static final String SINGLE_FORMAT =
+        "- Return ONLY a JSON response with the format: "
+            + "{\"name\": \"person_name\", \"group_name\": \"group_or_solo\", \"is_match\": true/false, \"match_reason\": \"reason\"}\n"
+            + "- Return ONLY the JSON, no additional text\n\n";
+
+    private static final String BATCH_FORMAT =
+        "- Judge each image only from its own search results\n"
+            + "- Return ONLY a JSON object whose verdicts array has one object per image, in the same order, with the format: "
+            + "{\"verdicts\": [{\"image\": 1, \"name\": \"person_name\", \"group_name\": \"group_or_solo\", \"is_match\": true/false, \"match_reason\": \"reason\"}]}\n"
+            + "- Return ONLY the JSON object, no additional text\n\n";
+
+    private final int maxEvidenceTokens;
+    private final int maxTitleLength;
+    private final double similarityThreshold;
+    private final DistributionSummary singlePromptTokens;
+    private final DistributionSummary batchPromptTokens;
+
+    public IdentificationPromptBuilder(@Value("${idol.prompt.max-evidence-tokens:400}") int maxEvidenceTokens,
+                                       @Value("${idol.prompt.max-title-length:120}") int maxTitleLength,
+                                       @Value("${idol.prompt.title-similarity-threshold:0.8}") double similarityThreshold,
+                                       MeterRegistry meterRegistry) {
+        this.maxEvidenceTokens = maxEvidenceTokens;
+        this.maxTitleLength = maxTitleLength;
+        this.similarityThreshold = similarityThreshold;
+        this.singlePromptTokens = promptTokensSummary(meterRegistry, "single");
+        this.batchPromptTokens = promptTokensSummary(meterRegistry, "batch");
+    }
+
+    private static DistributionSummary promptTokensSummary(MeterRegistry meterRegistry, String mode) {
+        return DistributionSummary.builder("gpt.identification.prompt.tokens")
+            .description("식별 프롬프트의 추정 입력 토큰 수")
+            .tag("mode", mode)
+            .register(meterRegistry);
+    }
+
+    /**
+     * 이미지 하나용 프롬프트
+     */
+    public String single(IdentificationService.IdentificationItem item) {
+        StringBuilder prompt = new StringBuilder(STATIC_PREFIX).append(SINGLE_FORMAT);
+        appendFavorite(prompt, item.getFavoriteGroup(), item.getFavoriteName());
+        appendEvidence(prompt, item);
+
+        String result = prompt.toString();
+        singlePromptTokens.record(estimateTokens(result));
+        return result;
+    }
+
+    /**
+     * 여러 이미지용 프롬프트 (모든 항목의 선호 정보가 같으면 한 번만, 다르면 이미지별로 포함)
+     */
+    public String batch(List<IdentificationService.IdentificationItem> items) {
+        StringBuilder prompt = new StringBuilder(STATIC_PREFIX).append(BATCH_FORMAT);
+
+        IdentificationService.IdentificationItem first = items.get(0);
+        boolean sharedFavorite = items.stream().allMatch(item ->
+            Objects.equals(item.getFavoriteGroup(), first.getFavoriteGroup())
+                && Objects.equals(item.getFavoriteName(), first.getFavoriteName()));
+        if (sharedFavorite) {
+            appendFavorite(prompt, first.getFavoriteGroup(), first.getFavoriteName());
+        }
+
+        prompt.append("There are ").append(items.size()).append(" images.\n\n");
+        for (int i = 0; i < items.size(); i++) {
+            prompt.append("### Image ").append(i + 1).append("\n");
+            if (!sharedFavorite) {
+                appendFavorite(prompt, items.get(i).getFavoriteGroup(), items.get(i).getFavoriteName());
+            }
+            appendEvidence(prompt, items.get(i));
+        }
+
+        String result = prompt.toString();
+        batchPromptTokens.record(estimateTokens(result));
+        return result;
+    }
+
+    private void appendFavorite(StringBuilder prompt, String favoriteGroup, String favoriteName) {
+        // 사용자 선호 정보 추가
+        if (favoriteGroup != null || favoriteName != null) {
+            prompt.append("User's favorite:\n");
+            if (favoriteName != null && !favoriteName.trim().isEmpty()) {
+                prompt.append("- Favorite person: ").append(favoriteName).append("\n");
+            }
+            if (favoriteGroup != null && !favoriteGroup.trim().isEmpty()) {
+                prompt.append("- Favorite group: ").append(favoriteGroup).append("\n");
+            }
+            prompt.append("\n");
+        }
+    }
+
+    /**
+     * 근거 추가 (query를 먼저 예산에 넣고, 남은 예산만큼 압축한 title을 순위 순서대로 추가)
+     */
+    private void appendEvidence(StringBuilder prompt, IdentificationService.IdentificationItem item) {
+        int budget = maxEvidenceTokens;
+        List<String> queries = new ArrayList<>();
+        for (String query : compact(item.getQueries())) {
+            int cost = estimateTokens(query) + 1;
+            if (cost > budget) {
+                break;
+            }
+            queries.add(query);
+            budget -= cost;
+        }
+        List<String> titles = new ArrayList<>();
+        for (String title : compact(item.getTitles())) {
+            int cost = estimateTokens(title) + 1;
+            if (cost > budget) {
+                break;
+            }
+            titles.add(title);
+            budget -= cost;
+        }
+
+        appendLines(prompt, "Search result titles:", titles);
+        appendLines(prompt, "Related queries:", queries);
+    }
+
+    private static void appendLines(StringBuilder prompt, String header, List<String> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        prompt.append(header).append("\n");
+        for (String line : lines) {
+            prompt.append("- ").append(line).append("\n");
+        }
+        prompt.append("\n");
+    }
+
+    /**
+     * 공백 정리, 길이 제한, 거의 같은 항목 제거 (단어 집합 Jaccard 유사도가 기준 이상이면 앞의 항목만 유지)
+     */
+    private List<String> compact(List<String> values) {
+        List<String> kept = new ArrayList<>();
+        List<Set<String>> keptWords = new ArrayList<>();
+        for (String value : values) {
+            String text = WHITESPACE.matcher(value.trim()).replaceAll(" ");
+            if (text.length() > maxTitleLength) {
+                text = text.substring(0, maxTitleLength) + "…";
+            }
+
+            Set<String> words = words(text);
+            boolean duplicate = false;
+            for (Set<String> other : keptWords) {
+                if (similarity(words, other) >= similarityThreshold) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                kept.add(text);
+                keptWords.add(words);
+            }
+        }
+        return kept;
+    }
+
+    private static Set<String> words(String text) {
+        String normalized = NON_WORD.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        return normalized.isEmpty() ? Set.of() : new HashSet<>(Arrays.asList(normalized.split(" ")));
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) {
+            return 1.0;
+        }
+        int intersection = 0;
+        for (String word : a) {
+            if (b.contains(word)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    /**
+     * 토큰 수 추정 (영문 등 ASCII는 약 4자당 1토큰, 한글 등 그 외 문자는 1자당 약 1토큰)
+     */
+    private static int estimateTokens(String text) {
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + other;
+    }
+}
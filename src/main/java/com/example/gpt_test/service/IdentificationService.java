@@ -0,0 +1,486 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.dto.ChatRequestDto;
+import com.example.gpt_test.dto.ChatResponseDto;
+import com.example.gpt_test.dto.IdentificationVerdictDto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * GPT 인물 식별 서비스
+ * Google Lens 근거(titles, queries)와 사용자 선호 정보로 프롬프트(IdentificationPromptBuilder)를 만들어 GPT에게 판정을 요청
+ * 여러 이미지를 한 번의 요청으로 판정하는 배치 모드를 지원하며, 배치 응답이 잘못되면 이미지별 요청으로 대체
+ * Google Lens 근거만으로 일치가 확실하면 LocalIdentificationScorer가 GPT 호출 없이 판정
+ * 판정은 JSON 스키마 구조화 출력(response_format)으로 요청하고, 응답은 한 번의 Jackson 파싱으로 IdentificationVerdictDto로 변환
+ * 모델 라우팅이 켜져 있으면 저렴한 fast 모델(작은 출력 한도)로 먼저 판정하고, 판정이 unknown이거나 스키마에 맞지 않을 때만 strong 모델로 다시 요청
+ */
+@Service
+public class IdentificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdentificationService.class);
+
+    // 판정 객체 스키마 (strict 모드는 모든 속성을 required로 요구)
+    private static final Map<String, Object> VERDICT_PROPERTIES = Map.of(
+        "name", Map.of("type", "string"),
+        "group_name", Map.of("type", "string"),
+        "is_match", Map.of("type", "boolean"),
+        "match_reason", Map.of("type", "string")
+    );
+
+    private static final Map<String, Object> VERDICT_FORMAT = jsonSchemaFormat("identification_verdict", Map.of(
+        "type", "object",
+        "properties", VERDICT_PROPERTIES,
+        "required", List.of("name", "group_name", "is_match", "match_reason"),
+        "additionalProperties", false
+    ));
+
+    // 배치 판정 스키마 (루트는 객체여야 하므로 verdicts 배열로 감쌈)
+    private static final Map<String, Object> BATCH_VERDICT_FORMAT = jsonSchemaFormat("identification_verdicts", Map.of(
+        "type", "object",
+        "properties", Map.of("verdicts", Map.of(
+            "type", "array",
+            "items", Map.of(
+                "type", "object",
+                "properties", withImageIndex(VERDICT_PROPERTIES),
+                "required", List.of("image", "name", "group_name", "is_match", "match_reason"),
+                "additionalProperties", false
+            )
+        )),
+        "required", List.of("verdicts"),
+        "additionalProperties", false
+    ));
+
+    private static final IdentificationVerdictDto UNKNOWN_VERDICT =
+        new IdentificationVerdictDto("unknown", "unknown", false, "분석 결과를 확인할 수 없습니다");
+
+    private final ChatService chatService;
+    private final GptIdentificationCache gptIdentificationCache;
+    private final LocalIdentificationScorer localIdentificationScorer;
+    private final IdentificationPromptBuilder promptBuilder;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader verdictReader;
+    private final boolean structuredOutput;
+    private final boolean routingEnabled;
+    private final Tier fastTier;
+    private final Tier strongTier;
+    private final Counter acceptedCounter;
+    private final Counter escalatedCounter;
+
+    /**
+     * 판정 모델 단계 (모델, 이미지당 출력 토큰 한도, 요청 지연 시간)
+     */
+    private static class Tier {
+        private final String model;
+        private final int maxTokensPerImage;
+        private final Timer latency;
+
+        private Tier(String name, String model, int maxTokensPerImage, MeterRegistry meterRegistry) {
+            this.model = model;
+            this.maxTokensPerImage = maxTokensPerImage;
+            this.latency = Timer.builder("gpt.identification.latency")
+                .description("식별 판정 단계별 GPT 요청 지연 시간")
+                .tag("tier", name)
+                .register(meterRegistry);
+        }
+    }
+
+    public IdentificationService(ChatService chatService, GptIdentificationCache gptIdentificationCache,
+                                 LocalIdentificationScorer localIdentificationScorer, IdentificationPromptBuilder promptBuilder,
+                                 ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                 @Value("${idol.identification.structured-output.enabled:true}") boolean structuredOutput,
+                                 @Value("${idol.identification.max-tokens-per-image:150}") int maxTokensPerImage,
+                                 @Value("${idol.identification.routing.enabled:true}") boolean routingEnabled,
+                                 @Value("${idol.identification.routing.fast-model:gpt-4.1-nano}") String fastModel,
+                                 @Value("${idol.identification.routing.fast-max-tokens-per-image:100}") int fastMaxTokensPerImage,
+                                 @Value("${idol.identification.routing.strong-model:${openai.api.model}}") String strongModel) {
+        this.chatService = chatService;
+        this.gptIdentificationCache = gptIdentificationCache;
+        this.localIdentificationScorer = localIdentificationScorer;
+        this.promptBuilder = promptBuilder;
+        this.objectMapper = objectMapper;
+        this.verdictReader = objectMapper.readerFor(IdentificationVerdictDto.class);
+        this.structuredOutput = structuredOutput;
+        this.routingEnabled = routingEnabled;
+        this.fastTier = new Tier("fast", fastModel, fastMaxTokensPerImage, meterRegistry);
+        this.strongTier = new Tier("strong", strongModel, maxTokensPerImage, meterRegistry);
+        this.acceptedCounter = routingCounter(meterRegistry, "accepted");
+        this.escalatedCounter = routingCounter(meterRegistry, "escalated");
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("gpt.identification.routing")
+            .description("fast 모델 판정 결과별 이미지 수 (escalated / 전체 = 상위 모델 재요청 비율)")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static Map<String, Object> jsonSchemaFormat(String name, Map<String, Object> schema) {
+        return Map.of(
+            "type", "json_schema",
+            "json_schema", Map.of("name", name, "strict", true, "schema", schema)
+        );
+    }
+
+    private static Map<String, Object> withImageIndex(Map<String, Object> properties) {
+        Map<String, Object> withImage = new HashMap<>(properties);
+        withImage.put("image", Map.of("type", "integer"));
+        return Map.copyOf(withImage);
+    }
+
+    /**
+     * 식별 요청 항목 (이미지 하나의 근거와 사용자 선호 정보)
+     */
+    public static class IdentificationItem {
+        private final List<String> titles;
+        private final List<String> queries;
+        private final String favoriteGroup;
+        private final String favoriteName;
+
+        public IdentificationItem(List<String> titles, List<String> queries, String favoriteGroup, String favoriteName) {
+            this.titles = titles;
+            this.queries = queries;
+            this.favoriteGroup = favoriteGroup;
+            this.favoriteName = favoriteName;
+        }
+
+        public List<String> getTitles() { return titles; }
+        public List<String> getQueries() { return queries; }
+        public String getFavoriteGroup() { return favoriteGroup; }
+        public String getFavoriteName() { return favoriteName; }
+
+        private String cacheKey() {
+            return GptIdentificationCache.key(titles, queries, favoriteGroup, favoriteName);
+        }
+    }
+
+    /**
+     * 이미지 하나 판정 (캐시, 로컬 판정 우선)
+     */
+    public ChatResponseDto identify(IdentificationItem item) {
+        String cacheKey = item.cacheKey();
+        ChatResponseDto cached = findWithoutGpt(item, cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        String prompt = promptBuilder.single(item);
+        ChatResponseDto response = request(firstTier(), prompt, 1);
+        if (needsEscalation(response.getAnswer())) {
+            response = request(strongTier, prompt, 1);
+        }
+        gptIdentificationCache.put(cacheKey, response.getAnswer());
+        return response;
+    }
+
+    /**
+     * identify의 비동기 버전
+     */
+    public CompletableFuture<ChatResponseDto> identifyAsync(IdentificationItem item) {
+        String cacheKey = item.cacheKey();
+        ChatResponseDto cached = findWithoutGpt(item, cacheKey);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        String prompt = promptBuilder.single(item);
+        return requestAsync(firstTier(), prompt, 1)
+            .thenCompose(response -> needsEscalation(response.getAnswer())
+                ? requestAsync(strongTier, prompt, 1)
+                : CompletableFuture.completedFuture(response))
+            .thenApply(response -> {
+                gptIdentificationCache.put(cacheKey, response.getAnswer());
+                return response;
+            });
+    }
+
+    /**
+     * 여러 이미지를 한 번의 GPT 요청으로 판정 (캐시에 있는 항목은 제외)
+     * 응답은 항목 순서와 같은 순서이며, 각 응답은 단건 판정과 같은 JSON 객체 형식
+     * 배치 응답이 JSON 배열이 아니거나 항목 수가 맞지 않으면 이미지별 요청으로 대체
+     * (라우팅 중이면 fast 모델 배치 응답이 잘못된 경우와 unknown 판정 항목만 strong 모델로 이미지별 재요청)
+     */
+    public CompletableFuture<List<ChatResponseDto>> identifyBatchAsync(List<IdentificationItem> items) {
+        ChatResponseDto[] responses = new ChatResponseDto[items.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            responses[i] = findWithoutGpt(items.get(i), items.get(i).cacheKey());
+            if (responses[i] == null) {
+                pending.add(i);
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of(responses));
+        }
+        if (pending.size() == 1) {
+            int index = pending.get(0);
+            return identifyAsync(items.get(index)).thenApply(response -> {
+                responses[index] = response;
+                return List.of(responses);
+            });
+        }
+
+        List<IdentificationItem> batch = new ArrayList<>(pending.size());
+        for (int index : pending) {
+            batch.add(items.get(index));
+        }
+
+        logger.info("GPT 배치 식별 요청: {}개 이미지", batch.size());
+        return requestAsync(firstTier(), promptBuilder.batch(batch), batch.size())
+            .thenCompose(batchResponse -> {
+                List<String> verdicts = parseBatchVerdicts(batchResponse.getAnswer(), batch.size());
+                if (verdicts == null) {
+                    logger.warn("GPT 배치 응답을 해석할 수 없어 이미지별 요청으로 대체합니다: {}", batchResponse.getAnswer());
+                    if (routingEnabled) {
+                        escalatedCounter.increment(pending.size());
+                        return identifyEachAsync(items, pending, responses, this::escalateAsync);
+                    }
+                    return identifyEachAsync(items, pending, responses, this::identifyAsync);
+                }
+
+                List<Integer> escalated = new ArrayList<>();
+                for (int k = 0; k < pending.size(); k++) {
+                    int index = pending.get(k);
+                    if (needsEscalation(verdicts.get(k))) {
+                        escalated.add(index);
+                        continue;
+                    }
+                    responses[index] = new ChatResponseDto(verdicts.get(k), batchResponse.getModel(), batchResponse.getResponseTime());
+                    gptIdentificationCache.put(items.get(index).cacheKey(), verdicts.get(k));
+                }
+                if (escalated.isEmpty()) {
+                    return CompletableFuture.completedFuture(List.of(responses));
+                }
+                return identifyEachAsync(items, escalated, responses, this::escalateAsync);
+            });
+    }
+
+    /**
+     * 첫 판정 단계 (라우팅 중이면 fast, 아니면 strong 모델)
+     */
+    private Tier firstTier() {
+        return routingEnabled ? fastTier : strongTier;
+    }
+
+    private ChatResponseDto request(Tier tier, String prompt, int imageCount) {
+        long start = System.nanoTime();
+        try {
+            return chatService.getChatResponse(new ChatRequestDto(prompt, tier.model), completionOptions(tier, imageCount));
+        } finally {
+            tier.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private CompletableFuture<ChatResponseDto> requestAsync(Tier tier, String prompt, int imageCount) {
+        long start = System.nanoTime();
+        return chatService.getChatResponseAsync(new ChatRequestDto(prompt, tier.model), completionOptions(tier, imageCount))
+            .whenComplete((response, e) -> tier.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * strong 모델로 이미지 하나 재판정 (fast 모델 판정을 쓸 수 없는 경우)
+     */
+    private CompletableFuture<ChatResponseDto> escalateAsync(IdentificationItem item) {
+        return requestAsync(strongTier, promptBuilder.single(item), 1)
+            .thenApply(response -> {
+                gptIdentificationCache.put(item.cacheKey(), response.getAnswer());
+                return response;
+            });
+    }
+
+    /**
+     * fast 모델 판정을 strong 모델로 다시 요청해야 하는지 확인하고 결과를 집계
+     * 판정 객체의 네 필드가 모두 올바른 타입이 아니거나(스키마 불일치) name이 unknown이면 재요청
+     */
+    private boolean needsEscalation(String answer) {
+        if (!routingEnabled) {
+            return false;
+        }
+
+        JsonNode verdict = answer == null ? objectMapper.missingNode() : readTree(answer);
+        if (!verdict.isObject() && answer != null) {
+            int start = answer.indexOf('{');
+            int end = answer.lastIndexOf('}');
+            if (start >= 0 && end > start) {
+                verdict = readTree(answer.substring(start, end + 1));
+            }
+        }
+        boolean valid = verdict.path("name").isTextual()
+            && verdict.path("group_name").isTextual()
+            && verdict.path("is_match").isBoolean()
+            && verdict.path("match_reason").isTextual();
+        if (valid && !"unknown".equalsIgnoreCase(verdict.path("name").asText().trim())) {
+            acceptedCounter.increment();
+            return false;
+        }
+
+        escalatedCounter.increment();
+        logger.info("fast 모델 판정을 사용할 수 없어 strong 모델로 재요청합니다 ({}): {}",
+            valid ? "unknown" : "스키마 불일치", answer);
+        return true;
+    }
+
+    /**
+     * 판정 요청 옵션 (구조화된 출력 스키마와 이미지 수에 비례한 단계별 출력 토큰 한도)
+     */
+    private ChatService.CompletionOptions completionOptions(Tier tier, int imageCount) {
+        int maxTokens = tier.maxTokensPerImage * imageCount + 50;
+        if (!structuredOutput) {
+            return new ChatService.CompletionOptions(null, maxTokens);
+        }
+        return new ChatService.CompletionOptions(imageCount == 1 ? VERDICT_FORMAT : BATCH_VERDICT_FORMAT, maxTokens);
+    }
+
+    /**
+     * GPT 판정 응답을 한 번에 파싱
+     * 구조화된 출력이면 응답 전체가 JSON 객체이고, 아니면(캐시된 이전 응답, 코드 블록 등) 첫 '{'부터 마지막 '}'까지만 다시 시도
+     * 둘 다 실패하면 unknown / 불일치 판정
+     */
+    public IdentificationVerdictDto parseVerdict(String answer) {
+        if (answer == null || answer.trim().isEmpty()) {
+            logger.warn("GPT 응답이 비어있음");
+            return UNKNOWN_VERDICT;
+        }
+
+        IdentificationVerdictDto verdict = readVerdict(answer);
+        if (verdict == null) {
+            int start = answer.indexOf('{');
+            int end = answer.lastIndexOf('}');
+            if (start >= 0 && end > start) {
+                verdict = readVerdict(answer.substring(start, end + 1));
+            }
+        }
+        if (verdict == null) {
+            logger.warn("GPT 판정 응답을 해석할 수 없음: {}", answer);
+            return UNKNOWN_VERDICT;
+        }
+
+        return new IdentificationVerdictDto(
+            orDefault(verdict.getName(), UNKNOWN_VERDICT.getName()),
+            orDefault(verdict.getGroupName(), UNKNOWN_VERDICT.getGroupName()),
+            verdict.isMatch(),
+            orDefault(verdict.getMatchReason(), UNKNOWN_VERDICT.getMatchReason()));
+    }
+
+    private IdentificationVerdictDto readVerdict(String json) {
+        try {
+            return verdictReader.readValue(json);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String orDefault(String value, String defaultValue) {
+        return value == null || value.trim().isEmpty() ? defaultValue : value;
+    }
+
+    /**
+     * 배치 실패 시 남은 항목을 이미지별로 동시에 판정
+     */
+    private CompletableFuture<List<ChatResponseDto>> identifyEachAsync(List<IdentificationItem> items, List<Integer> pending,
+                                                                       ChatResponseDto[] responses,
+                                                                       Function<IdentificationItem, CompletableFuture<ChatResponseDto>> identifier) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(pending.size());
+        for (int index : pending) {
+            futures.add(identifier.apply(items.get(index)).thenAccept(response -> responses[index] = response));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(v -> List.of(responses));
+    }
+
+    /**
+     * 배치 응답에서 이미지별 판정 JSON 추출
+     * @return 항목 순서대로 정렬한 판정 JSON 목록, 형식이 잘못되었으면 null
+     */
+    private List<String> parseBatchVerdicts(String answer, int expectedSize) {
+        if (answer == null) {
+            return null;
+        }
+
+        try {
+            // 구조화된 출력은 {"verdicts": [...]} 형식, 그 외에는 응답 안의 첫 '['부터 마지막 ']'까지
+            JsonNode array = readTree(answer).path("verdicts");
+            if (!array.isArray()) {
+                int start = answer.indexOf('[');
+                int end = answer.lastIndexOf(']');
+                if (start < 0 || end <= start) {
+                    return null;
+                }
+                array = readTree(answer.substring(start, end + 1));
+            }
+            if (!array.isArray() || array.size() != expectedSize) {
+                return null;
+            }
+
+            String[] verdicts = new String[expectedSize];
+            for (int i = 0; i < expectedSize; i++) {
+                JsonNode verdict = array.get(i);
+                if (!verdict.isObject() || !verdict.has("is_match")) {
+                    return null;
+                }
+                // image 번호가 있으면 번호 기준, 없으면 배열 순서 기준으로 배치
+                int position = verdict.path("image").asInt(i + 1) - 1;
+                if (position < 0 || position >= expectedSize || verdicts[position] != null) {
+                    return null;
+                }
+                ((ObjectNode) verdict).remove("image");
+                verdicts[position] = objectMapper.writeValueAsString(verdict);
+            }
+            return List.of(verdicts);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private JsonNode readTree(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (IOException e) {
+            return objectMapper.missingNode();
+        }
+    }
+
+    /**
+     * GPT 호출 없이 얻을 수 있는 판정 조회 (캐시 → 로컬 점수기 순)
+     * @return 캐시된 응답 또는 로컬 판정, 둘 다 없으면 null
+     */
+    public ChatResponseDto findWithoutGpt(IdentificationItem item) {
+        return findWithoutGpt(item, item.cacheKey());
+    }
+
+    private ChatResponseDto findWithoutGpt(IdentificationItem item, String cacheKey) {
+        ChatResponseDto cached = findCached(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        String localVerdict = localIdentificationScorer.score(item);
+        return localVerdict != null ? new ChatResponseDto(localVerdict, "local", 0) : null;
+    }
+
+    private ChatResponseDto findCached(String cacheKey) {
+        String cachedAnswer = gptIdentificationCache.get(cacheKey);
+        if (cachedAnswer == null) {
+            return null;
+        }
+        logger.info("GPT 식별 캐시 적중: {}", cacheKey);
+        return new ChatResponseDto(cachedAnswer, "cache", 0);
+    }
+}
@@ -1,13 +1,18 @@
 package com.example.gpt_test.service;
 
+import com.example.gpt_test.dto.IdentificationVerdictDto;
 import com.example.gpt_test.dto.IdolUploadResponseDto;
 import com.example.gpt_test.dto.PersonIdentificationResponseDto;
+import com.example.gpt_test.entity.AnalysisSource;
 import com.example.gpt_test.entity.IdolImage;
 import com.example.gpt_test.entity.User;
 import com.example.gpt_test.entity.GroupIdol;
 import com.example.gpt_test.repository.IdolImageRepository;
 import com.example.gpt_test.util.ImageHashUtil;
+import com.example.gpt_test.util.IngestedImage;
+import com.example.gpt_test.util.MultiIndexHash;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -16,6 +21,8 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 아이돌 이미지 관리 서비스
@@ -41,6 +48,27 @@ public class IdolImageService {
     @Autowired
     private GroupIdolService groupIdolService;
     
+    @Autowired
+    private UserHashIndexService userHashIndexService;
+    
+    @Autowired
+    private GroupHashIndexService groupHashIndexService;
+    
+    @Autowired
+    private IdentificationService identificationService;
+    
+    @Autowired
+    private CloudinaryDeletionQueue cloudinaryDeletionQueue;
+    
+    @Value("${idol.reuse.enabled:true}")
+    private boolean reuseEnabled;
+    
+    @Value("${idol.reuse.max-distance:2}")
+    private int reuseMaxDistance;
+    
+    @Value("${idol.analysis.batch-identification.enabled:true}")
+    private boolean batchIdentificationEnabled;
+    
     /**
      * 3장의 아이돌 이미지를 업로드하고 분석 (사용자별 개인 갤러리 + 그룹 DB 저장)
      */
@@ -74,50 +102,78 @@ public class IdolImageService {
             progressService.sendProgress(sessionId, "validation", "✅ 파일 개수 확인 완료 (3장)");
             
             // 2. 이미지 파일 유효성 검사
+            // 각 파일을 한 번만 읽어 검증/해시/업로드가 같은 버퍼를 공유
             progressService.sendProgress(sessionId, "validation", "🔍 이미지 파일 유효성을 검사하고 있습니다...");
+            IngestedImage[] ingestedImages = new IngestedImage[images.length];
             for (int i = 0; i < images.length; i++) {
-                if (!imageHashUtil.isValidImageFile(images[i])) {
+                try {
+                    ingestedImages[i] = IngestedImage.from(images[i]);
+                } catch (IOException e) {
+                    String errorMsg = (i + 1) + "번째 파일을 읽는 중 오류가 발생했습니다: " + e.getMessage();
+                    progressService.sendError(sessionId, errorMsg);
+                    return new IdolUploadResponseDto(false, errorMsg);
+                }
+                if (!imageHashUtil.isValidImageFile(ingestedImages[i])) {
                     String errorMsg = (i + 1) + "번째 파일이 유효한 이미지 파일이 아닙니다.";
                     progressService.sendError(sessionId, errorMsg);
                     return new IdolUploadResponseDto(false, errorMsg);
                 }
                 progressService.sendProgress(sessionId, "validation", "✅ " + (i + 1) + "번째 이미지 파일 유효성 확인 완료");
+                
+                // 정확히 같은 파일(SHA-256)은 디코딩/해시/분석 전에 바로 거부
+                String contentHash = ingestedImages[i].getContentHash();
+                if (idolImageRepository.existsByUserAndContentHash(currentUser, contentHash)) {
+                    String errorMsg = (i + 1) + "번째 이미지가 이미 내 갤러리에 존재하는 이미지와 동일합니다.";
+                    progressService.sendError(sessionId, errorMsg);
+                    return new IdolUploadResponseDto(false, errorMsg);
+                }
+                for (int j = 0; j < i; j++) {
+                    if (contentHash.equals(ingestedImages[j].getContentHash())) {
+                        String errorMsg = (i + 1) + "번째 이미지가 다른 업로드 이미지와 중복됩니다.";
+                        progressService.sendError(sessionId, errorMsg);
+                        return new IdolUploadResponseDto(false, errorMsg);
+                    }
+                }
             }
             
             // 3. pHash 생성 및 중복 검사 (개인 갤러리 내에서만)
             progressService.sendProgress(sessionId, "hash", "🔐 이미지 해시값을 생성하고 중복을 검사하고 있습니다...");
-            List<String> newHashes = new ArrayList<>();
-            List<String> userExistingHashes = idolImageRepository.findPHashesByUser(currentUser);
+            long[] newHashes = new long[images.length];
+            int userHashCount = userHashIndexService.size(currentUser);
             
-            progressService.sendProgress(sessionId, "hash", "📊 내 갤러리에서 " + userExistingHashes.size() + "개의 해시값을 가져왔습니다.");
+            progressService.sendProgress(sessionId, "hash", "📊 내 갤러리에서 " + userHashCount + "개의 해시값을 가져왔습니다.");
             
             for (int i = 0; i < images.length; i++) {
                 try {
                     progressService.sendProgress(sessionId, "hash", "🔐 " + (i + 1) + "번째 이미지의 해시값을 생성하고 있습니다...");
-                    String pHash = imageHashUtil.generatePHash(images[i]);
-                    progressService.sendProgress(sessionId, "hash", "✅ " + (i + 1) + "번째 이미지 해시값 생성 완료: " + pHash.substring(0, 8) + "...");
+                    long pHash = imageHashUtil.computePHash(ingestedImages[i]);
+                    progressService.sendProgress(sessionId, "hash", "✅ " + (i + 1) + "번째 이미지 해시값 생성 완료: " + ImageHashUtil.toHex(pHash).substring(0, 8) + "...");
                     
                     // 내 갤러리와 중복 검사
                     progressService.sendProgress(sessionId, "hash", "🔍 " + (i + 1) + "번째 이미지의 내 갤러리 중복 검사 중...");
-                    String duplicateHash = imageHashUtil.findDuplicateHash(pHash, userExistingHashes);
-                    if (duplicateHash != null) {
+                    if (userHashIndexService.hasNearDuplicate(currentUser, pHash, ImageHashUtil.DEFAULT_DUPLICATE_DISTANCE)) {
                         String errorMsg = (i + 1) + "번째 이미지가 이미 내 갤러리에 존재하는 이미지와 유사합니다.";
                         progressService.sendError(sessionId, errorMsg);
                         return new IdolUploadResponseDto(false, errorMsg);
                     }
                     progressService.sendProgress(sessionId, "hash", "✅ " + (i + 1) + "번째 이미지 내 갤러리 중복 검사 통과");
                     
+                    // 그룹 DB의 유사 이미지 조회 (참고용)
+                    List<MultiIndexHash.Match> groupMatches = groupHashIndexService.findNearDuplicates(pHash, ImageHashUtil.DEFAULT_DUPLICATE_DISTANCE);
+                    if (!groupMatches.isEmpty()) {
+                        progressService.sendProgress(sessionId, "hash", "📎 " + (i + 1) + "번째 이미지와 유사한 이미지가 그룹 DB에 " + groupMatches.size() + "개 있습니다.");
+                    }
+                    
                     // 업로드하는 이미지들 간의 중복 검사
                     progressService.sendProgress(sessionId, "hash", "🔍 " + (i + 1) + "번째 이미지의 업로드 이미지 간 중복 검사 중...");
-                    String duplicateInNew = imageHashUtil.findDuplicateHash(pHash, newHashes);
-                    if (duplicateInNew != null) {
+                    if (imageHashUtil.findDuplicateHash(pHash, newHashes, i) >= 0) {
                         String errorMsg = (i + 1) + "번째 이미지가 다른 업로드 이미지와 중복됩니다.";
                         progressService.sendError(sessionId, errorMsg);
                         return new IdolUploadResponseDto(false, errorMsg);
                     }
                     progressService.sendProgress(sessionId, "hash", "✅ " + (i + 1) + "번째 이미지 중복 검사 모두 통과");
                     
-                    newHashes.add(pHash);
+                    newHashes[i] = pHash;
                 } catch (IOException e) {
                     String errorMsg = (i + 1) + "번째 이미지 처리 중 오류가 발생했습니다: " + e.getMessage();
                     progressService.sendError(sessionId, errorMsg);
@@ -127,32 +183,90 @@ public class IdolImageService {
             
             progressService.sendProgress(sessionId, "hash", "🎉 모든 이미지의 중복 검사가 완료되었습니다!");
             
-            // 4. 각 이미지에 대해 인물 분석 수행 (하나씩 순차적으로)
-            progressService.sendProgress(sessionId, "analysis", "🔍 이제 각 이미지를 하나씩 순차적으로 분석합니다...");
+            // 4. 각 이미지에 대해 인물 분석 수행 (이미지별 분석 체인은 동시에 실행, 결과 처리와 저장은 이미지 순서대로)
+            progressService.sendProgress(sessionId, "analysis", "🔍 이제 각 이미지를 동시에 분석합니다...");
             List<IdolUploadResponseDto.ImageAnalysisResult> results = new ArrayList<>();
             List<IdolImage> validatedImages = new ArrayList<>();
             
+            ReusedAnalysis[] reusedAnalyses = new ReusedAnalysis[images.length];
+            List<CompletableFuture<PersonIdentificationResponseDto>> analysisFutures = new ArrayList<>();
+            List<Integer> batchIndexes = new ArrayList<>();
             for (int i = 0; i < images.length; i++) {
-                try {
-                    progressService.sendProgress(sessionId, "analysis", "📸 " + (i + 1) + "번째 이미지 (" + images[i].getOriginalFilename() + ") 분석을 시작합니다...");
-                    progressService.sendProgress(sessionId, "analysis", "☁️ " + (i + 1) + "번째 이미지를 Cloudinary에 업로드하고 있습니다...");
+                progressService.sendProgress(sessionId, "analysis", "📸 " + (i + 1) + "번째 이미지 (" + ingestedImages[i].getOriginalFilename() + ") 분석을 시작합니다...");
+                
+                // 그룹 DB에 같은/유사한 검증 이미지가 있으면 판정만 재사용 (Google Lens, GPT 호출 생략, 이미지는 사용자의 업로드를 저장)
+                long lookupStartTime = System.currentTimeMillis();
+                reusedAnalyses[i] = findReusableAnalysis(ingestedImages[i], newHashes[i], groupIdol);
+                if (reusedAnalyses[i] != null) {
+                    progressService.sendProgress(sessionId, "analysis", "♻️ " + (i + 1) + "번째 이미지는 그룹 DB의 이미지(ID: " + reusedAnalyses[i].getSource().getId() + ")와 같거나 유사하여 기존 분석 결과를 재사용합니다.");
+                    analysisFutures.add(imageAnalysisService.storeWithReusedAnalysisAsync(ingestedImages[i],
+                        reusedAnalyses[i].toResponse(System.currentTimeMillis() - lookupStartTime)));
+                } else {
+                    progressService.sendProgress(sessionId, "analysis", "📦 " + (i + 1) + "번째 이미지를 분석용으로 준비하고 있습니다...");
                     
-                    long imageStartTime = System.currentTimeMillis();
-                    
-                    // 기존 ImageAnalysisService를 사용하여 분석
-                    PersonIdentificationResponseDto analysisResult = imageAnalysisService.identifyPersonFromFile(
-                        images[i], groupName, idolName
-                    );
+                    if (batchIdentificationEnabled) {
+                        // 배치 분석 대상 (아래에서 한 번에 요청)
+                        analysisFutures.add(null);
+                        batchIndexes.add(i);
+                    } else {
+                        // 기존 ImageAnalysisService의 비동기 분석 체인 사용 (업로드 → Google Lens → GPT, 대기 중 스레드 점유 없음)
+                        analysisFutures.add(imageAnalysisService.identifyPersonFromFileAsync(ingestedImages[i], groupName, idolName));
+                    }
+                }
+            }
+            
+            // 재사용하지 않은 이미지들은 GPT 판정을 한 번의 배치 요청으로 처리
+            if (!batchIndexes.isEmpty()) {
+                List<IngestedImage> batchImages = new ArrayList<>(batchIndexes.size());
+                for (int index : batchIndexes) {
+                    batchImages.add(ingestedImages[index]);
+                }
+                CompletableFuture<List<PersonIdentificationResponseDto>> batchFuture =
+                    imageAnalysisService.identifyPeopleFromFilesAsync(batchImages, groupName, idolName);
+                for (int k = 0; k < batchIndexes.size(); k++) {
+                    int position = k;
+                    analysisFutures.set(batchIndexes.get(k), batchFuture.thenApply(batchResults -> batchResults.get(position)));
+                }
+            }
+            
+            // 모든 분석이 끝날 때까지 대기 (일부가 실패해도 나머지 이미지의 보관된 자산을 정리할 수 있도록)
+            PersonIdentificationResponseDto[] analysisResults = new PersonIdentificationResponseDto[images.length];
+            Throwable[] analysisErrors = new Throwable[images.length];
+            CompletableFuture<?>[] settledFutures = new CompletableFuture<?>[images.length];
+            for (int i = 0; i < images.length; i++) {
+                int index = i;
+                settledFutures[i] = analysisFutures.get(i).handle((analysisResult, e) -> {
+                    analysisResults[index] = analysisResult;
+                    analysisErrors[index] = e != null ? unwrap(e) : null;
+                    return null;
+                });
+            }
+            CompletableFuture.allOf(settledFutures).join();
+            
+            for (int i = 0; i < images.length; i++) {
+                if (analysisErrors[i] != null) {
+                    discardKeptImages(analysisResults, 0);
+                    String errorMsg = (i + 1) + "번째 이미지 분석 중 오류가 발생했습니다: " + analysisErrors[i].getMessage();
+                    progressService.sendError(sessionId, errorMsg);
+                    return new IdolUploadResponseDto(false, errorMsg);
+                }
+            }
+            
+            for (int i = 0; i < images.length; i++) {
+                IdolImage savedImage = null;
+                try {
+                    PersonIdentificationResponseDto analysisResult = analysisResults[i];
+                    ReusedAnalysis reused = reusedAnalyses[i];
                     
-                    long imageProcessingTime = System.currentTimeMillis() - imageStartTime;
+                    long imageProcessingTime = analysisResult.getProcessingTime();
                     
                     progressService.sendProgress(sessionId, "analysis", "✅ " + (i + 1) + "번째 이미지 분석 완료! (" + imageProcessingTime + "ms)");
                     
                     // 결과 생성
                     IdolUploadResponseDto.ImageAnalysisResult result = new IdolUploadResponseDto.ImageAnalysisResult(
-                        images[i].getOriginalFilename(),
+                        ingestedImages[i].getOriginalFilename(),
                         analysisResult.getImageUrl(),
-                        newHashes.get(i),
+                        ImageHashUtil.toHex(newHashes[i]),
                         analysisResult.isMatch(),
                         analysisResult.getMatchReason(),
                         analysisResult.getIdentifiedPerson(),
@@ -160,6 +274,10 @@ public class IdolImageService {
                         analysisResult.getGptAnalysis(),
                         imageProcessingTime
                     );
+                    AnalysisSource analysisSource = reused != null ? reused.getKind() : AnalysisSource.FULL_ANALYSIS;
+                    Long reusedFromImageId = reused != null ? reused.getSource().getId() : null;
+                    result.setAnalysisSource(analysisSource.name());
+                    result.setReusedFromImageId(reusedFromImageId);
                     
                     results.add(result);
                     
@@ -179,16 +297,24 @@ public class IdolImageService {
                         result.getImageUrl(),
                         result.getpHash(),
                         result.getFileName(),
-                        images[i].getSize(),
-                        images[i].getContentType(),
+                        ingestedImages[i].getSize(),
+                        ingestedImages[i].getContentType(),
                         currentUser,
                         groupIdol
                     );
                     
                     idolImage.setGptAnalysis(result.getGptAnalysis());
+                    idolImage.setContentHash(ingestedImages[i].getContentHash());
+                    idolImage.setIdentifiedPerson(analysisResult.getIdentifiedPerson());
+                    idolImage.setIdentifiedGroup(analysisResult.getIdentifiedGroup());
+                    idolImage.setAnalysisSource(analysisSource);
+                    idolImage.setReusedFromImageId(reusedFromImageId);
                     
-                    // GPT 분석 결과가 일치하면 그룹 DB에도 추가
-                    if (analysisResult.isMatch()) {
+                    // GPT 분석 결과가 일치하면 그룹 DB에도 추가 (같은 파일이 이미 그룹 DB에 있으면 다시 추가하지 않음)
+                    if (analysisResult.isMatch() && analysisSource == AnalysisSource.REUSED_EXACT_DUPLICATE) {
+                        idolImage.setIsVerified(true);
+                        progressService.sendProgress(sessionId, "save", "✅ " + (i + 1) + "번째 이미지는 일치하지만 같은 파일이 이미 그룹 DB에 있으므로 개인 갤러리에만 저장됩니다.");
+                    } else if (analysisResult.isMatch()) {
                         idolImage.addToGroupDatabase(); // isInGroupDatabase = true, isVerified = true
                         progressService.sendProgress(sessionId, "save", "✅ " + (i + 1) + "번째 이미지가 일치하므로 그룹 DB에도 추가됩니다!");
                         
@@ -199,13 +325,17 @@ public class IdolImageService {
                         progressService.sendProgress(sessionId, "save", "⚠️ " + (i + 1) + "번째 이미지는 개인 갤러리에만 저장됩니다.");
                     }
                     
-                    IdolImage savedImage = idolImageRepository.save(idolImage);
+                    savedImage = idolImageRepository.save(idolImage);
                     validatedImages.add(savedImage);
+                    userHashIndexService.add(currentUser, savedImage);
+                    groupHashIndexService.add(savedImage);
                     
                     progressService.sendProgress(sessionId, "save", "✅ " + (i + 1) + "번째 이미지 저장 완료 (ID: " + savedImage.getId() + ")");
                     
                 } catch (Exception e) {
-                    String errorMsg = (i + 1) + "번째 이미지 분석 중 오류가 발생했습니다: " + e.getMessage();
+                    // 아직 저장되지 않은 이미지의 보관된 자산은 참조할 행이 없으므로 삭제 큐에 등록
+                    discardKeptImages(analysisResults, savedImage == null ? i : i + 1);
+                    String errorMsg = (i + 1) + "번째 이미지 저장 중 오류가 발생했습니다: " + unwrap(e).getMessage();
                     progressService.sendError(sessionId, errorMsg);
                     return new IdolUploadResponseDto(false, errorMsg);
                 }
@@ -256,6 +386,97 @@ public class IdolImageService {
         }
     }
     
+    /**
+     * 그룹 DB에서 재사용할 수 있는 분석 결과 조회
+     * 1) 같은 파일(SHA-256), 2) reuseMaxDistance 이내의 유사 pHash 순으로 찾고,
+     * 같은 그룹_아이돌로 검증되어 GPT 분석이 저장된 이미지만 재사용 (다른 아이돌로 검증된 이미지는 전체 분석으로 진행)
+     */
+    private ReusedAnalysis findReusableAnalysis(IngestedImage image, long pHash, GroupIdol groupIdol) {
+        if (!reuseEnabled) {
+            return null;
+        }
+        
+        IdolImage exact = idolImageRepository
+            .findFirstByContentHashAndIsInGroupDatabaseTrueAndIsVerifiedTrue(image.getContentHash())
+            .orElse(null);
+        if (isReusable(exact, groupIdol)) {
+            return new ReusedAnalysis(exact, AnalysisSource.REUSED_EXACT_DUPLICATE, identificationService.parseVerdict(exact.getGptAnalysis()));
+        }
+        
+        for (MultiIndexHash.Match match : groupHashIndexService.findNearDuplicates(pHash, reuseMaxDistance)) {
+            IdolImage candidate = idolImageRepository.findById(match.getId()).orElse(null);
+            if (isReusable(candidate, groupIdol)) {
+                return new ReusedAnalysis(candidate, AnalysisSource.REUSED_NEAR_DUPLICATE, identificationService.parseVerdict(candidate.getGptAnalysis()));
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * 업로드를 중단할 때 from 이후 이미지 중 일치 판정으로 Cloudinary에 보관된 자산을 삭제 큐에 등록
+     * (불일치 이미지는 분석 단계에서 이미 스테이징 정리됨)
+     */
+    private void discardKeptImages(PersonIdentificationResponseDto[] analysisResults, int from) {
+        for (int i = from; i < analysisResults.length; i++) {
+            PersonIdentificationResponseDto analysisResult = analysisResults[i];
+            if (analysisResult == null || !analysisResult.isMatch()) {
+                continue;
+            }
+            String publicId = CloudinaryImageStore.publicIdFromUrl(analysisResult.getImageUrl());
+            if (publicId != null) {
+                cloudinaryDeletionQueue.enqueue(publicId);
+            }
+        }
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+    
+    private boolean isReusable(IdolImage candidate, GroupIdol groupIdol) {
+        return candidate != null
+            && Boolean.TRUE.equals(candidate.getIsInGroupDatabase())
+            && Boolean.TRUE.equals(candidate.getIsVerified())
+            && candidate.getGptAnalysis() != null
+            && candidate.getGroupIdol().getId().equals(groupIdol.getId());
+    }
+    
+    /**
+     * 재사용할 그룹 DB 분석 결과 (판정 필드만 재사용하며 원본 이미지 URL은 사용하지 않음)
+     */
+    private static class ReusedAnalysis {
+        private final IdolImage source;
+        private final AnalysisSource kind;
+        private final IdentificationVerdictDto verdict;
+        
+        ReusedAnalysis(IdolImage source, AnalysisSource kind, IdentificationVerdictDto verdict) {
+            this.source = source;
+            this.kind = kind;
+            this.verdict = verdict;
+        }
+        
+        IdolImage getSource() { return source; }
+        AnalysisSource getKind() { return kind; }
+        
+        /**
+         * 재사용한 판정 응답 (이미지 URL은 사용자의 업로드를 저장한 뒤 채워짐, 일치 여부는 원본 판정의 is_match)
+         */
+        PersonIdentificationResponseDto toResponse(long processingTime) {
+            return new PersonIdentificationResponseDto(
+                null,
+                new ArrayList<>(),
+                new ArrayList<>(),
+                source.getGptAnalysis(),
+                source.getIdentifiedPerson() != null ? source.getIdentifiedPerson() : source.getIdolName(),
+                source.getIdentifiedGroup() != null ? source.getIdentifiedGroup() : source.getGroupName(),
+                verdict.isMatch(),
+                "그룹 DB의 검증된 이미지(ID: " + source.getId() + ") 분석 결과 재사용",
+                processingTime
+            );
+        }
+    }
+    
     /**
      * 특정 아이돌의 모든 이미지 조회
      */
@@ -298,6 +519,10 @@ public class IdolImageService {
             }
             
             idolImageRepository.deleteById(imageId);
+            userHashIndexService.remove(currentUser, image);
+            if (image.getIsInGroupDatabase()) {
+                groupHashIndexService.remove(image);
+            }
             return true;
         } catch (Exception e) {
             return false;
@@ -1,21 +1,27 @@
 package com.example.gpt_test.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import com.example.gpt_test.config.ThrottledHttpClient;
 import com.example.gpt_test.dto.*;
+import com.example.gpt_test.util.IngestedImage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * 이미지 분석 서비스 (Google Lens API 연동)
@@ -31,459 +37,568 @@ public class ImageAnalysisService {
     @Value("${serp.api.url}")
     private String serpApiUrl;
     
+    @Value("${http.client.serp.response-timeout:20s}")
+    private Duration serpResponseTimeout;
+    
     private final RestTemplate restTemplate;
-    private final ChatService chatService;
-    private final Cloudinary cloudinary;
+    private final ThrottledHttpClient httpClient;
+    private final GoogleLensEvidenceExtractor googleLensEvidenceExtractor;
+    private final IdentificationService identificationService;
+    private final IdentificationBatcher identificationBatcher;
+    private final ImageStagingStore imageStagingStore;
+    private final Executor cloudinaryExecutor;
+    private final Executor imageAnalysisExecutor;
+    private final LensEvidenceCache lensEvidenceCache;
     
-    public ImageAnalysisService(RestTemplate restTemplate, ChatService chatService, Cloudinary cloudinary) {
+    public ImageAnalysisService(@Qualifier("serpRestTemplate") RestTemplate restTemplate,
+                                @Qualifier("serpHttpClient") ThrottledHttpClient httpClient,
+                                GoogleLensEvidenceExtractor googleLensEvidenceExtractor,
+                                IdentificationService identificationService,
+                                IdentificationBatcher identificationBatcher,
+                                ImageStagingStore imageStagingStore,
+                                @Qualifier("cloudinaryExecutor") Executor cloudinaryExecutor,
+                                @Qualifier("imageAnalysisExecutor") Executor imageAnalysisExecutor,
+                                LensEvidenceCache lensEvidenceCache) {
         this.restTemplate = restTemplate;
-        this.chatService = chatService;
-        this.cloudinary = cloudinary;
+        this.httpClient = httpClient;
+        this.googleLensEvidenceExtractor = googleLensEvidenceExtractor;
+        this.identificationService = identificationService;
+        this.identificationBatcher = identificationBatcher;
+        this.imageStagingStore = imageStagingStore;
+        this.cloudinaryExecutor = cloudinaryExecutor;
+        this.imageAnalysisExecutor = imageAnalysisExecutor;
+        this.lensEvidenceCache = lensEvidenceCache;
     }
     
     /**
-     * 파일을 업로드하여 Cloudinary에 저장하고 인물을 식별하는 메인 메서드
+     * 파일을 업로드하여 임시 저장하고 인물을 식별하는 메인 메서드
      */
     public PersonIdentificationResponseDto identifyPersonFromFile(MultipartFile file, String favoriteGroup, String favoriteName) {
+        try {
+            return identifyPersonFromFile(IngestedImage.from(file), favoriteGroup, favoriteName);
+        } catch (IOException e) {
+            logger.error("업로드 파일 읽기 실패: {}", e.getMessage(), e);
+            return uploadErrorResult(e, 0);
+        }
+    }
+    
+    /**
+     * 수집된 업로드 버퍼를 임시 저장소에 올려 인물을 식별하고, 일치하는 경우에만 Cloudinary에 보관
+     * (버퍼를 다시 읽거나 복사하지 않음)
+     * 같은 파일의 Google Lens 근거가 캐시에 있으면 임시 저장 없이 분석하고, 일치할 때만 저장
+     */
+    public PersonIdentificationResponseDto identifyPersonFromFile(IngestedImage file, String favoriteGroup, String favoriteName) {
         long startTime = System.currentTimeMillis();
-        String publicId = null; // 업로드된 이미지의 public_id 저장
+        ImageStagingStore.StagedImage staged = null;
+        
+        LensEvidenceCache.LensEvidence cached = cachedLensEvidence(file.getContentHash());
+        if (cached != null) {
+            GoogleLensRequestDto request = new GoogleLensRequestDto("", favoriteGroup, favoriteName);
+            PersonIdentificationResponseDto result;
+            try {
+                result = identifyFromEvidence(request, cached, startTime);
+            } catch (Exception e) {
+                result = analysisErrorResult(request, e, startTime);
+            }
+            return storeIfMatched(file, result);
+        }
         
         try {
             logger.info("파일 업로드 및 분석 시작: {}", file.getOriginalFilename());
             
-            // 1. Cloudinary에 파일 업로드
-            CloudinaryUploadResult uploadResult = uploadToCloudinaryWithId(file);
-            String imageUrl = uploadResult.getSecureUrl();
-            publicId = uploadResult.getPublicId();
+            // 1. Google Lens가 가져갈 수 있도록 임시 저장
+            staged = imageStagingStore.stage(file);
             
-            // 2. 업로드된 URL로 인물 식별
-            GoogleLensRequestDto request = new GoogleLensRequestDto(imageUrl, favoriteGroup, favoriteName);
-            PersonIdentificationResponseDto result = identifyPersonFromImage(request);
+            // 2. 임시 URL로 인물 식별
+            GoogleLensRequestDto request = new GoogleLensRequestDto(staged.getUrl(), favoriteGroup, favoriteName);
+            PersonIdentificationResponseDto result = identifyPersonFromImage(request, file.getContentHash());
             
-            // 3. 분석 완료 후 - 일치하는 경우에만 이미지 보관, 불일치하면 삭제
-            if (result.isMatch()) {
-                logger.info("일치하는 이미지이므로 Cloudinary에 보관합니다: {}", publicId);
-                // 이미지를 삭제하지 않고 보관
-            } else {
-                logger.info("불일치하는 이미지이므로 Cloudinary에서 삭제합니다: {}", publicId);
-                deleteFromCloudinary(publicId);
-            }
-            
-            return result;
+            // 3. 분석 완료 후 - 일치하는 경우에만 이미지 보관, 불일치하면 폐기
+            return finishStaged(staged, file, result);
             
         } catch (Exception e) {
             logger.error("파일 업로드 및 분석 중 오류 발생: {}", e.getMessage(), e);
             
-            // 오류 발생 시에도 업로드된 이미지 삭제 시도
-            if (publicId != null) {
-                deleteFromCloudinary(publicId);
+            // 오류 발생 시에도 임시 저장한 이미지 폐기
+            if (staged != null) {
+                imageStagingStore.discard(staged);
             }
             
-            long processingTime = System.currentTimeMillis() - startTime;
-            
-            return new PersonIdentificationResponseDto(
-                "",
-                new ArrayList<>(),
-                new ArrayList<>(),
-                "파일 업로드 중 오류가 발생했습니다: " + e.getMessage(),
-                "unknown",
-                "unknown",
-                false,
-                "파일 업로드 오류로 인해 판별 불가",
-                processingTime
-            );
+            return uploadErrorResult(e, System.currentTimeMillis() - startTime);
         }
     }
     
     /**
-     * Cloudinary 업로드 결과를 담는 내부 클래스
+     * identifyPersonFromFile의 비동기 버전
+     * 임시 저장/보관/폐기는 cloudinaryExecutor에서, Google Lens와 GPT 호출은 비동기 HTTP 클라이언트로 실행하여
+     * 어떤 단계에서도 스레드가 외부 응답을 기다리며 멈춰 있지 않음
      */
-    private static class CloudinaryUploadResult {
-        private final String secureUrl;
-        private final String publicId;
+    public CompletableFuture<PersonIdentificationResponseDto> identifyPersonFromFileAsync(IngestedImage file, String favoriteGroup, String favoriteName) {
+        long startTime = System.currentTimeMillis();
+        logger.info("파일 업로드 및 분석 시작 (비동기): {}", file.getOriginalFilename());
         
-        public CloudinaryUploadResult(String secureUrl, String publicId) {
-            this.secureUrl = secureUrl;
-            this.publicId = publicId;
+        LensEvidenceCache.LensEvidence cached = cachedLensEvidence(file.getContentHash());
+        if (cached != null) {
+            GoogleLensRequestDto request = new GoogleLensRequestDto("", favoriteGroup, favoriteName);
+            return CompletableFuture.completedFuture(cached)
+                .thenCompose(evidence -> identifyFromEvidenceAsync(request, evidence, startTime))
+                .exceptionally(e -> analysisErrorResult(request, unwrap(e), startTime))
+                .thenApplyAsync(result -> storeIfMatched(file, result), cloudinaryExecutor);
         }
         
-        public String getSecureUrl() { return secureUrl; }
-        public String getPublicId() { return publicId; }
+        return stageAsync(file)
+            .thenCompose(staged -> identifyPersonFromImageAsync(
+                    new GoogleLensRequestDto(staged.getUrl(), favoriteGroup, favoriteName), file.getContentHash())
+                .thenApplyAsync(result -> finishStaged(staged, file, result), cloudinaryExecutor))
+            .exceptionally(e -> {
+                Throwable cause = unwrap(e);
+                logger.error("파일 업로드 및 분석 중 오류 발생: {}", cause.getMessage(), cause);
+                return uploadErrorResult(cause, System.currentTimeMillis() - startTime);
+            });
+    }
+    
+    /**
+     * 그룹 DB의 분석 결과를 재사용하는 이미지 저장 (Google Lens와 GPT는 호출하지 않음)
+     * 재사용한 판정만 가져오고, 일치 판정이면 사용자가 올린 파일을 임시 저장한 뒤 보관 (불일치면 저장하지 않음)
+     * @param reusedResult 재사용한 판정 (이미지 URL은 저장 결과로 채워짐)
+     */
+    public CompletableFuture<PersonIdentificationResponseDto> storeWithReusedAnalysisAsync(IngestedImage file,
+                                                                                          PersonIdentificationResponseDto reusedResult) {
+        reusedResult.setImageUrl("");
+        return CompletableFuture.supplyAsync(() -> storeIfMatched(file, reusedResult), cloudinaryExecutor)
+            .exceptionally(e -> {
+                Throwable cause = unwrap(e);
+                logger.error("재사용 분석 이미지 저장 중 오류 발생: {}", cause.getMessage(), cause);
+                return uploadErrorResult(cause, reusedResult.getProcessingTime());
+            });
     }
     
     /**
-     * Cloudinary에 파일 업로드 (public_id 포함 반환)
+     * 한 번의 업로드에 포함된 여러 이미지를 분석 (GPT 판정은 배치 요청 한 번으로 처리)
+     * 이미지별 임시 저장과 Google Lens 분석은 동시에 진행하고, 근거가 모두 모이면
+     * IdentificationBatcher로 판정을 요청 (다른 요청과 함께 묶일 수 있으며, 배치 응답이 잘못되면 이미지별 요청으로 대체됨)
+     * @return 입력 순서와 같은 순서의 이미지별 분석 결과
      */
-    private CloudinaryUploadResult uploadToCloudinaryWithId(MultipartFile file) throws IOException {
-        if (file == null || file.isEmpty()) {
-            throw new IllegalArgumentException("업로드할 파일이 없습니다.");
+    public CompletableFuture<List<PersonIdentificationResponseDto>> identifyPeopleFromFilesAsync(List<IngestedImage> files, String favoriteGroup, String favoriteName) {
+        long startTime = System.currentTimeMillis();
+        logger.info("파일 {}개 업로드 및 배치 분석 시작", files.size());
+        
+        List<CompletableFuture<PreparedImage>> preparations = new ArrayList<>(files.size());
+        for (IngestedImage file : files) {
+            preparations.add(prepareImageAsync(file));
         }
         
-        // 파일 크기 제한 (10MB)
-        if (file.getSize() > 10 * 1024 * 1024) {
-            throw new IllegalArgumentException("파일 크기는 10MB를 초과할 수 없습니다.");
+        return CompletableFuture.allOf(preparations.toArray(new CompletableFuture[0]))
+            .thenComposeAsync(v -> {
+                List<PreparedImage> prepared = new ArrayList<>(files.size());
+                List<IdentificationService.IdentificationItem> items = new ArrayList<>();
+                for (CompletableFuture<PreparedImage> preparation : preparations) {
+                    PreparedImage image = preparation.join();
+                    prepared.add(image);
+                    if (image.error == null && !image.evidence.isEmpty()) {
+                        items.add(new IdentificationService.IdentificationItem(
+                            image.evidence.getTitles(), image.evidence.getQueries(), favoriteGroup, favoriteName));
+                    }
+                }
+                
+                return identificationBatcher.submitAll(items)
+                    .thenApplyAsync(gptResponses -> {
+                        List<PersonIdentificationResponseDto> results = new ArrayList<>(prepared.size());
+                        int itemIndex = 0;
+                        for (int i = 0; i < prepared.size(); i++) {
+                            PreparedImage image = prepared.get(i);
+                            PersonIdentificationResponseDto result;
+                            if (image.error != null) {
+                                result = image.staged == null
+                                    ? uploadErrorResult(image.error, System.currentTimeMillis() - startTime)
+                                    : analysisErrorResult(image.request(favoriteGroup, favoriteName), image.error, startTime);
+                            } else if (image.evidence.isEmpty()) {
+                                result = noLensDataResult(image.request(favoriteGroup, favoriteName), startTime);
+                            } else {
+                                result = toIdentificationResult(image.request(favoriteGroup, favoriteName),
+                                    image.evidence.getTitles(), image.evidence.getQueries(), gptResponses.get(itemIndex++), startTime);
+                            }
+                            
+                            // 일치하는 경우에만 이미지 보관, 불일치하거나 분석 오류면 폐기 (캐시 적중으로 임시 저장하지 않았으면 일치할 때만 저장)
+                            result = image.staged != null
+                                ? finishStaged(image.staged, files.get(i), result)
+                                : storeIfMatched(files.get(i), result);
+                            results.add(result);
+                        }
+                        return results;
+                    }, cloudinaryExecutor);
+            }, imageAnalysisExecutor);
+    }
+    
+    /**
+     * 배치 분석용 이미지 준비 결과 (임시 저장 결과, Google Lens 근거, 오류)
+     * Google Lens 캐시 적중으로 임시 저장하지 않았으면 staged는 null
+     */
+    private static class PreparedImage {
+        private final ImageStagingStore.StagedImage staged;
+        private final LensEvidenceCache.LensEvidence evidence;
+        private final Throwable error;
+        
+        private PreparedImage(ImageStagingStore.StagedImage staged, LensEvidenceCache.LensEvidence evidence, Throwable error) {
+            this.staged = staged;
+            this.evidence = evidence;
+            this.error = error;
         }
         
-        // 이미지 파일인지 확인
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            throw new IllegalArgumentException("이미지 파일만 업로드 가능합니다.");
+        private GoogleLensRequestDto request(String favoriteGroup, String favoriteName) {
+            return new GoogleLensRequestDto(staged != null ? staged.getUrl() : "", favoriteGroup, favoriteName);
+        }
+    }
+    
+    /**
+     * 이미지 하나를 임시 저장하고 Google Lens 근거를 조회 (실패는 PreparedImage.error로 전달)
+     * 같은 파일의 근거가 캐시에 있으면 임시 저장하지 않음
+     */
+    private CompletableFuture<PreparedImage> prepareImageAsync(IngestedImage file) {
+        LensEvidenceCache.LensEvidence cached = cachedLensEvidence(file.getContentHash());
+        if (cached != null) {
+            return CompletableFuture.completedFuture(new PreparedImage(null, cached, null));
+        }
+        
+        return stageAsync(file)
+            .thenCompose(staged -> findLensEvidenceAsync(staged.getUrl(), file.getContentHash())
+                .handle((evidence, e) -> e == null
+                    ? new PreparedImage(staged, evidence, null)
+                    : new PreparedImage(staged, null, unwrap(e))))
+            .exceptionally(e -> {
+                logger.error("파일 업로드 중 오류 발생: {}", e.getMessage(), e);
+                return new PreparedImage(null, null, unwrap(e));
+            });
+    }
+    
+    /**
+     * cloudinaryExecutor에서 이미지 임시 저장
+     */
+    private CompletableFuture<ImageStagingStore.StagedImage> stageAsync(IngestedImage file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return imageStagingStore.stage(file);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, cloudinaryExecutor);
+    }
+    
+    /**
+     * 분석이 끝난 임시 이미지 처리 (일치하면 Cloudinary에 보관하고 결과 URL을 영구 URL로 교체, 아니면 폐기)
+     * 보관에 실패하면 임시 이미지를 폐기하고 업로드 오류 응답 반환
+     */
+    private PersonIdentificationResponseDto finishStaged(ImageStagingStore.StagedImage staged, IngestedImage file,
+                                                         PersonIdentificationResponseDto result) {
+        if (!result.isMatch()) {
+            logger.info("불일치하는 이미지이므로 임시 저장소에서 폐기합니다: {}", staged.getHandle());
+            imageStagingStore.discard(staged);
+            return result;
         }
         
         try {
-            logger.info("Cloudinary 업로드 시작: {} ({}bytes)", file.getOriginalFilename(), file.getSize());
-            
-            // Cloudinary 업로드 옵션 설정
-            Map<String, Object> uploadOptions = ObjectUtils.asMap(
-                "resource_type", "image",
-                "folder", "gpt_test_images", // 폴더명 설정
-                "use_filename", true,
-                "unique_filename", true,
-                "overwrite", false,
-                "format", "jpg" // 자동으로 JPG로 변환
-            );
-            
-            // 파일 업로드 실행
-            Map<String, Object> uploadResult = cloudinary.uploader().upload(file.getBytes(), uploadOptions);
-            
-            String secureUrl = (String) uploadResult.get("secure_url");
-            String publicId = (String) uploadResult.get("public_id");
-            
-            logger.info("Cloudinary 업로드 성공: public_id={}, url={}", publicId, secureUrl);
-            
-            return new CloudinaryUploadResult(secureUrl, publicId);
-            
-        } catch (IOException e) {
-            logger.error("Cloudinary 업로드 실패: {}", e.getMessage(), e);
-            throw new IOException("이미지 업로드에 실패했습니다: " + e.getMessage(), e);
+            logger.info("일치하는 이미지이므로 Cloudinary에 보관합니다: {}", staged.getHandle());
+            result.setImageUrl(imageStagingStore.keep(staged, file));
+            return result;
+        } catch (Exception e) {
+            logger.error("일치 이미지 보관 실패: {}", e.getMessage(), e);
+            imageStagingStore.discard(staged);
+            return uploadErrorResult(e, result.getProcessingTime());
         }
     }
     
     /**
-     * Cloudinary에서 이미지 삭제
+     * 임시 저장 없이 분석한 결과 처리 - 일치하는 경우에만 임시 저장 후 보관 (cloudinaryExecutor 등 블로킹 가능한 스레드에서 호출)
      */
-    private void deleteFromCloudinary(String publicId) {
-        if (publicId == null || publicId.trim().isEmpty()) {
-            logger.warn("삭제할 public_id가 없습니다.");
-            return;
+    private PersonIdentificationResponseDto storeIfMatched(IngestedImage file, PersonIdentificationResponseDto result) {
+        if (!result.isMatch()) {
+            return result;
         }
         
+        ImageStagingStore.StagedImage staged;
         try {
-            logger.info("Cloudinary에서 이미지 삭제 시작: {}", publicId);
-            
-            Map<String, Object> deleteResult = cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
-            String result = (String) deleteResult.get("result");
-            
-            if ("ok".equals(result)) {
-                logger.info("Cloudinary 이미지 삭제 성공: {}", publicId);
-            } else {
-                logger.warn("Cloudinary 이미지 삭제 결과: {}, public_id: {}", result, publicId);
-            }
-            
+            staged = imageStagingStore.stage(file);
         } catch (Exception e) {
-            logger.error("Cloudinary 이미지 삭제 실패: public_id={}, 오류={}", publicId, e.getMessage());
-            // 삭제 실패해도 전체 프로세스는 계속 진행
+            logger.error("일치 이미지 저장 실패: {}", e.getMessage(), e);
+            return uploadErrorResult(e, result.getProcessingTime());
         }
+        result.setImageUrl(staged.getUrl());
+        return finishStaged(staged, file, result);
     }
     
     /**
-     * Cloudinary에 파일 업로드 (기존 호환성을 위한 메서드)
+     * 콘텐츠 해시로 캐시된 Google Lens 근거 조회 (임시 저장 전에 확인하여, 적중하면 임시 URL 없이 분석)
+     * @return 캐시된 근거, 해시가 없거나 캐시에 없으면 null
      */
-    private String uploadToCloudinary(MultipartFile file) throws IOException {
-        CloudinaryUploadResult result = uploadToCloudinaryWithId(file);
-        return result.getSecureUrl();
+    private LensEvidenceCache.LensEvidence cachedLensEvidence(String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+        LensEvidenceCache.LensEvidence cached = lensEvidenceCache.get(LensEvidenceCache.key(contentHash, null));
+        if (cached != null) {
+            logger.info("Google Lens 캐시 적중 (임시 저장 생략): sha256:{}", contentHash);
+        }
+        return cached;
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
     
+    /**
+     * 업로드 단계 오류 응답
+     */
+    private PersonIdentificationResponseDto uploadErrorResult(Throwable e, long processingTime) {
+        return new PersonIdentificationResponseDto(
+            "",
+            new ArrayList<>(),
+            new ArrayList<>(),
+            "파일 업로드 중 오류가 발생했습니다: " + e.getMessage(),
+            "unknown",
+            "unknown",
+            false,
+            "파일 업로드 오류로 인해 판별 불가",
+            processingTime
+        );
+    }
     /**
      * 이미지를 분석하고 인물을 식별하는 메인 메서드
      */
     public PersonIdentificationResponseDto identifyPersonFromImage(GoogleLensRequestDto request) {
+        return identifyPersonFromImage(request, null);
+    }
+    
+    /**
+     * @param contentHash 이미지 콘텐츠 해시 (Google Lens 캐시 키, 없으면 URL로 캐시)
+     */
+    private PersonIdentificationResponseDto identifyPersonFromImage(GoogleLensRequestDto request, String contentHash) {
         long startTime = System.currentTimeMillis();
         
         try {
             logger.info("이미지 분석 시작: {}", request.getImageUrl());
             
-            // 1. Google Lens API를 통해 이미지 분석
-            GoogleLensResponseDto googleLensResponse = callGoogleLensApi(request.getImageUrl());
-            
-            // 2. title과 query 값들 추출
-            List<String> titles = extractTitles(googleLensResponse);
-            List<String> queries = extractQueries(googleLensResponse);
-            
-            logger.info("추출된 titles: {}, queries: {}", titles, queries);
-            
-            // 구글 렌즈 데이터가 없는 경우 즉시 불일치 반환
-            if ((titles == null || titles.isEmpty()) && (queries == null || queries.isEmpty())) {
-                logger.info("구글 렌즈에서 추출된 데이터가 없어 불일치 반환");
-                long processingTime = System.currentTimeMillis() - startTime;
-                
-                return new PersonIdentificationResponseDto(
-                    request.getImageUrl(),
-                    new ArrayList<>(),
-                    new ArrayList<>(),
-                    "{\"name\": \"unknown\", \"group_name\": \"unknown\", \"is_match\": false, \"match_reason\": \"no data extracted from google lens\"}",
-                    "unknown",
-                    "unknown",
-                    false,
-                    "구글 렌즈에서 분석 데이터를 추출하지 못했습니다",
-                    processingTime
-                );
-            }
-            
-            // 3. GPT에게 인물 식별 요청
-            String gptPrompt = createIdentificationPrompt(titles, queries, request.getFavoriteGroup(), request.getFavoriteName());
-            ChatRequestDto chatRequest = new ChatRequestDto(gptPrompt);
-            ChatResponseDto gptResponse = chatService.getChatResponse(chatRequest);
-            
-            // 4. 결과 반환
-            long processingTime = System.currentTimeMillis() - startTime;
+            // 1~2. Google Lens API를 통해 이미지 분석 후 title과 query 값들 추출 (캐시 우선)
+            LensEvidenceCache.LensEvidence evidence = findLensEvidence(request.getImageUrl(), contentHash);
             
-            // JSON 응답에서 데이터 추출
-            String jsonResponse = gptResponse.getAnswer();
-            logger.info("GPT 원본 응답: {}", jsonResponse);
-            
-            String identifiedPerson = extractPersonName(jsonResponse);
-            String identifiedGroup = extractGroupName(jsonResponse);
-            boolean isMatch = extractMatchResult(jsonResponse);
-            String matchReason = extractMatchReason(jsonResponse);
-            
-            logger.info("파싱 결과 - 인물: {}, 그룹: {}, 일치: {}, 이유: {}", 
-                identifiedPerson, identifiedGroup, isMatch, matchReason);
-            
-            return new PersonIdentificationResponseDto(
-                request.getImageUrl(),
-                titles,
-                queries,
-                jsonResponse,
-                identifiedPerson,
-                identifiedGroup,
-                isMatch,
-                matchReason,
-                processingTime
-            );
+            // 3~4. GPT 인물 식별 후 결과 반환
+            return identifyFromEvidence(request, evidence, startTime);
             
         } catch (Exception e) {
-            logger.error("이미지 분석 중 오류 발생: {}", e.getMessage(), e);
-            long processingTime = System.currentTimeMillis() - startTime;
-            
-            return new PersonIdentificationResponseDto(
-                request.getImageUrl(),
-                new ArrayList<>(),
-                new ArrayList<>(),
-                "분석 중 오류가 발생했습니다: " + e.getMessage(),
-                "unknown",
-                "unknown",
-                false,
-                "분석 오류로 인해 판별 불가",
-                processingTime
-            );
+            return analysisErrorResult(request, e, startTime);
         }
     }
     
     /**
-     * Google Lens API 호출
+     * Google Lens 근거로 GPT에게 인물 식별 요청 (같은 근거/선호 정보의 응답이 캐시에 있으면 재사용)
      */
-    private GoogleLensResponseDto callGoogleLensApi(String imageUrl) {
-        try {
-            String url = UriComponentsBuilder.fromUriString(serpApiUrl)
-                    .queryParam("engine", "google_lens")
-                    .queryParam("url", imageUrl)
-                    .queryParam("api_key", serpApiKey)
-                    .toUriString();
-            
-            logger.info("Google Lens API 호출: {}", url);
-            
-            GoogleLensResponseDto response = restTemplate.getForObject(url, GoogleLensResponseDto.class);
-            
-            if (response == null) {
-                throw new RuntimeException("Google Lens API에서 응답을 받지 못했습니다.");
-            }
-            
-            return response;
-            
-        } catch (Exception e) {
-            logger.error("Google Lens API 호출 실패: {}", e.getMessage(), e);
-            throw new RuntimeException("Google Lens API 호출 중 오류가 발생했습니다: " + e.getMessage(), e);
+    private PersonIdentificationResponseDto identifyFromEvidence(GoogleLensRequestDto request, LensEvidenceCache.LensEvidence evidence, long startTime) {
+        List<String> titles = evidence.getTitles();
+        List<String> queries = evidence.getQueries();
+        
+        logger.info("추출된 titles: {}, queries: {}", titles, queries);
+        
+        // 구글 렌즈 데이터가 없는 경우 즉시 불일치 반환
+        if (titles.isEmpty() && queries.isEmpty()) {
+            return noLensDataResult(request, startTime);
         }
+        
+        ChatResponseDto gptResponse = identificationService.identify(new IdentificationService.IdentificationItem(
+            titles, queries, request.getFavoriteGroup(), request.getFavoriteName()));
+        
+        return toIdentificationResult(request, titles, queries, gptResponse, startTime);
     }
     
     /**
-     * visual_matches에서 title 값들 추출
+     * identifyPersonFromImage의 비동기 버전
+     * Google Lens와 GPT 호출을 비동기 HTTP 클라이언트로 연결하고, 결과 가공은 imageAnalysisExecutor에서 실행
+     * GPT 판정은 IdentificationBatcher를 통해 다른 요청과 함께 배치로 전송될 수 있음
+     * 오류 시 동기 메서드와 같은 오류 응답으로 완료됨
      */
-    private List<String> extractTitles(GoogleLensResponseDto response) {
-        if (response.getVisualMatches() == null) {
-            return new ArrayList<>();
-        }
+    public CompletableFuture<PersonIdentificationResponseDto> identifyPersonFromImageAsync(GoogleLensRequestDto request) {
+        return identifyPersonFromImageAsync(request, null);
+    }
+    
+    private CompletableFuture<PersonIdentificationResponseDto> identifyPersonFromImageAsync(GoogleLensRequestDto request, String contentHash) {
+        long startTime = System.currentTimeMillis();
+        logger.info("이미지 분석 시작 (비동기): {}", request.getImageUrl());
         
-        return response.getVisualMatches().stream()
-                .filter(match -> match.getTitle() != null && !match.getTitle().trim().isEmpty())
-                .map(GoogleLensResponseDto.VisualMatch::getTitle)
-                .limit(20) // 최대 20개까지만
-                .collect(Collectors.toList());
+        return findLensEvidenceAsync(request.getImageUrl(), contentHash)
+            .thenComposeAsync(evidence -> identifyFromEvidenceAsync(request, evidence, startTime), imageAnalysisExecutor)
+            .exceptionally(e -> analysisErrorResult(request, unwrap(e), startTime));
     }
     
     /**
-     * related_content에서 query 값들 추출
+     * identifyFromEvidence의 비동기 버전 (GPT 판정은 IdentificationBatcher를 통해 요청)
      */
-    private List<String> extractQueries(GoogleLensResponseDto response) {
-        if (response.getRelatedContent() == null) {
-            return new ArrayList<>();
+    private CompletableFuture<PersonIdentificationResponseDto> identifyFromEvidenceAsync(GoogleLensRequestDto request,
+                                                                                         LensEvidenceCache.LensEvidence evidence, long startTime) {
+        List<String> titles = evidence.getTitles();
+        List<String> queries = evidence.getQueries();
+        
+        logger.info("추출된 titles: {}, queries: {}", titles, queries);
+        
+        if (titles.isEmpty() && queries.isEmpty()) {
+            return CompletableFuture.completedFuture(noLensDataResult(request, startTime));
         }
         
-        return response.getRelatedContent().stream()
-                .filter(content -> content.getQuery() != null && !content.getQuery().trim().isEmpty())
-                .map(GoogleLensResponseDto.RelatedContent::getQuery)
-                .limit(5) // 최대 5개까지만
-                .collect(Collectors.toList());
+        return identificationBatcher.submit(new IdentificationService.IdentificationItem(
+                titles, queries, request.getFavoriteGroup(), request.getFavoriteName()))
+            .thenApplyAsync(gptResponse -> toIdentificationResult(request, titles, queries, gptResponse, startTime), imageAnalysisExecutor);
     }
     
     /**
-     * GPT에게 보낼 인물 식별 프롬프트 생성
+     * GPT 응답을 파싱하여 인물 식별 결과 생성
      */
-    private String createIdentificationPrompt(List<String> titles, List<String> queries, String favoriteGroup, String favoriteName) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Analyze the following Google Lens image search results to identify the person in the photo. ");
-        prompt.append("Return ONLY a JSON response with the format: ");
-        prompt.append("{\"name\": \"person_name\", \"group_name\": \"group_or_solo\", \"is_match\": true/false, \"match_reason\": \"reason\"}\n\n");
+    private PersonIdentificationResponseDto toIdentificationResult(GoogleLensRequestDto request, List<String> titles, List<String> queries,
+                                                                   ChatResponseDto gptResponse, long startTime) {
+        long processingTime = System.currentTimeMillis() - startTime;
         
-        if (!titles.isEmpty()) {
-            prompt.append("Search result titles:\n");
-            for (int i = 0; i < titles.size(); i++) {
-                prompt.append(String.format("- %s\n", titles.get(i)));
-            }
-            prompt.append("\n");
-        }
+        // JSON 응답을 한 번만 파싱하여 판정 추출
+        String jsonResponse = gptResponse.getAnswer();
+        logger.info("GPT 원본 응답: {}", jsonResponse);
         
-        if (!queries.isEmpty()) {
-            prompt.append("Related queries:\n");
-            for (int i = 0; i < queries.size(); i++) {
-                prompt.append(String.format("- %s\n", queries.get(i)));
-            }
-            prompt.append("\n");
-        }
+        IdentificationVerdictDto verdict = identificationService.parseVerdict(jsonResponse);
+        String identifiedPerson = verdict.getName();
+        String identifiedGroup = verdict.getGroupName();
+        boolean isMatch = verdict.isMatch();
+        String matchReason = verdict.getMatchReason();
         
-        // 사용자 선호 정보 추가
-        if (favoriteGroup != null || favoriteName != null) {
-            prompt.append("User's favorite:\n");
-            if (favoriteName != null && !favoriteName.trim().isEmpty()) {
-                prompt.append(String.format("- Favorite person: %s\n", favoriteName));
-            }
-            if (favoriteGroup != null && !favoriteGroup.trim().isEmpty()) {
-                prompt.append(String.format("- Favorite group: %s\n", favoriteGroup));
-            }
-            prompt.append("\n");
-        }
+        logger.info("파싱 결과 - 인물: {}, 그룹: {}, 일치: {}, 이유: {}", 
+            identifiedPerson, identifiedGroup, isMatch, matchReason);
         
-        prompt.append("Rules:\n");
-        prompt.append("- Use only lowercase English letters and numbers\n");
-        prompt.append("- For name: use the person's stage name or commonly known name\n");
-        prompt.append("- For group_name: use the group/band name if applicable, or \"solo\" if solo artist\n");
-        prompt.append("- For is_match: compare identified person/group with user's favorite and return true if they match, false otherwise\n");
-        prompt.append("- For match_reason: explain why they match or don't match (e.g., \"same person\", \"same group\", \"different person\", \"different group\")\n");
-        prompt.append("- If you recognize the person, fill in any missing information\n");
-        prompt.append("- If uncertain, use \"unknown\" for unknown fields\n");
-        prompt.append("- Return ONLY the JSON, no additional text\n");
-        
-        return prompt.toString();
+        return new PersonIdentificationResponseDto(
+            request.getImageUrl(),
+            titles,
+            queries,
+            jsonResponse,
+            identifiedPerson,
+            identifiedGroup,
+            isMatch,
+            matchReason,
+            processingTime
+        );
     }
     
     /**
-     * GPT 응답에서 인물 이름 추출 (JSON 파싱)
+     * 구글 렌즈 데이터가 없을 때의 불일치 응답
      */
-    private String extractPersonName(String gptResponse) {
-        return extractJsonValue(gptResponse, "name", "unknown");
+    private PersonIdentificationResponseDto noLensDataResult(GoogleLensRequestDto request, long startTime) {
+        logger.info("구글 렌즈에서 추출된 데이터가 없어 불일치 반환");
+        long processingTime = System.currentTimeMillis() - startTime;
+        
+        return new PersonIdentificationResponseDto(
+            request.getImageUrl(),
+            new ArrayList<>(),
+            new ArrayList<>(),
+            "{\"name\": \"unknown\", \"group_name\": \"unknown\", \"is_match\": false, \"match_reason\": \"no data extracted from google lens\"}",
+            "unknown",
+            "unknown",
+            false,
+            "구글 렌즈에서 분석 데이터를 추출하지 못했습니다",
+            processingTime
+        );
     }
     
     /**
-     * GPT 응답에서 그룹명 추출 (JSON 파싱)
+     * 분석 단계 오류 응답
      */
-    private String extractGroupName(String gptResponse) {
-        return extractJsonValue(gptResponse, "group_name", "unknown");
+    private PersonIdentificationResponseDto analysisErrorResult(GoogleLensRequestDto request, Throwable e, long startTime) {
+        logger.error("이미지 분석 중 오류 발생: {}", e.getMessage(), e);
+        long processingTime = System.currentTimeMillis() - startTime;
+        
+        return new PersonIdentificationResponseDto(
+            request.getImageUrl(),
+            new ArrayList<>(),
+            new ArrayList<>(),
+            "분석 중 오류가 발생했습니다: " + e.getMessage(),
+            "unknown",
+            "unknown",
+            false,
+            "분석 오류로 인해 판별 불가",
+            processingTime
+        );
     }
     
     /**
-     * GPT 응답에서 일치 여부 추출 (JSON 파싱)
+     * Google Lens 근거 데이터 조회 (캐시에 없으면 API 호출 후 저장, 호출 실패는 캐시하지 않음)
      */
-    private boolean extractMatchResult(String gptResponse) {
-        String value = extractJsonValue(gptResponse, "is_match", "false");
-        return "true".equalsIgnoreCase(value);
+    private LensEvidenceCache.LensEvidence findLensEvidence(String imageUrl, String contentHash) {
+        String cacheKey = LensEvidenceCache.key(contentHash, imageUrl);
+        LensEvidenceCache.LensEvidence cached = lensEvidenceCache.get(cacheKey);
+        if (cached != null) {
+            logger.info("Google Lens 캐시 적중: {}", cacheKey);
+            return cached;
+        }
+        
+        LensEvidenceCache.LensEvidence evidence = callGoogleLensApi(imageUrl);
+        lensEvidenceCache.put(cacheKey, evidence);
+        return evidence;
     }
     
     /**
-     * GPT 응답에서 일치 이유 추출 (JSON 파싱)
+     * findLensEvidence의 비동기 버전
      */
-    private String extractMatchReason(String gptResponse) {
-        return extractJsonValue(gptResponse, "match_reason", "분석 결과를 확인할 수 없습니다");
+    private CompletableFuture<LensEvidenceCache.LensEvidence> findLensEvidenceAsync(String imageUrl, String contentHash) {
+        String cacheKey = LensEvidenceCache.key(contentHash, imageUrl);
+        LensEvidenceCache.LensEvidence cached = lensEvidenceCache.get(cacheKey);
+        if (cached != null) {
+            logger.info("Google Lens 캐시 적중: {}", cacheKey);
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        return callGoogleLensApiAsync(imageUrl)
+            .thenApply(evidence -> {
+                lensEvidenceCache.put(cacheKey, evidence);
+                return evidence;
+            });
     }
     
     /**
-     * JSON에서 특정 키의 값을 추출하는 공통 메서드
+     * Google Lens API 호출 (응답 본문을 스트리밍으로 읽으며 근거 데이터만 추출)
      */
-    private String extractJsonValue(String gptResponse, String key, String defaultValue) {
-        if (gptResponse == null || gptResponse.trim().isEmpty()) {
-            logger.warn("GPT 응답이 비어있음");
-            return defaultValue;
-        }
-        
+    private LensEvidenceCache.LensEvidence callGoogleLensApi(String imageUrl) {
         try {
-            // JSON에서 해당 키 필드 추출
-            String searchKey = "\"" + key + "\"";
-            logger.debug("키 '{}' 검색 중, 응답 길이: {}", key, gptResponse.length());
+            String url = googleLensUrl(imageUrl).toUriString();
             
-            if (gptResponse.contains(searchKey)) {
-                int keyStart = gptResponse.indexOf(searchKey);
-                int colonPos = gptResponse.indexOf(":", keyStart);
-                
-                if (colonPos == -1) {
-                    logger.warn("키 '{}' 다음에 콜론을 찾을 수 없음", key);
-                    return defaultValue;
-                }
+            logger.info("Google Lens API 호출: {}", url);
+            
+            return restTemplate.execute(url, HttpMethod.GET, null,
+                response -> googleLensEvidenceExtractor.extract(response.getBody()));
                 
-                // boolean 값인 경우
-                if (key.equals("is_match")) {
-                    String afterColon = gptResponse.substring(colonPos + 1).trim();
-                    // 쉼표나 괄호 제거
-                    afterColon = afterColon.replaceAll("[,}\\s].*", "");
-                    
-                    if (afterColon.startsWith("true")) {
-                        return "true";
-                    } else if (afterColon.startsWith("false")) {
-                        return "false";
-                    }
-                    logger.warn("is_match 값을 파싱할 수 없음: {}", afterColon);
-                } else {
-                    // 문자열 값인 경우
-                    String afterColon = gptResponse.substring(colonPos + 1).trim();
-                    
-                    // 따옴표로 감싸진 문자열 찾기
-                    int valueStart = afterColon.indexOf("\"");
-                    if (valueStart != -1) {
-                        valueStart += 1; // 따옴표 다음부터
-                        int valueEnd = afterColon.indexOf("\"", valueStart);
-                        
-                        if (valueEnd > valueStart) {
-                            String result = afterColon.substring(valueStart, valueEnd);
-                            logger.debug("키 '{}' 값 추출 성공: {}", key, result);
-                            return result;
-                        }
-                    }
-                    
-                    // 따옴표가 없는 경우 (쉼표나 괄호까지)
-                    String value = afterColon.replaceAll("^[\\s\"]*", "").replaceAll("[,}\\s\"]*$", "");
-                    if (!value.isEmpty() && !value.equals("null")) {
-                        logger.debug("키 '{}' 값 추출 (따옴표 없음): {}", key, value);
-                        return value;
-                    }
-                    
-                    logger.warn("키 '{}' 값을 파싱할 수 없음, afterColon: {}", key, afterColon);
-                }
-            } else {
-                logger.warn("키 '{}'를 응답에서 찾을 수 없음", key);
-            }
         } catch (Exception e) {
-            logger.warn("JSON 파싱 중 오류 (key: {}): {}", key, e.getMessage());
+            logger.error("Google Lens API 호출 실패: {}", e.getMessage(), e);
+            throw new RuntimeException("Google Lens API 호출 중 오류가 발생했습니다: " + e.getMessage(), e);
         }
+    }
+    
+    /**
+     * Google Lens API 비동기 호출
+     */
+    private CompletableFuture<LensEvidenceCache.LensEvidence> callGoogleLensApiAsync(String imageUrl) {
+        HttpRequest httpRequest = HttpRequest.newBuilder(googleLensUrl(imageUrl).encode().build().toUri())
+            .timeout(serpResponseTimeout)
+            .GET()
+            .build();
+        
+        logger.info("Google Lens API 비동기 호출: {}", imageUrl);
         
-        return defaultValue;
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(response -> {
+                if (response.statusCode() / 100 != 2) {
+                    throw new IllegalStateException("Google Lens API 호출 중 오류가 발생했습니다: HTTP " + response.statusCode());
+                }
+                try {
+                    return googleLensEvidenceExtractor.extract(response.body());
+                } catch (IOException e) {
+                    throw new IllegalStateException("Google Lens API 응답을 해석할 수 없습니다: " + e.getMessage(), e);
+                }
+            });
+    }
+    
+    private UriComponentsBuilder googleLensUrl(String imageUrl) {
+        return UriComponentsBuilder.fromUriString(serpApiUrl)
+                .queryParam("engine", "google_lens")
+                .queryParam("url", imageUrl)
+                .queryParam("api_key", serpApiKey);
     }
 }
@@ -0,0 +1,53 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.util.IngestedImage;
+
+import java.io.IOException;
+
+/**
+ * 분석용 이미지 임시 저장소
+ * Google Lens(SERP)가 가져갈 수 있는 공개 URL을 제공하고, 분석 결과에 따라 영구 보관하거나 폐기
+ * idol.staging.store 설정으로 구현 선택 (cloudinary: 바로 Cloudinary에 업로드, local: 서명된 URL로 이 서버가 직접 제공)
+ */
+public interface ImageStagingStore {
+    
+    /**
+     * 임시 저장된 이미지
+     */
+    class StagedImage {
+        private final String url;
+        private final String handle;
+        private final String permanentUrl;
+        
+        /**
+         * @param url Google Lens가 가져갈 공개 URL
+         * @param handle 저장소 내부 식별자 (Cloudinary public_id 또는 로컬 파일 ID)
+         * @param permanentUrl 이미 영구 저장소에 있으면 그 URL, 아니면 null
+         */
+        public StagedImage(String url, String handle, String permanentUrl) {
+            this.url = url;
+            this.handle = handle;
+            this.permanentUrl = permanentUrl;
+        }
+        
+        public String getUrl() { return url; }
+        public String getHandle() { return handle; }
+        public String getPermanentUrl() { return permanentUrl; }
+    }
+    
+    /**
+     * 이미지를 임시 저장하고 공개 URL 발급
+     */
+    StagedImage stage(IngestedImage image) throws IOException;
+    
+    /**
+     * 일치 판정을 받은 이미지를 영구 저장소(Cloudinary)에 보관
+     * @return 영구 URL
+     */
+    String keep(StagedImage staged, IngestedImage image) throws IOException;
+    
+    /**
+     * 보관하지 않을 이미지 폐기 (요청 처리 중 호출되므로 외부 API를 기다리지 않아야 함)
+     */
+    void discard(StagedImage staged);
+}
@@ -0,0 +1,88 @@
+package com.example.gpt_test.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Google Lens 분석 결과(titles, queries) 캐시
+ * Cloudinary URL은 업로드마다 달라지므로 이미지 콘텐츠 해시(SHA-256)를 키로 사용 (해시가 없으면 URL)
+ * 추출된 데이터가 없는 결과는 짧은 기간만 보관
+ */
+@Component
+public class LensEvidenceCache {
+
+    /**
+     * Google Lens에서 추출한 근거 데이터
+     */
+    public static class LensEvidence {
+        private final List<String> titles;
+        private final List<String> queries;
+
+        public LensEvidence(List<String> titles, List<String> queries) {
+            this.titles = List.copyOf(titles);
+            this.queries = List.copyOf(queries);
+        }
+
+        public List<String> getTitles() { return titles; }
+        public List<String> getQueries() { return queries; }
+
+        public boolean isEmpty() {
+            return titles.isEmpty() && queries.isEmpty();
+        }
+    }
+
+    private final Cache<String, LensEvidence> cache;
+
+    public LensEvidenceCache(@Value("${idol.lens-cache.max-size:10000}") long maxSize,
+                             @Value("${idol.lens-cache.ttl:24h}") Duration ttl,
+                             @Value("${idol.lens-cache.empty-ttl:10m}") Duration emptyTtl,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new Expiry<String, LensEvidence>() {
+                @Override
+                public long expireAfterCreate(String key, LensEvidence value, long currentTime) {
+                    return (value.isEmpty() ? emptyTtl : ttl).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, LensEvidence value, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, value, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, LensEvidence value, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "lensEvidence");
+    }
+
+    /**
+     * 캐시 키 생성 (콘텐츠 해시 우선, 없으면 이미지 URL)
+     */
+    public static String key(String contentHash, String imageUrl) {
+        return contentHash != null ? "sha256:" + contentHash : "url:" + imageUrl;
+    }
+
+    /**
+     * @return 캐시된 근거 데이터, 없으면 null
+     */
+    public LensEvidence get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, LensEvidence evidence) {
+        cache.put(key, evidence);
+    }
+}
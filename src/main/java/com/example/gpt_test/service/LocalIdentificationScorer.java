@@ -0,0 +1,243 @@
+package com.example.gpt_test.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * GPT 없이 Google Lens 근거만으로 일치 여부를 판정하는 로컬 점수기
+ * 별칭 사전(한글/영문 표기, 본명)으로 titles, queries에서 선호 아이돌과 그룹이 언급된 줄 수를 세고,
+ * 선호 아이돌이 충분히 많이, 같은 그룹의 다른 멤버보다 압도적으로 언급되면 GPT 호출 없이 일치 판정
+ * 일반 단어나 흔한 이름과 겹치는 별칭(사전의 ambiguous, 예: 가을, winter)은 같은 줄에 그룹이 함께 언급될 때만 인정
+ * 불일치는 판정하지 않음 (애매한 경우는 모두 GPT로 보냄)
+ */
+@Component
+public class LocalIdentificationScorer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalIdentificationScorer.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern HANGUL = Pattern.compile(".*\\p{IsHangul}.*");
+    // 한글 별칭 뒤에 띄어쓰기 없이 붙어도 같은 이름으로 보는 조사와 호칭
+    private static final Set<String> HANGUL_SUFFIXES = Set.of(
+        "은", "는", "이", "가", "을", "를", "의", "에", "에서", "에게", "께", "한테", "와", "과", "랑", "이랑", "하고",
+        "도", "만", "로", "으로", "처럼", "보다", "까지", "부터", "야", "아", "이다", "이야", "입니다", "님", "씨", "양");
+
+    private final boolean enabled;
+    private final int minMentions;
+    private final double minRatio;
+    private final List<Group> groups;
+    private final Counter bypassCounter;
+
+    /**
+     * 사전의 그룹 (그룹 별칭과 멤버별 별칭)
+     */
+    private static class Group {
+        private final List<Alias> aliases;
+        private final List<List<Alias>> members;
+
+        private Group(List<Alias> aliases, List<List<Alias>> members) {
+            this.aliases = aliases;
+            this.members = members;
+        }
+    }
+
+    /**
+     * 정규화한 별칭 (토큰 단위로 비교, 한글 별칭은 마지막 토큰 뒤에 HANGUL_SUFFIXES의 조사/호칭이 붙어도 일치)
+     */
+    private static class Alias {
+        private final String display;
+        private final String[] tokens;
+        private final boolean hangul;
+        private final boolean ambiguous;
+
+        private Alias(String value, boolean ambiguous) {
+            this.display = value;
+            this.tokens = tokenize(value);
+            this.hangul = HANGUL.matcher(value).matches();
+            this.ambiguous = ambiguous;
+        }
+
+        private boolean foundIn(String[] text) {
+            if (tokens.length == 0) {
+                return false;
+            }
+            for (int i = 0; i + tokens.length <= text.length; i++) {
+                if (matchesAt(text, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesAt(String[] text, int start) {
+            int last = tokens.length - 1;
+            for (int k = 0; k < last; k++) {
+                if (!tokens[k].equals(text[start + k])) {
+                    return false;
+                }
+            }
+            String token = text[start + last];
+            if (token.equals(tokens[last])) {
+                return true;
+            }
+            return hangul && token.startsWith(tokens[last]) && HANGUL_SUFFIXES.contains(token.substring(tokens[last].length()));
+        }
+
+        private boolean sameAs(String normalized) {
+            return String.join(" ", tokens).equals(normalized);
+        }
+    }
+
+    public LocalIdentificationScorer(@Value("${idol.local-scorer.enabled:true}") boolean enabled,
+                                     @Value("${idol.local-scorer.min-mentions:5}") int minMentions,
+                                     @Value("${idol.local-scorer.min-ratio:0.5}") double minRatio,
+                                     @Value("${idol.local-scorer.aliases:classpath:idol-aliases.json}") Resource aliases,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry) throws IOException {
+        this.enabled = enabled;
+        this.minMentions = minMentions;
+        this.minRatio = minRatio;
+        this.groups = enabled ? loadGroups(aliases, objectMapper) : List.of();
+        this.bypassCounter = Counter.builder("gpt.identification.local.bypass")
+            .description("GPT 호출 없이 로컬 점수로 판정한 식별 요청 수")
+            .register(meterRegistry);
+    }
+
+    private static List<Group> loadGroups(Resource resource, ObjectMapper objectMapper) throws IOException {
+        JsonNode root;
+        try (InputStream in = resource.getInputStream()) {
+            root = objectMapper.readTree(in);
+        }
+
+        List<Group> groups = new ArrayList<>();
+        for (JsonNode group : root.path("groups")) {
+            Set<String> ambiguous = new HashSet<>();
+            for (JsonNode value : group.path("ambiguous")) {
+                ambiguous.add(value.asText());
+            }
+            List<List<Alias>> members = new ArrayList<>();
+            for (JsonNode member : group.path("members")) {
+                members.add(toAliases(member, ambiguous));
+            }
+            groups.add(new Group(toAliases(group.path("aliases"), Set.of()), members));
+        }
+        logger.info("아이돌 별칭 사전 로드: {}개 그룹", groups.size());
+        return groups;
+    }
+
+    private static List<Alias> toAliases(JsonNode values, Set<String> ambiguous) {
+        List<Alias> aliases = new ArrayList<>();
+        for (JsonNode value : values) {
+            aliases.add(new Alias(value.asText(), ambiguous.contains(value.asText())));
+        }
+        return aliases;
+    }
+
+    /**
+     * 근거만으로 일치가 확실하면 판정 JSON 반환 (GPT 응답과 같은 형식)
+     * @return 일치 판정 JSON, 확신할 수 없으면 null
+     */
+    public String score(IdentificationService.IdentificationItem item) {
+        if (!enabled || item.getFavoriteName() == null || item.getFavoriteName().trim().isEmpty()) {
+            return null;
+        }
+
+        Group group = null;
+        List<Alias> favorite = null;
+        String favoriteName = String.join(" ", tokenize(item.getFavoriteName()));
+        String favoriteGroup = item.getFavoriteGroup() == null ? "" : String.join(" ", tokenize(item.getFavoriteGroup()));
+        for (Group candidate : groups) {
+            if (!favoriteGroup.isEmpty() && candidate.aliases.stream().noneMatch(alias -> alias.sameAs(favoriteGroup))) {
+                continue;
+            }
+            for (List<Alias> member : candidate.members) {
+                if (member.stream().anyMatch(alias -> alias.sameAs(favoriteName))) {
+                    if (favorite != null) {
+                        return null; // 그룹 없이 같은 이름의 멤버가 여러 그룹에 있으면 판단하지 않음
+                    }
+                    group = candidate;
+                    favorite = member;
+                }
+            }
+        }
+        if (favorite == null) {
+            return null;
+        }
+
+        int lines = 0;
+        int nameHits = 0;
+        int groupHits = 0;
+        int rivalHits = 0;
+        List<String> evidence = new ArrayList<>(item.getTitles());
+        evidence.addAll(item.getQueries());
+        for (String line : evidence) {
+            String[] text = tokenize(line);
+            if (text.length == 0) {
+                continue;
+            }
+            lines++;
+            boolean groupMentioned = mentions(group.aliases, text, true);
+            if (mentions(favorite, text, groupMentioned)) {
+                nameHits++;
+            }
+            if (groupMentioned) {
+                groupHits++;
+            }
+            for (List<Alias> member : group.members) {
+                if (member != favorite && mentions(member, text, groupMentioned)) {
+                    rivalHits++;
+                    break;
+                }
+            }
+        }
+
+        boolean confident = nameHits >= minMentions
+            && nameHits >= minRatio * lines
+            && groupHits > 0
+            && rivalHits * 2 <= nameHits;
+        if (!confident) {
+            return null;
+        }
+
+        bypassCounter.increment();
+        logger.info("로컬 판정으로 GPT 생략: {} ({}), 언급 {}/{}줄, 그룹 {}줄, 다른 멤버 {}줄",
+            favorite.get(0).display, group.aliases.get(0).display, nameHits, lines, groupHits, rivalHits);
+        return String.format("{\"name\": \"%s\", \"group_name\": \"%s\", \"is_match\": true, \"match_reason\": \"same person\"}",
+            favorite.get(0).display, group.aliases.get(0).display);
+    }
+
+    /**
+     * @param groupMentioned 같은 줄에 그룹이 언급되었는지 (아니면 ambiguous 별칭은 세지 않음)
+     */
+    private static boolean mentions(List<Alias> aliases, String[] text, boolean groupMentioned) {
+        for (Alias alias : aliases) {
+            if ((groupMentioned || !alias.ambiguous) && alias.foundIn(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] tokenize(String value) {
+        String normalized = NON_WORD.matcher(Normalizer.normalize(value, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT))
+            .replaceAll(" ").trim();
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.util.IngestedImage;
+import org.apache.commons.codec.digest.HmacAlgorithms;
+import org.apache.commons.codec.digest.HmacUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * 로컬 파일 시스템 임시 저장소
+ * 이미지를 로컬 디렉터리에 저장하고 이 서버가 짧은 기간만 유효한 서명된 URL(/api/staging/{id})로 직접 제공
+ * Cloudinary에는 일치 판정을 받은 이미지만 업로드하므로 불일치 이미지에 대한 Cloudinary 업로드/삭제가 없음
+ */
+@Component
+@ConditionalOnProperty(name = "idol.staging.store", havingValue = "local")
+public class LocalSignedUrlStagingStore implements ImageStagingStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalSignedUrlStagingStore.class);
+
+    // Cloudinary 업로드 제한과 동일 (10MB)
+    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
+
+    // UUID + 확장자만 허용 (경로 조작 방지)
+    private static final Pattern ID_PATTERN = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\.(jpg|png|gif|webp)");
+
+    private final CloudinaryImageStore cloudinaryImageStore;
+    private final Path directory;
+    private final String publicBaseUrl;
+    private final Duration urlTtl;
+    private final HmacUtils hmac;
+
+    public LocalSignedUrlStagingStore(CloudinaryImageStore cloudinaryImageStore,
+                                      @Value("${idol.staging.local.directory:${java.io.tmpdir}/idol-staging}") String directory,
+                                      @Value("${idol.staging.public-base-url:http://localhost:8080}") String publicBaseUrl,
+                                      @Value("${idol.staging.url-ttl:10m}") Duration urlTtl,
+                                      @Value("${idol.staging.signing-secret:}") String signingSecret) throws IOException {
+        this.cloudinaryImageStore = cloudinaryImageStore;
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1) : publicBaseUrl;
+        this.urlTtl = urlTtl;
+        this.hmac = new HmacUtils(HmacAlgorithms.HMAC_SHA_256, signingKey(signingSecret));
+    }
+
+    /**
+     * 서명 키 (설정이 없으면 서버 시작 시 무작위 생성, 재시작하면 이전 URL은 무효)
+     */
+    private static byte[] signingKey(String signingSecret) {
+        if (signingSecret != null && !signingSecret.isBlank()) {
+            return signingSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    @Override
+    public StagedImage stage(IngestedImage image) throws IOException {
+        if (image == null || image.isEmpty()) {
+            throw new IllegalArgumentException("업로드할 파일이 없습니다.");
+        }
+        if (image.getSize() > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("파일 크기는 10MB를 초과할 수 없습니다.");
+        }
+        if (image.getFormat() == null) {
+            throw new IllegalArgumentException("이미지 파일만 업로드 가능합니다.");
+        }
+
+        String id = UUID.randomUUID() + "." + extension(image.getFormat());
+        Files.write(directory.resolve(id), image.getBytes());
+
+        long expires = Instant.now().plus(urlTtl).getEpochSecond();
+        String url = publicBaseUrl + "/api/staging/" + id + "?expires=" + expires + "&signature=" + sign(id, expires);
+        logger.info("로컬 임시 저장: {} ({}bytes)", id, image.getSize());
+
+        return new StagedImage(url, id, null);
+    }
+
+    @Override
+    public String keep(StagedImage staged, IngestedImage image) throws IOException {
+        try {
+            return cloudinaryImageStore.upload(image).getSecureUrl();
+        } finally {
+            discard(staged);
+        }
+    }
+
+    @Override
+    public void discard(StagedImage staged) {
+        try {
+            Files.deleteIfExists(directory.resolve(staged.getHandle()));
+        } catch (IOException e) {
+            logger.warn("로컬 임시 파일 삭제 실패: {}, 오류={}", staged.getHandle(), e.getMessage());
+        }
+    }
+
+    /**
+     * 서명과 만료 시각을 검증하고 임시 파일 경로 반환
+     * @return 유효하면 파일 경로, 아니면 null
+     */
+    public Path resolve(String id, long expires, String signature) {
+        if (id == null || !ID_PATTERN.matcher(id).matches() || signature == null) {
+            return null;
+        }
+        if (Instant.now().getEpochSecond() > expires) {
+            return null;
+        }
+        byte[] expected = sign(id, expires).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, signature.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        Path file = directory.resolve(id);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * 만료된 임시 파일 정리 (분석 도중 오류로 폐기되지 않은 파일 대비)
+     */
+    @Scheduled(fixedDelayString = "${idol.staging.cleanup-interval:5m}")
+    public void cleanupExpired() {
+        Instant threshold = Instant.now().minus(urlTtl);
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(threshold) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("로컬 임시 파일 정리 실패: {}", e.getMessage());
+        }
+        if (deleted > 0) {
+            logger.info("만료된 로컬 임시 파일 {}개 삭제", deleted);
+        }
+    }
+
+    private String sign(String id, long expires) {
+        return hmac.hmacHex(id + ":" + expires);
+    }
+
+    private static String extension(IngestedImage.ImageFormat format) {
+        return format == IngestedImage.ImageFormat.JPEG ? "jpg" : format.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.entity.IdolImage;
+import com.example.gpt_test.entity.User;
+import com.example.gpt_test.repository.IdolImageRepository;
+import com.example.gpt_test.util.HammingBkTree;
+import com.example.gpt_test.util.ImageHashUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 사용자별 개인 갤러리 pHash 인덱스 (BK-tree)
+ * 최초 조회 시 DB에서 한 번 로드하고, 이후 저장/삭제 시 증분 갱신
+ * 이미지 ID별로 반영 여부를 기록하여, 로드한 DB 스냅샷에 이미 포함된 이미지가 다시 추가되어도 한 번만 집계
+ */
+@Service
+public class UserHashIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserHashIndexService.class);
+
+    @Autowired
+    private IdolImageRepository idolImageRepository;
+
+    private final ConcurrentHashMap<Long, UserIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * 사용자 인덱스와 잠금
+     * synchronized 대신 ReentrantReadWriteLock을 사용하여 가상 스레드가 캐리어 스레드에 고정(pinning)되지 않도록 함
+     */
+    private static class UserIndex {
+        private final HammingBkTree tree = new HammingBkTree();
+        private final Map<Long, Long> hashesById = new HashMap<>(); // 인덱스에 반영된 이미지 ID → pHash
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * 이미지 추가 (이미 반영된 ID면 무시), 쓰기 잠금 안에서 호출
+         */
+        private void add(Long imageId, long hash) {
+            if (hashesById.putIfAbsent(imageId, hash) == null) {
+                tree.add(hash);
+            }
+        }
+
+        /**
+         * 이미지 제거 (반영되지 않은 ID면 무시), 쓰기 잠금 안에서 호출
+         */
+        private void remove(Long imageId) {
+            Long hash = hashesById.remove(imageId);
+            if (hash != null) {
+                tree.remove(hash);
+            }
+        }
+    }
+
+    /**
+     * 사용자 갤러리에 maxDistance 이내의 유사 이미지가 있는지 확인
+     */
+    public boolean hasNearDuplicate(User user, long pHash, int maxDistance) {
+        UserIndex index = getOrLoad(user);
+        index.lock.readLock().lock();
+        try {
+            return index.tree.containsWithin(pHash, maxDistance);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 사용자 갤러리의 해시 수 (인덱스가 없으면 로드)
+     */
+    public int size(User user) {
+        UserIndex index = getOrLoad(user);
+        index.lock.readLock().lock();
+        try {
+            return index.tree.size();
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 이미지 저장 후 인덱스에 추가 (아직 로드되지 않은 사용자는 다음 로드 시 DB에서 반영됨)
+     * 로드 중이던 DB 스냅샷에 이미 포함된 이미지면 무시
+     */
+    public void add(User user, IdolImage image) {
+        long hash;
+        try {
+            hash = ImageHashUtil.parseHash(image.getpHash());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        UserIndex index = indexes.get(user.getId());
+        if (index == null) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            index.add(image.getId(), hash);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 이미지 삭제 후 인덱스에서 제거
+     */
+    public void remove(User user, IdolImage image) {
+        UserIndex index = indexes.get(user.getId());
+        if (index == null) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            index.remove(image.getId());
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 인덱스 조회, 없으면 DB에서 로드
+     * DB 조회는 ConcurrentHashMap.computeIfAbsent(내부적으로 synchronized) 밖에서 수행하고,
+     * 로드하는 동안 쓰기 잠금을 잡아 다른 요청이 빈 인덱스를 읽거나 갱신이 유실되지 않도록 함
+     */
+    private UserIndex getOrLoad(User user) {
+        UserIndex index = indexes.get(user.getId());
+        if (index != null) {
+            return index;
+        }
+
+        UserIndex created = new UserIndex();
+        created.lock.writeLock().lock();
+        try {
+            index = indexes.putIfAbsent(user.getId(), created);
+            if (index != null) {
+                return index;
+            }
+            for (Object[] row : idolImageRepository.findHashesByUser(user)) {
+                try {
+                    created.add((Long) row[0], ImageHashUtil.parseHash((String) row[1]));
+                } catch (IllegalArgumentException e) {
+                    // 이전 형식의 해시는 인덱스에서 제외
+                }
+            }
+            logger.info("사용자 pHash 인덱스 로드: userId={}, {}개", user.getId(), created.tree.size());
+        } catch (RuntimeException e) {
+            indexes.remove(user.getId(), created);
+            throw e;
+        } finally {
+            created.lock.writeLock().unlock();
+        }
+        return created;
+    }
+}
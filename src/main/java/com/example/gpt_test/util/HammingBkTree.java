@@ -0,0 +1,156 @@
+package com.example.gpt_test.util;
+
+import java.util.ArrayDeque;
+
+/**
+ * 64비트 pHash용 BK-tree (Hamming distance 기반 메트릭 트리)
+ * 삼각 부등식을 이용해 "거리 k 이내" 검색 시 |d - k| ~ d + k 범위의 자식만 방문
+ * 동일 해시는 하나의 노드에 개수로 저장하며, 삭제는 개수 감소(tombstone) 후 일정 비율을 넘으면 재구성
+ * 스레드 안전하지 않으므로 호출 측에서 동기화해야 함
+ */
+public class HammingBkTree {
+
+    private static final int MAX_DISTANCE = 64;
+
+    private Node root;
+    private int size;       // 살아있는 해시 수 (중복 포함)
+    private int nodeCount;  // 트리 노드 수 (tombstone 포함)
+    private int tombstones; // 개수가 0이 된 노드 수
+
+    private static class Node {
+        private final long hash;
+        private int count;
+        private Node[] children; // 거리(1~64)별 자식, 필요할 때 생성
+
+        private Node(long hash) {
+            this.hash = hash;
+            this.count = 1;
+        }
+    }
+
+    /**
+     * 해시 추가
+     */
+    public void add(long hash) {
+        size++;
+        if (root == null) {
+            root = new Node(hash);
+            nodeCount++;
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = ImageHashUtil.hammingDistance(node.hash, hash);
+            if (distance == 0) {
+                if (node.count++ == 0) {
+                    tombstones--;
+                }
+                return;
+            }
+            if (node.children == null) {
+                node.children = new Node[MAX_DISTANCE + 1];
+            }
+            Node child = node.children[distance];
+            if (child == null) {
+                node.children[distance] = new Node(hash);
+                nodeCount++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * 해시 하나 제거
+     * @return 제거되었으면 true, 해당 해시가 없으면 false
+     */
+    public boolean remove(long hash) {
+        Node node = root;
+        while (node != null) {
+            int distance = ImageHashUtil.hammingDistance(node.hash, hash);
+            if (distance == 0) {
+                if (node.count == 0) {
+                    return false;
+                }
+                size--;
+                if (--node.count == 0) {
+                    tombstones++;
+                    if (tombstones > nodeCount / 2) {
+                        rebuild();
+                    }
+                }
+                return true;
+            }
+            node = node.children != null ? node.children[distance] : null;
+        }
+        return false;
+    }
+
+    /**
+     * 주어진 해시와 maxDistance 이내인 해시가 있는지 확인
+     */
+    public boolean containsWithin(long hash, int maxDistance) {
+        if (root == null) {
+            return false;
+        }
+
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            int distance = ImageHashUtil.hammingDistance(node.hash, hash);
+            if (distance <= maxDistance && node.count > 0) {
+                return true;
+            }
+            if (node.children == null) {
+                continue;
+            }
+            int from = Math.max(1, distance - maxDistance);
+            int to = Math.min(MAX_DISTANCE, distance + maxDistance);
+            for (int d = from; d <= to; d++) {
+                Node child = node.children[d];
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 저장된 해시 수 (중복 포함)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * tombstone 노드를 제외하고 트리 재구성
+     */
+    private void rebuild() {
+        Node oldRoot = root;
+        root = null;
+        size = 0;
+        nodeCount = 0;
+        tombstones = 0;
+
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        if (oldRoot != null) {
+            stack.push(oldRoot);
+        }
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            for (int i = 0; i < node.count; i++) {
+                add(node.hash);
+            }
+            if (node.children != null) {
+                for (Node child : node.children) {
+                    if (child != null) {
+                        stack.push(child);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package com.example.gpt_test.util;
 
-import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
-import java.awt.*;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -17,120 +32,420 @@ import java.util.List;
 @Component
 public class ImageHashUtil {
     
-    private static final int HASH_SIZE = 8; // 8x8 그리드로 pHash 생성
+    private static final int HASH_SIZE = 8; // 8x8 저주파 DCT 계수로 pHash 생성
+    
+    private static final int DCT_SIZE = 32; // DCT를 적용할 32x32 블록
+    
+    private static final int HASH_BITS = HASH_SIZE * HASH_SIZE; // 64비트 해시
+    
+    private static final int DECODE_MIN_EDGE = 256; // 서브샘플링 디코딩 후 짧은 변의 최소 길이 (32x32 구역당 8x8 픽셀 이상)
+    
+    /**
+     * 중복으로 판단하는 기본 Hamming distance (64비트 중 3비트 이하 차이 = 유사도 95% 이상)
+     */
+    public static final int DEFAULT_DUPLICATE_DISTANCE = 3;
+    
+    /**
+     * DCT-II 코사인 테이블 (정규화 계수 포함, 해시에 필요한 저주파 8개만)
+     * COS_TABLE[u * DCT_SIZE + x] = c(u) * cos((2x + 1) * u * PI / (2 * N))
+     */
+    private static final double[] COS_TABLE = createCosTable();
+    
+    private static double[] createCosTable() {
+        double[] table = new double[HASH_SIZE * DCT_SIZE];
+        for (int u = 0; u < HASH_SIZE; u++) {
+            double scale = u == 0 ? Math.sqrt(1.0 / DCT_SIZE) : Math.sqrt(2.0 / DCT_SIZE);
+            for (int x = 0; x < DCT_SIZE; x++) {
+                table[u * DCT_SIZE + x] = scale * Math.cos((2 * x + 1) * u * Math.PI / (2.0 * DCT_SIZE));
+            }
+        }
+        return table;
+    }
     
     /**
-     * MultipartFile로부터 pHash 값을 생성
+     * MultipartFile로부터 pHash 값을 생성 (16자리 16진수 문자열)
      */
     public String generatePHash(MultipartFile file) throws IOException {
+        return toHex(computePHash(file));
+    }
+    
+    /**
+     * MultipartFile로부터 64비트 pHash 값을 생성
+     */
+    public long computePHash(MultipartFile file) throws IOException {
         try (InputStream inputStream = file.getInputStream()) {
-            BufferedImage image = ImageIO.read(inputStream);
+            BufferedImage image = decodeForHash(inputStream);
             if (image == null) {
                 throw new IOException("이미지 파일을 읽을 수 없습니다: " + file.getOriginalFilename());
             }
             
-            return generatePHash(image);
+            return computePHash(image);
+        }
+    }
+    
+    /**
+     * 수집된 업로드 버퍼로부터 64비트 pHash 값을 생성 (버퍼를 다시 읽거나 복사하지 않음)
+     */
+    public long computePHash(IngestedImage image) throws IOException {
+        BufferedImage decoded = decodeForHash(image.openStream());
+        if (decoded == null) {
+            throw new IOException("이미지 파일을 읽을 수 없습니다: " + image.getOriginalFilename());
+        }
+        
+        return computePHash(decoded);
+    }
+    
+    /**
+     * 해시 계산용 디코딩 (서브샘플링 모드)
+     * 헤더에서 크기만 먼저 읽고, 짧은 변이 DECODE_MIN_EDGE 이상 남는 범위에서 픽셀을 건너뛰며 디코딩
+     * ImageIO 디스크 캐시 대신 메모리 캐시 스트림을 사용
+     * @return 디코딩된 이미지, 지원하지 않는 형식이면 null
+     */
+    public BufferedImage decodeForHash(InputStream inputStream) throws IOException {
+        try (ImageInputStream imageInput = new MemoryCacheImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.min(width, height) / DECODE_MIN_EDGE);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
         }
     }
     
     /**
-     * BufferedImage로부터 pHash 값을 생성
-     * 간단한 pHash 알고리즘 구현
+     * BufferedImage로부터 pHash 값을 생성 (16자리 16진수 문자열)
      */
     public String generatePHash(BufferedImage image) {
-        // 1. 이미지를 32x32로 리사이즈 (DCT를 위해)
-        BufferedImage resized = resizeImage(image, 32, 32);
+        return toHex(computePHash(image));
+    }
+    
+    /**
+     * 스레드별로 재사용하는 해시 계산 작업 공간 (이미지마다 배열을 새로 만들지 않음)
+     */
+    private static final class HashWorkspace {
+        private final double[] sums = new double[DCT_SIZE * DCT_SIZE];   // 32x32 구역별 밝기 합
+        private final double[] pixels = new double[DCT_SIZE * DCT_SIZE]; // 32x32 구역별 평균 밝기
+        private final int[] columnCounts = new int[DCT_SIZE];
+        private final int[] rowCounts = new int[DCT_SIZE];
+        private final double[] rows = new double[DCT_SIZE * HASH_SIZE];
+        private final double[] coefficients = new double[HASH_BITS];
+        private final double[] sorted = new double[HASH_BITS];
+        private int[] columnBins = new int[0]; // 원본 x좌표 → 구역 x 인덱스
+        private int[] rowBuffer = new int[0];  // getRGB 폴백용 한 줄 버퍼
+        
+        private int[] columnBins(int width) {
+            if (columnBins.length < width) {
+                columnBins = new int[width];
+            }
+            return columnBins;
+        }
         
-        // 2. 그레이스케일로 변환
-        BufferedImage grayscale = convertToGrayscale(resized);
+        private int[] rowBuffer(int width) {
+            if (rowBuffer.length < width) {
+                rowBuffer = new int[width];
+            }
+            return rowBuffer;
+        }
+    }
+    
+    private static final ThreadLocal<HashWorkspace> WORKSPACE = ThreadLocal.withInitial(HashWorkspace::new);
+    
+    /**
+     * BufferedImage로부터 64비트 pHash 값을 생성
+     * 래스터 → 32x32 평균 밝기 (한 번의 순회) → 2D DCT-II → 좌상단 8x8 저주파 계수를 중앙값과 비교
+     */
+    public long computePHash(BufferedImage image) {
+        HashWorkspace workspace = WORKSPACE.get();
         
-        // 3. DCT (Discrete Cosine Transform) 적용 - 간단한 버전
-        double[][] dctMatrix = applySimpleDCT(grayscale);
+        // 1. 원본 래스터를 한 번 순회하며 32x32 구역별 평균 밝기 계산 (리사이즈 + 그레이스케일)
+        downscaleToLuminance(image, workspace);
         
-        // 4. 8x8 영역의 평균값 계산 (좌상단 8x8 영역 사용)
-        double average = calculateAverage(dctMatrix, HASH_SIZE);
+        // 2. 분리형 2D DCT-II 적용 (저주파 8x8 계수만 계산)
+        applyDCT(workspace.pixels, workspace.rows, workspace.coefficients);
         
-        // 5. 평균보다 큰 값은 1, 작은 값은 0으로 변환하여 해시 생성
-        StringBuilder hash = new StringBuilder();
-        for (int i = 0; i < HASH_SIZE; i++) {
-            for (int j = 0; j < HASH_SIZE; j++) {
-                hash.append(dctMatrix[i][j] > average ? "1" : "0");
+        // 3. 중앙값보다 큰 계수는 1, 작은 계수는 0 (첫 계수가 최상위 비트)
+        double[] coefficients = workspace.coefficients;
+        double median = calculateMedian(coefficients, workspace.sorted);
+        long hash = 0L;
+        for (int i = 0; i < HASH_BITS; i++) {
+            hash <<= 1;
+            if (coefficients[i] > median) {
+                hash |= 1L;
             }
         }
         
-        // 6. 이진 문자열을 16진수로 변환
-        return binaryToHex(hash.toString());
+        return hash;
     }
     
     /**
-     * 이미지 리사이즈
+     * 원본 이미지를 32x32 구역으로 나누어 구역별 평균 밝기(Rec.601)를 workspace.pixels에 기록
+     * DataBufferInt / DataBufferByte 래스터는 배열을 직접 읽고, 그 외 형식은 getRGB 한 줄 단위로 읽음
+     * 알파가 있으면 검은 배경에 합성한 밝기로 계산
      */
-    private BufferedImage resizeImage(BufferedImage original, int width, int height) {
-        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = resized.createGraphics();
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2d.drawImage(original, 0, 0, width, height, null);
-        g2d.dispose();
-        return resized;
+    private void downscaleToLuminance(BufferedImage image, HashWorkspace workspace) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] sums = workspace.sums;
+        int[] columnBins = workspace.columnBins(width);
+        int[] columnCounts = workspace.columnCounts;
+        int[] rowCounts = workspace.rowCounts;
+        
+        Arrays.fill(sums, 0);
+        Arrays.fill(columnCounts, 0);
+        Arrays.fill(rowCounts, 0);
+        for (int x = 0; x < width; x++) {
+            int bin = (int) ((long) x * DCT_SIZE / width);
+            columnBins[x] = bin;
+            columnCounts[bin]++;
+        }
+        for (int y = 0; y < height; y++) {
+            rowCounts[(int) ((long) y * DCT_SIZE / height)]++;
+        }
+        
+        WritableRaster raster = image.getRaster();
+        DataBuffer buffer = raster.getDataBuffer();
+        SampleModel sampleModel = raster.getSampleModel();
+        ColorModel colorModel = image.getColorModel();
+        boolean directAccess = raster.getSampleModelTranslateX() == 0
+                && raster.getSampleModelTranslateY() == 0
+                && buffer.getNumBanks() == 1
+                && !colorModel.isAlphaPremultiplied();
+        
+        if (directAccess && buffer instanceof DataBufferInt
+                && sampleModel instanceof SinglePixelPackedSampleModel
+                && colorModel instanceof DirectColorModel
+                && isEightBitMask(((DirectColorModel) colorModel).getRedMask())
+                && isEightBitMask(((DirectColorModel) colorModel).getGreenMask())
+                && isEightBitMask(((DirectColorModel) colorModel).getBlueMask())) {
+            accumulatePackedInt(image, (DataBufferInt) buffer, (SinglePixelPackedSampleModel) sampleModel,
+                    (DirectColorModel) colorModel, columnBins, sums);
+        } else if (directAccess && buffer instanceof DataBufferByte
+                && sampleModel instanceof ComponentSampleModel
+                && colorModel instanceof ComponentColorModel
+                && (colorModel.getColorSpace().getType() == ColorSpace.TYPE_RGB
+                    || colorModel.getColorSpace().getType() == ColorSpace.TYPE_GRAY)) {
+            accumulateInterleavedByte(image, (DataBufferByte) buffer, (ComponentSampleModel) sampleModel,
+                    colorModel, columnBins, sums);
+        } else {
+            accumulateRgbRows(image, workspace.rowBuffer(width), columnBins, sums);
+        }
+        
+        // 원본이 32px보다 작은 방향은 비어 있는 구역이 생기므로 직전 구역 값을 사용 (최근접 확대)
+        double[] pixels = workspace.pixels;
+        int sourceRow = 0;
+        for (int by = 0; by < DCT_SIZE; by++) {
+            if (rowCounts[by] > 0) {
+                sourceRow = by;
+            }
+            int sourceColumn = 0;
+            for (int bx = 0; bx < DCT_SIZE; bx++) {
+                if (columnCounts[bx] > 0) {
+                    sourceColumn = bx;
+                }
+                pixels[by * DCT_SIZE + bx] = sums[sourceRow * DCT_SIZE + sourceColumn]
+                        / ((double) rowCounts[sourceRow] * columnCounts[sourceColumn]);
+            }
+        }
     }
     
     /**
-     * 그레이스케일로 변환
+     * TYPE_INT_RGB / TYPE_INT_ARGB / TYPE_INT_BGR 등 int 한 개에 한 픽셀이 패킹된 래스터
      */
-    private BufferedImage convertToGrayscale(BufferedImage original) {
-        BufferedImage grayscale = new BufferedImage(original.getWidth(), original.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
-        Graphics2D g2d = grayscale.createGraphics();
-        g2d.drawImage(original, 0, 0, null);
-        g2d.dispose();
-        return grayscale;
+    private void accumulatePackedInt(BufferedImage image, DataBufferInt buffer, SinglePixelPackedSampleModel sampleModel,
+                                     DirectColorModel colorModel, int[] columnBins, double[] sums) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] data = buffer.getData();
+        int offset = buffer.getOffset();
+        int scanlineStride = sampleModel.getScanlineStride();
+        int redShift = Integer.numberOfTrailingZeros(colorModel.getRedMask());
+        int greenShift = Integer.numberOfTrailingZeros(colorModel.getGreenMask());
+        int blueShift = Integer.numberOfTrailingZeros(colorModel.getBlueMask());
+        boolean hasAlpha = colorModel.hasAlpha() && isEightBitMask(colorModel.getAlphaMask());
+        int alphaShift = hasAlpha ? Integer.numberOfTrailingZeros(colorModel.getAlphaMask()) : 0;
+        
+        for (int y = 0; y < height; y++) {
+            int rowStart = offset + y * scanlineStride;
+            int binRow = (int) ((long) y * DCT_SIZE / height) * DCT_SIZE;
+            for (int x = 0; x < width; x++) {
+                int pixel = data[rowStart + x];
+                double luminance = luminance((pixel >>> redShift) & 0xff, (pixel >>> greenShift) & 0xff, (pixel >>> blueShift) & 0xff);
+                if (hasAlpha) {
+                    luminance = luminance * ((pixel >>> alphaShift) & 0xff) / 255.0;
+                }
+                sums[binRow + columnBins[x]] += luminance;
+            }
+        }
     }
     
     /**
-     * 간단한 DCT 적용 (실제로는 평균 기반 해시)
+     * TYPE_3BYTE_BGR / TYPE_4BYTE_ABGR / TYPE_BYTE_GRAY 등 바이트 단위로 컴포넌트가 저장된 래스터
      */
-    private double[][] applySimpleDCT(BufferedImage image) {
+    private void accumulateInterleavedByte(BufferedImage image, DataBufferByte buffer, ComponentSampleModel sampleModel,
+                                           ColorModel colorModel, int[] columnBins, double[] sums) {
         int width = image.getWidth();
         int height = image.getHeight();
-        double[][] matrix = new double[height][width];
+        byte[] data = buffer.getData();
+        int offset = buffer.getOffset();
+        int pixelStride = sampleModel.getPixelStride();
+        int scanlineStride = sampleModel.getScanlineStride();
+        int[] bandOffsets = sampleModel.getBandOffsets();
+        boolean gray = colorModel.getNumColorComponents() == 1;
+        int redOffset = bandOffsets[0];
+        int greenOffset = gray ? redOffset : bandOffsets[1];
+        int blueOffset = gray ? redOffset : bandOffsets[2];
+        boolean hasAlpha = colorModel.hasAlpha();
+        int alphaOffset = hasAlpha ? bandOffsets[colorModel.getNumColorComponents()] : 0;
         
-        // 픽셀 값을 matrix에 저장
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                Color color = new Color(image.getRGB(j, i));
-                matrix[i][j] = color.getRed(); // 그레이스케일이므로 R, G, B 값이 동일
+        for (int y = 0; y < height; y++) {
+            int rowStart = offset + y * scanlineStride;
+            int binRow = (int) ((long) y * DCT_SIZE / height) * DCT_SIZE;
+            for (int x = 0; x < width; x++) {
+                int index = rowStart + x * pixelStride;
+                double luminance = gray
+                        ? data[index + redOffset] & 0xff
+                        : luminance(data[index + redOffset] & 0xff, data[index + greenOffset] & 0xff, data[index + blueOffset] & 0xff);
+                if (hasAlpha) {
+                    luminance = luminance * (data[index + alphaOffset] & 0xff) / 255.0;
+                }
+                sums[binRow + columnBins[x]] += luminance;
             }
         }
+    }
+    
+    /**
+     * 그 외 형식 (인덱스 컬러, 16비트 등): getRGB로 한 줄씩 읽어 재사용 버퍼에 담음
+     */
+    private void accumulateRgbRows(BufferedImage image, int[] rowBuffer, int[] columnBins, double[] sums) {
+        int width = image.getWidth();
+        int height = image.getHeight();
         
-        return matrix;
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, rowBuffer, 0, width);
+            int binRow = (int) ((long) y * DCT_SIZE / height) * DCT_SIZE;
+            for (int x = 0; x < width; x++) {
+                int argb = rowBuffer[x];
+                double luminance = luminance((argb >>> 16) & 0xff, (argb >>> 8) & 0xff, argb & 0xff);
+                sums[binRow + columnBins[x]] += luminance * (argb >>> 24) / 255.0;
+            }
+        }
+    }
+    
+    private static double luminance(int red, int green, int blue) {
+        return 0.299 * red + 0.587 * green + 0.114 * blue;
+    }
+    
+    private static boolean isEightBitMask(int mask) {
+        return mask != 0 && (mask >>> Integer.numberOfTrailingZeros(mask)) == 0xff;
     }
     
     /**
-     * 8x8 영역의 평균값 계산
+     * 분리형 2D DCT-II (행 방향 → 열 방향)
+     * 해시에는 좌상단 8x8 계수만 쓰이므로 각 방향에서 저주파 8개만 계산
+     * @param pixels 32x32 행 우선 픽셀 배열
+     * @param rows 행 방향 변환 결과를 담을 32x8 배열
+     * @param coefficients 8x8 행 우선 DCT 계수를 담을 배열
      */
-    private double calculateAverage(double[][] matrix, int size) {
-        double sum = 0;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                sum += matrix[i][j];
+    private void applyDCT(double[] pixels, double[] rows, double[] coefficients) {
+        // 행 방향 변환: rows[y][u] (32 x 8)
+        for (int y = 0; y < DCT_SIZE; y++) {
+            int rowOffset = y * DCT_SIZE;
+            for (int u = 0; u < HASH_SIZE; u++) {
+                int cosOffset = u * DCT_SIZE;
+                double sum = 0;
+                for (int x = 0; x < DCT_SIZE; x++) {
+                    sum += pixels[rowOffset + x] * COS_TABLE[cosOffset + x];
+                }
+                rows[y * HASH_SIZE + u] = sum;
             }
         }
-        return sum / (size * size);
+        
+        // 열 방향 변환: coefficients[v][u] (8 x 8)
+        for (int v = 0; v < HASH_SIZE; v++) {
+            int cosOffset = v * DCT_SIZE;
+            for (int u = 0; u < HASH_SIZE; u++) {
+                double sum = 0;
+                for (int y = 0; y < DCT_SIZE; y++) {
+                    sum += rows[y * HASH_SIZE + u] * COS_TABLE[cosOffset + y];
+                }
+                coefficients[v * HASH_SIZE + u] = sum;
+            }
+        }
+    }
+    
+    /**
+     * DCT 계수의 중앙값 계산 (sorted는 정렬용 작업 배열)
+     */
+    private double calculateMedian(double[] coefficients, double[] sorted) {
+        System.arraycopy(coefficients, 0, sorted, 0, coefficients.length);
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return (sorted[mid - 1] + sorted[mid]) / 2.0;
+    }
+    
+    /**
+     * 64비트 해시를 16자리 16진수 문자열로 변환 (DB 저장용)
+     */
+    public static String toHex(long hash) {
+        String hex = Long.toHexString(hash);
+        if (hex.length() == 16) {
+            return hex;
+        }
+        StringBuilder padded = new StringBuilder(16);
+        for (int i = hex.length(); i < 16; i++) {
+            padded.append('0');
+        }
+        return padded.append(hex).toString();
+    }
+    
+    /**
+     * 16자리 16진수 해시 문자열을 64비트 값으로 변환
+     * @throws IllegalArgumentException 형식이 올바르지 않은 경우
+     */
+    public static long parseHash(String hex) {
+        if (hex == null || hex.length() != 16) {
+            throw new IllegalArgumentException("올바르지 않은 pHash 형식입니다: " + hex);
+        }
+        return Long.parseUnsignedLong(hex, 16);
     }
     
     /**
-     * 이진 문자열을 16진수로 변환
+     * 해시 문자열 목록을 64비트 배열로 변환 (형식이 맞지 않는 값은 건너뜀)
      */
-    private String binaryToHex(String binary) {
-        StringBuilder hex = new StringBuilder();
-        for (int i = 0; i < binary.length(); i += 4) {
-            String fourBits = binary.substring(i, Math.min(i + 4, binary.length()));
-            while (fourBits.length() < 4) {
-                fourBits += "0"; // 패딩
+    public static long[] parseHashes(List<String> hexHashes) {
+        long[] hashes = new long[hexHashes.size()];
+        int count = 0;
+        for (String hex : hexHashes) {
+            try {
+                long hash = parseHash(hex);
+                hashes[count++] = hash;
+            } catch (IllegalArgumentException e) {
+                // 이전 형식의 해시는 비교 대상에서 제외
             }
-            int decimal = Integer.parseInt(fourBits, 2);
-            hex.append(Integer.toHexString(decimal));
         }
-        return hex.toString();
+        return count == hashes.length ? hashes : Arrays.copyOf(hashes, count);
+    }
+    
+    /**
+     * 두 64비트 해시의 Hamming distance
+     */
+    public static int hammingDistance(long hash1, long hash2) {
+        return Long.bitCount(hash1 ^ hash2);
     }
     
     /**
@@ -145,38 +460,18 @@ public class ImageHashUtil {
             return 1.0;
         }
         
-        // Hamming distance 계산
-        int distance = calculateHammingDistance(hash1, hash2);
-        int maxDistance = Math.max(hash1.length(), hash2.length()) * 4; // 각 hex 문자는 4비트
-        
-        return 1.0 - (double) distance / maxDistance;
+        try {
+            return calculateSimilarity(parseHash(hash1), parseHash(hash2));
+        } catch (IllegalArgumentException e) {
+            return 0.0; // 형식이 다른 해시는 비교 불가
+        }
     }
     
     /**
-     * 두 해시 값의 Hamming distance 계산
+     * 두 64비트 pHash 값의 유사도를 계산 (0.0 ~ 1.0, 1.0이 완전히 동일)
      */
-    private int calculateHammingDistance(String hash1, String hash2) {
-        if (hash1.length() != hash2.length()) {
-            return Math.max(hash1.length(), hash2.length()) * 4;
-        }
-        
-        int distance = 0;
-        for (int i = 0; i < hash1.length(); i++) {
-            char c1 = hash1.charAt(i);
-            char c2 = hash2.charAt(i);
-            
-            if (c1 != c2) {
-                // 16진수 문자를 4비트 이진수로 변환하여 비교
-                int val1 = Character.digit(c1, 16);
-                int val2 = Character.digit(c2, 16);
-                int xor = val1 ^ val2;
-                
-                // 1비트의 개수를 세기
-                distance += Integer.bitCount(xor);
-            }
-        }
-        
-        return distance;
+    public double calculateSimilarity(long hash1, long hash2) {
+        return 1.0 - (double) hammingDistance(hash1, hash2) / HASH_BITS;
     }
     
     /**
@@ -203,6 +498,30 @@ public class ImageHashUtil {
         return findDuplicateHash(newHash, existingHashes, 0.95);
     }
     
+    /**
+     * 64비트 pHash가 기존 해시 배열과 중복되는지 확인 (XOR + popcount 비교)
+     * @param newHash 새로운 해시값
+     * @param existingHashes 기존 해시값 배열
+     * @param length 배열에서 비교할 원소 수
+     * @param maxDistance 중복으로 판단할 최대 Hamming distance
+     * @return 중복되는 해시의 인덱스, 없으면 -1
+     */
+    public int findDuplicateHash(long newHash, long[] existingHashes, int length, int maxDistance) {
+        for (int i = 0; i < length; i++) {
+            if (hammingDistance(newHash, existingHashes[i]) <= maxDistance) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * 기본 Hamming distance(3)로 중복 해시 찾기
+     */
+    public int findDuplicateHash(long newHash, long[] existingHashes, int length) {
+        return findDuplicateHash(newHash, existingHashes, length, DEFAULT_DUPLICATE_DISTANCE);
+    }
+    
     /**
      * 이미지 파일이 유효한지 검사
      */
@@ -223,4 +542,21 @@ public class ImageHashUtil {
                 contentType.equals("image/gif") || 
                 contentType.equals("image/webp"));
     }
+    
+    /**
+     * 수집된 업로드가 유효한 이미지인지 검사
+     * 클라이언트가 보낸 Content-Type이 아니라 매직 바이트로 판별한 실제 형식(JPEG, PNG, GIF, WebP)으로 판단
+     */
+    public boolean isValidImageFile(IngestedImage image) {
+        if (image == null || image.isEmpty()) {
+            return false;
+        }
+        
+        String contentType = image.getDeclaredContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return false;
+        }
+        
+        return image.getFormat() != null;
+    }
 }
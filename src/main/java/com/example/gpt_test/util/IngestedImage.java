@@ -0,0 +1,144 @@
+package com.example.gpt_test.util;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+
+/**
+ * 업로드 이미지 수집 컨텍스트
+ * MultipartFile을 한 번만 읽어 바이트 버퍼로 보관하고, 검증(매직 바이트) / pHash 디코딩 / Cloudinary 업로드가 같은 버퍼를 공유
+ * 읽는 동안 SHA-256 콘텐츠 해시를 함께 계산 (정확히 같은 파일의 재업로드를 디코딩 전에 걸러내기 위함)
+ */
+public class IngestedImage {
+
+    /**
+     * 매직 바이트로 판별한 실제 이미지 형식
+     */
+    public enum ImageFormat {
+        JPEG("image/jpeg"),
+        PNG("image/png"),
+        GIF("image/gif"),
+        WEBP("image/webp");
+
+        private final String contentType;
+
+        ImageFormat(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private final String originalFilename;
+    private final String declaredContentType;
+    private final byte[] bytes;
+    private final ImageFormat format;
+    private final String contentHash;
+
+    private IngestedImage(String originalFilename, String declaredContentType, byte[] bytes, String contentHash) {
+        this.originalFilename = originalFilename;
+        this.declaredContentType = declaredContentType;
+        this.bytes = bytes;
+        this.format = detectFormat(bytes);
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * MultipartFile을 한 번 읽어 수집 컨텍스트 생성 (읽는 동안 SHA-256 계산)
+     */
+    public static IngestedImage from(MultipartFile file) throws IOException {
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+            byte[] bytes = inputStream.readAllBytes();
+            return new IngestedImage(file.getOriginalFilename(), file.getContentType(), bytes, Hex.encodeHexString(digest.digest()));
+        }
+    }
+
+    /**
+     * 매직 바이트로 이미지 형식 판별
+     * @return 판별된 형식, 지원하지 않는 형식이면 null
+     */
+    private static ImageFormat detectFormat(byte[] data) {
+        if (startsWith(data, 0, 0xFF, 0xD8, 0xFF)) {
+            return ImageFormat.JPEG;
+        }
+        if (startsWith(data, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return ImageFormat.PNG;
+        }
+        if (startsWith(data, 0, 'G', 'I', 'F', '8') && (startsWith(data, 4, '7', 'a') || startsWith(data, 4, '9', 'a'))) {
+            return ImageFormat.GIF;
+        }
+        if (startsWith(data, 0, 'R', 'I', 'F', 'F') && startsWith(data, 8, 'W', 'E', 'B', 'P')) {
+            return ImageFormat.WEBP;
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, int... signature) {
+        if (data.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((data[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 버퍼를 복사하지 않고 읽는 스트림
+     */
+    public InputStream openStream() {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * 원본 바이트 (복사본이 아니므로 수정하지 말 것)
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public long getSize() {
+        return bytes.length;
+    }
+
+    public boolean isEmpty() {
+        return bytes.length == 0;
+    }
+
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    public String getDeclaredContentType() {
+        return declaredContentType;
+    }
+
+    public ImageFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * SHA-256 콘텐츠 해시 (64자리 16진수)
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * 실제 형식 기준 Content-Type (판별 불가 시 클라이언트가 보낸 값)
+     */
+    public String getContentType() {
+        return format != null ? format.getContentType() : declaredContentType;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.gpt_test.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * 64비트 pHash용 멀티 인덱스 해싱 (band partitioning)
+ * 해시를 m개의 겹치지 않는 band로 나누고 band마다 해시 테이블을 둠
+ * Hamming distance가 m 미만이면 비둘기집 원리에 의해 최소 한 band는 완전히 일치하므로,
+ * band 테이블에서 나온 후보만 popcount로 검증하면 됨
+ * 스레드 안전하지 않으므로 호출 측에서 동기화해야 함
+ */
+public class MultiIndexHash {
+
+    private final int bands;
+    private final int bandBits;
+    private final long bandMask;
+    private final List<HashMap<Integer, Bucket>> tables;
+    private int size;
+
+    /**
+     * 검색 결과 (이미지 ID, 해시, 거리)
+     */
+    public static class Match {
+        private final long id;
+        private final long hash;
+        private final int distance;
+
+        public Match(long id, long hash, int distance) {
+            this.id = id;
+            this.hash = hash;
+            this.distance = distance;
+        }
+
+        public long getId() { return id; }
+        public long getHash() { return hash; }
+        public int getDistance() { return distance; }
+    }
+
+    /**
+     * band 하나의 버킷 ((hash, id) 쌍을 연속 배열로 저장)
+     */
+    private static class Bucket {
+        private long[] entries = new long[4];
+        private int length;
+
+        private void add(long hash, long id) {
+            if (length + 2 > entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[length++] = hash;
+            entries[length++] = id;
+        }
+
+        private boolean remove(long hash, long id) {
+            for (int i = 0; i < length; i += 2) {
+                if (entries[i] == hash && entries[i + 1] == id) {
+                    // 마지막 쌍으로 덮어쓰기
+                    entries[i] = entries[length - 2];
+                    entries[i + 1] = entries[length - 1];
+                    length -= 2;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param bands band 수 (2, 4, 8, 16 중 하나), 검색 가능한 최대 거리는 bands - 1
+     */
+    public MultiIndexHash(int bands) {
+        if (bands < 2 || bands > 16 || Integer.bitCount(bands) != 1) {
+            throw new IllegalArgumentException("band 수는 2, 4, 8, 16 중 하나여야 합니다: " + bands);
+        }
+        this.bands = bands;
+        this.bandBits = 64 / bands;
+        this.bandMask = (1L << bandBits) - 1;
+        this.tables = new ArrayList<>(bands);
+        for (int i = 0; i < bands; i++) {
+            tables.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * 해시 추가
+     */
+    public void add(long hash, long id) {
+        for (int band = 0; band < bands; band++) {
+            tables.get(band).computeIfAbsent(bandKey(hash, band), key -> new Bucket()).add(hash, id);
+        }
+        size++;
+    }
+
+    /**
+     * 해시 제거
+     * @return 제거되었으면 true
+     */
+    public boolean remove(long hash, long id) {
+        boolean removed = false;
+        for (int band = 0; band < bands; band++) {
+            HashMap<Integer, Bucket> table = tables.get(band);
+            int key = bandKey(hash, band);
+            Bucket bucket = table.get(key);
+            if (bucket != null && bucket.remove(hash, id)) {
+                removed = true;
+                if (bucket.length == 0) {
+                    table.remove(key);
+                }
+            }
+        }
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * maxDistance 이내의 모든 해시를 거리 오름차순으로 반환
+     * @throws IllegalArgumentException maxDistance가 bands - 1보다 큰 경우 (비둘기집 원리 보장 불가)
+     */
+    public List<Match> findWithin(long hash, int maxDistance) {
+        if (maxDistance >= bands) {
+            throw new IllegalArgumentException("최대 검색 거리는 " + (bands - 1) + "입니다: " + maxDistance);
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (int band = 0; band < bands; band++) {
+            Bucket bucket = tables.get(band).get(bandKey(hash, band));
+            if (bucket == null) {
+                continue;
+            }
+            for (int i = 0; i < bucket.length; i += 2) {
+                long candidate = bucket.entries[i];
+                int distance = ImageHashUtil.hammingDistance(hash, candidate);
+                // 앞선 band에서 이미 일치한 후보는 중복 보고하지 않음
+                if (distance <= maxDistance && firstMatchingBand(hash, candidate) == band) {
+                    matches.add(new Match(bucket.entries[i + 1], candidate, distance));
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::getDistance));
+        return matches;
+    }
+
+    /**
+     * 저장된 해시 수
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 검색 가능한 최대 거리
+     */
+    public int maxSearchDistance() {
+        return bands - 1;
+    }
+
+    private int bandKey(long hash, int band) {
+        return (int) ((hash >>> (band * bandBits)) & bandMask);
+    }
+
+    private int firstMatchingBand(long hash, long candidate) {
+        for (int band = 0; band < bands; band++) {
+            if (bandKey(hash, band) == bandKey(candidate, band)) {
+                return band;
+            }
+        }
+        return -1;
+    }
+}
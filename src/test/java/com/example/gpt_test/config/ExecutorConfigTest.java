@@ -0,0 +1,97 @@
+package com.example.gpt_test.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ExecutorConfigTest {
+
+	@Test
+	void boundedExecutorRunsOnCallerWhenSaturated() throws Exception {
+		ExecutorConfig config = config(false, 1, 1);
+		ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) config.imageAnalysisExecutor();
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			assertThat(executor.getMaxPoolSize()).isEqualTo(1);
+			assertThat(executor.getThreadNamePrefix()).isEqualTo("image-analysis-");
+
+			// 스레드 1개와 큐 1칸을 채운 뒤의 작업은 호출 스레드에서 실행
+			executor.execute(() -> await(release));
+			executor.execute(() -> { });
+			String caller = Thread.currentThread().getName();
+			CompletableFuture<String> overflow = new CompletableFuture<>();
+			executor.execute(() -> overflow.complete(Thread.currentThread().getName()));
+
+			assertThat(overflow.get(1, TimeUnit.SECONDS)).isEqualTo(caller);
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void virtualModeStartsVirtualThreadPerTask() throws Exception {
+		assumeTrue(Runtime.version().feature() >= 21, "가상 스레드는 Java 21 이상에서만 사용 가능");
+		AsyncTaskExecutor executor = config(true, 1, 1).cloudinaryExecutor();
+
+		assertThat(executor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+		CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+		executor.execute(() -> virtual.complete((Boolean) ReflectionTestUtils.invokeMethod(Thread.currentThread(), "isVirtual")));
+		assertThat(virtual.get(1, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void virtualModeKeepsPoolSizeAsConcurrencyLimit() throws Exception {
+		assumeTrue(Runtime.version().feature() >= 21, "가상 스레드는 Java 21 이상에서만 사용 가능");
+		SimpleAsyncTaskExecutor executor = (SimpleAsyncTaskExecutor) config(true, 1, 1).cloudinaryExecutor();
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			assertThat(executor.getConcurrencyLimit()).isEqualTo(1);
+
+			// 한도 1이 차 있으면 다음 작업은 앞 작업이 끝날 때까지 시작되지 않음
+			CountDownLatch started = new CountDownLatch(1);
+			executor.execute(() -> {
+				started.countDown();
+				await(release);
+			});
+			assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+			CompletableFuture<Void> second = CompletableFuture.runAsync(() -> executor.execute(() -> { }));
+			Thread.sleep(200);
+			assertThat(executor.isThrottleActive()).isTrue();
+			assertThat(second).isNotDone();
+
+			release.countDown();
+			second.get(1, TimeUnit.SECONDS);
+		} finally {
+			release.countDown();
+			executor.close();
+		}
+	}
+
+	private static ExecutorConfig config(boolean virtualThreads, int poolSize, int queueCapacity) {
+		ExecutorConfig config = new ExecutorConfig();
+		ReflectionTestUtils.setField(config, "virtualThreadsEnabled", virtualThreads);
+		ReflectionTestUtils.setField(config, "analysisPoolSize", poolSize);
+		ReflectionTestUtils.setField(config, "analysisQueueCapacity", queueCapacity);
+		ReflectionTestUtils.setField(config, "cloudinaryPoolSize", poolSize);
+		ReflectionTestUtils.setField(config, "cloudinaryQueueCapacity", queueCapacity);
+		return config;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
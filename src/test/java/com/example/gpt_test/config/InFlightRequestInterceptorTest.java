@@ -0,0 +1,53 @@
+package com.example.gpt_test.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightRequestInterceptorTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final InFlightRequestInterceptor interceptor = new InFlightRequestInterceptor("openai", meterRegistry);
+	private final MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.POST, URI.create("https://api.example.com/v1"));
+
+	@Test
+	void gaugeCountsRequestWhileExecuting() throws IOException {
+		double[] duringExecution = new double[1];
+		ClientHttpRequestExecution execution = (req, body) -> {
+			duringExecution[0] = inFlight();
+			return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+		};
+
+		ClientHttpResponse response = interceptor.intercept(request, new byte[0], execution);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(duringExecution[0]).isEqualTo(1.0);
+		assertThat(inFlight()).isZero();
+	}
+
+	@Test
+	void gaugeIsDecrementedWhenExecutionFails() {
+		ClientHttpRequestExecution execution = (req, body) -> {
+			throw new IOException("connection reset");
+		};
+
+		assertThatThrownBy(() -> interceptor.intercept(request, new byte[0], execution))
+			.isInstanceOf(IOException.class);
+		assertThat(inFlight()).isZero();
+	}
+
+	private double inFlight() {
+		return meterRegistry.get("http.client.in.flight").tag("client", "openai").gauge().value();
+	}
+}
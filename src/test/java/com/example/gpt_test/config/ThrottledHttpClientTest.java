@@ -0,0 +1,110 @@
+package com.example.gpt_test.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ThrottledHttpClientTest {
+
+	private final HttpClient httpClient = mock(HttpClient.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final HttpRequest request = HttpRequest.newBuilder(URI.create("https://api.example.com/v1")).build();
+	// 전송된 요청마다 테스트에서 직접 완료시키는 응답 future
+	private final List<CompletableFuture<HttpResponse<String>>> sent = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		when(httpClient.sendAsync(any(), any())).thenAnswer(invocation -> {
+			CompletableFuture<HttpResponse<String>> response = new CompletableFuture<>();
+			sent.add(response);
+			return response;
+		});
+	}
+
+	@Test
+	void requestsOverLimitWaitUntilEarlierOnesComplete() throws Exception {
+		ThrottledHttpClient client = new ThrottledHttpClient(httpClient, "openai-async", 2, Duration.ofSeconds(5), meterRegistry);
+
+		CompletableFuture<HttpResponse<String>> first = client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+		client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+		CompletableFuture<HttpResponse<String>> third = client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+
+		assertThat(sent).hasSize(2);
+		assertThat(gauge("http.client.in.flight")).isEqualTo(2.0);
+		assertThat(gauge("http.client.pool.pending")).isEqualTo(1.0);
+		assertThat(gauge("http.client.pool.max")).isEqualTo(2.0);
+
+		HttpResponse<String> ok = response(200);
+		sent.get(0).complete(ok);
+
+		assertThat(first.get(1, TimeUnit.SECONDS)).isSameAs(ok);
+		assertThat(sent).hasSize(3);
+		assertThat(gauge("http.client.pool.pending")).isZero();
+
+		sent.get(1).complete(response(503));
+		sent.get(2).completeExceptionally(new IOException("connection reset"));
+
+		assertThatThrownBy(() -> third.get(1, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+		assertThat(gauge("http.client.in.flight")).isZero();
+		assertThat(timerCount("SUCCESS")).isEqualTo(1);
+		assertThat(timerCount("SERVER_ERROR")).isEqualTo(1);
+		assertThat(timerCount("UNKNOWN")).isEqualTo(1);
+	}
+
+	@Test
+	void waitingRequestFailsAfterAcquireTimeout() {
+		ThrottledHttpClient client = new ThrottledHttpClient(httpClient, "serp-async", 1, Duration.ofMillis(50), meterRegistry);
+
+		client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+		CompletableFuture<HttpResponse<String>> queued = client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+
+		assertThatThrownBy(() -> queued.get(1, TimeUnit.SECONDS))
+			.isInstanceOf(ExecutionException.class)
+			.hasCauseInstanceOf(HttpTimeoutException.class);
+
+		// 시간 초과로 빠진 요청은 앞선 요청이 끝나도 전송되지 않음
+		sent.get(0).complete(response(200));
+		assertThat(sent).hasSize(1);
+		assertThat(meterRegistry.get("http.client.pool.pending").tag("client", "serp-async").gauge().value()).isZero();
+	}
+
+	@Test
+	void rejectsNonPositiveLimit() {
+		assertThatThrownBy(() -> new ThrottledHttpClient(httpClient, "openai-async", 0, Duration.ofSeconds(1), meterRegistry))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private double gauge(String name) {
+		return meterRegistry.get(name).tag("client", "openai-async").gauge().value();
+	}
+
+	private long timerCount(String outcome) {
+		return meterRegistry.get("http.client.async.requests").tag("client", "openai-async").tag("outcome", outcome).timer().count();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static HttpResponse<String> response(int status) {
+		HttpResponse<String> response = mock(HttpResponse.class);
+		when(response.statusCode()).thenReturn(status);
+		return response;
+	}
+}
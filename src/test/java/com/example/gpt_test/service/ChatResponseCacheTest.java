@@ -0,0 +1,53 @@
+package com.example.gpt_test.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatResponseCacheTest {
+
+	@Test
+	void keyNormalizesQuestionText() {
+		String key = ChatResponseCache.key("gpt-test", "What is IVE?", 0.7);
+
+		// 앞뒤/연속 공백, 대소문자, 전각 문자(NFKC) 차이는 같은 키
+		assertThat(ChatResponseCache.key("gpt-test", "  what   is\nive? ", 0.7)).isEqualTo(key);
+		assertThat(ChatResponseCache.key("gpt-test", "Ｗｈａｔ is IVE？", 0.7)).isEqualTo(key);
+	}
+
+	@Test
+	void keyDependsOnModelAndTemperature() {
+		String key = ChatResponseCache.key("gpt-test", "What is IVE?", 0.7);
+
+		assertThat(ChatResponseCache.key("gpt-other", "What is IVE?", 0.7)).isNotEqualTo(key);
+		assertThat(ChatResponseCache.key("gpt-test", "What is IVE?", 0.2)).isNotEqualTo(key);
+		assertThat(ChatResponseCache.key("gpt-test", "What is aespa?", 0.7)).isNotEqualTo(key);
+	}
+
+	@Test
+	void storesAnswersButIgnoresNull() {
+		ChatResponseCache cache = new ChatResponseCache(true, 100, Duration.ofHours(1), new SimpleMeterRegistry());
+
+		cache.put("answered", "IVE는 걸그룹입니다.");
+		cache.put("empty", null);
+
+		assertThat(cache.get("answered")).isEqualTo("IVE는 걸그룹입니다.");
+		assertThat(cache.get("empty")).isNull();
+		assertThat(cache.get("missing")).isNull();
+	}
+
+	@Test
+	void registersCacheMetrics() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ChatResponseCache cache = new ChatResponseCache(false, 100, Duration.ofHours(1), meterRegistry);
+
+		cache.get("missing");
+
+		assertThat(cache.isEnabled()).isFalse();
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "chatResponse").tag("result", "miss").functionCounter().count())
+			.isEqualTo(1);
+	}
+}
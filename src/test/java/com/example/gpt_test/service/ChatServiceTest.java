@@ -0,0 +1,220 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.config.ThrottledHttpClient;
+import com.example.gpt_test.dto.ChatRequestDto;
+import com.example.gpt_test.dto.ChatResponseDto;
+import com.example.gpt_test.dto.openai.OpenAiResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatServiceTest {
+
+	private final ThrottledHttpClient httpClient = mock(ThrottledHttpClient.class);
+	private final RestTemplate restTemplate = mock(RestTemplate.class);
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicBoolean cancelled = new AtomicBoolean();
+	private ChatService chatService;
+
+	@BeforeEach
+	void setUp() {
+		chatService = new ChatService(restTemplate, httpClient, objectMapper,
+			new ChatResponseCache(true, 100, Duration.ofHours(1), new SimpleMeterRegistry()));
+		ReflectionTestUtils.setField(chatService, "apiKey", "test-key");
+		ReflectionTestUtils.setField(chatService, "apiUrl", "http://localhost/v1/chat/completions");
+		ReflectionTestUtils.setField(chatService, "defaultModel", "gpt-test");
+		ReflectionTestUtils.setField(chatService, "responseTimeout", Duration.ofSeconds(5));
+	}
+
+	@Test
+	void repeatedQuestionIsAnsweredFromCache() throws Exception {
+		answer("IVE는 6인조 걸그룹입니다.");
+
+		ChatResponseDto first = chatService.getChatResponse(new ChatRequestDto("IVE는 누구야?"));
+		ChatResponseDto second = chatService.getChatResponse(new ChatRequestDto("  ive는   누구야? "));
+
+		assertThat(second.getAnswer()).isEqualTo(first.getAnswer()).isEqualTo("IVE는 6인조 걸그룹입니다.");
+		assertThat(second.getModel()).isEqualTo("gpt-test");
+		verifyExchanges(1);
+	}
+
+	@Test
+	void noCacheRequestAndOtherModelsBypassCache() throws Exception {
+		answer("IVE는 6인조 걸그룹입니다.");
+		chatService.getChatResponse(new ChatRequestDto("IVE는 누구야?"));
+
+		ChatRequestDto noCache = new ChatRequestDto("IVE는 누구야?");
+		noCache.setNoCache(true);
+		chatService.getChatResponse(noCache);
+		chatService.getChatResponse(new ChatRequestDto("IVE는 누구야?", "gpt-other"));
+
+		verifyExchanges(3);
+	}
+
+	@Test
+	void errorResponsesAreNotCached() throws Exception {
+		when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(OpenAiResponseDto.class)))
+			.thenThrow(new IllegalStateException("timeout"))
+			.thenReturn(ResponseEntity.ok(openAiResponse("IVE는 6인조 걸그룹입니다.")));
+
+		ChatResponseDto failed = chatService.getChatResponse(new ChatRequestDto("IVE는 누구야?"));
+		ChatResponseDto retried = chatService.getChatResponse(new ChatRequestDto("IVE는 누구야?"));
+
+		assertThat(failed.getAnswer()).contains("오류가 발생했습니다");
+		assertThat(retried.getAnswer()).isEqualTo("IVE는 6인조 걸그룹입니다.");
+		verifyExchanges(2);
+	}
+
+	@Test
+	void streamForwardsOnlyContentDeltasInOrder() {
+		respond(200,
+			": keep-alive",
+			"data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}",
+			"",
+			"data: {\"choices\":[{\"delta\":{\"content\":\"안녕\"}}]}",
+			"data: not json",
+			"data: {\"choices\":[{\"delta\":{\"content\":\"하세요\"}}]}",
+			"data: {\"choices\":[{\"delta\":{},\"finish_reason\":\"stop\"}]}",
+			"data: [DONE]");
+		List<String> deltas = new ArrayList<>();
+
+		ChatResponseDto response = chatService.streamChatResponse(new ChatRequestDto("인사해줘"), deltas::add).join();
+
+		assertThat(deltas).containsExactly("안녕", "하세요");
+		// 스트리밍 응답은 답변 전체를 모아 두지 않음
+		assertThat(response.getAnswer()).isNull();
+		assertThat(response.getModel()).isEqualTo("gpt-test");
+
+		ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+		verify(httpClient).sendAsync(request.capture(), any());
+		assertThat(request.getValue().headers().firstValue("Accept")).contains("text/event-stream");
+		assertThat(request.getValue().headers().firstValue("Authorization")).contains("Bearer test-key");
+	}
+
+	@Test
+	void streamFailsOnErrorStatusWithoutReadingBody() {
+		respond(429, "data: {\"choices\":[{\"delta\":{\"content\":\"무시\"}}]}");
+		List<String> deltas = new ArrayList<>();
+
+		CompletableFuture<ChatResponseDto> result = chatService.streamChatResponse(new ChatRequestDto("질문"), deltas::add);
+
+		assertThatThrownBy(result::join)
+			.isInstanceOf(CompletionException.class)
+			.hasCauseInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("HTTP 429");
+		assertThat(deltas).isEmpty();
+	}
+
+	@Test
+	void streamStopsReadingWhenDeltaConsumerFails() {
+		respond(200,
+			"data: {\"choices\":[{\"delta\":{\"content\":\"첫\"}}]}",
+			"data: {\"choices\":[{\"delta\":{\"content\":\"둘\"}}]}");
+		List<String> deltas = new ArrayList<>();
+		IllegalStateException disconnected = new IllegalStateException("클라이언트 연결 종료");
+
+		CompletableFuture<ChatResponseDto> result = chatService.streamChatResponse(new ChatRequestDto("질문"), delta -> {
+			deltas.add(delta);
+			throw disconnected;
+		});
+
+		assertThatThrownBy(result::join).hasCause(disconnected);
+		assertThat(deltas).containsExactly("첫");
+		assertThat(cancelled).isTrue();
+	}
+
+	@Test
+	void streamFailsWithSendError() {
+		IOException connectionReset = new IOException("connection reset");
+		when(httpClient.sendAsync(any(HttpRequest.class), any()))
+			.thenReturn(CompletableFuture.failedFuture(new CompletionException(connectionReset)));
+
+		CompletableFuture<ChatResponseDto> result = chatService.streamChatResponse(new ChatRequestDto("질문"), delta -> { });
+
+		assertThatThrownBy(result::join).hasCause(connectionReset);
+	}
+
+	private void answer(String content) throws IOException {
+		when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(OpenAiResponseDto.class)))
+			.thenReturn(ResponseEntity.ok(openAiResponse(content)));
+	}
+
+	private OpenAiResponseDto openAiResponse(String content) throws IOException {
+		return objectMapper.readValue(objectMapper.writeValueAsString(
+			Map.of("choices", List.of(Map.of("message", Map.of("role", "assistant", "content", content))))),
+			OpenAiResponseDto.class);
+	}
+
+	private void verifyExchanges(int count) {
+		verify(restTemplate, times(count)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(OpenAiResponseDto.class));
+	}
+
+	/**
+	 * sendAsync가 주어진 상태 코드로 응답하고, 2xx면 SSE 줄을 BodyHandler가 만든 구독자에 전달하도록 설정
+	 * 구독이 취소되면 남은 줄은 보내지 않음
+	 */
+	@SuppressWarnings("unchecked")
+	private void respond(int status, String... lines) {
+		when(httpClient.sendAsync(any(HttpRequest.class), any())).thenAnswer(invocation -> {
+			HttpResponse.BodyHandler<Object> handler = invocation.getArgument(1);
+			HttpResponse.ResponseInfo responseInfo = mock(HttpResponse.ResponseInfo.class);
+			when(responseInfo.statusCode()).thenReturn(status);
+
+			HttpResponse.BodySubscriber<Object> body = handler.apply(responseInfo);
+			body.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+					cancelled.set(true);
+				}
+			});
+			for (String line : lines) {
+				if (cancelled.get()) {
+					break;
+				}
+				body.onNext(List.of(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8))));
+			}
+			if (!cancelled.get()) {
+				body.onComplete();
+			}
+
+			HttpResponse<Object> response = mock(HttpResponse.class);
+			when(response.statusCode()).thenReturn(status);
+			return CompletableFuture.completedFuture(response);
+		});
+	}
+}
@@ -0,0 +1,159 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.entity.PendingAssetDeletion;
+import com.example.gpt_test.repository.PendingAssetDeletionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CloudinaryDeletionQueueTest {
+
+	private final PendingAssetDeletionRepository repository = mock(PendingAssetDeletionRepository.class);
+	private final CloudinaryImageStore cloudinaryImageStore = mock(CloudinaryImageStore.class);
+	private SimpleMeterRegistry meterRegistry;
+	private CloudinaryDeletionQueue queue;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		// batch-size 2, 최대 4회, 30초부터 두 배씩 최대 1분
+		queue = new CloudinaryDeletionQueue(repository, cloudinaryImageStore,
+			2, 4, Duration.ofSeconds(30), Duration.ofMinutes(1), meterRegistry);
+	}
+
+	@Test
+	void enqueueIgnoresBlankPublicIds() {
+		queue.enqueue(null);
+		queue.enqueue("  ");
+		queue.enqueue("idol_images/a");
+
+		verify(repository, times(1)).save(any(PendingAssetDeletion.class));
+	}
+
+	@Test
+	void completedDeletionsAreRemovedAndFailuresRescheduledWithBackoff() throws Exception {
+		PendingAssetDeletion done = new PendingAssetDeletion("idol_images/done");
+		PendingAssetDeletion fresh = new PendingAssetDeletion("idol_images/fresh");
+		returnBatches(List.of(done, fresh));
+		when(cloudinaryImageStore.deleteAll(anyList())).thenReturn(Set.of("idol_images/done"));
+
+		queue.drain();
+
+		verify(repository).deleteAll(List.of(done));
+		verify(repository).saveAll(List.of(fresh));
+		// 첫 실패는 initial-backoff(30초) 뒤 재시도
+		assertThat(fresh.getAttempts()).isEqualTo(1);
+		assertThat(fresh.getLastError()).isEqualTo("삭제되지 않음");
+		assertThat(fresh.getNextAttemptAt()).isCloseTo(LocalDateTime.now().plusSeconds(30), within(5, ChronoUnit.SECONDS));
+		assertThat(meterRegistry.counter("cloudinary.deletion.deleted").count()).isEqualTo(1);
+		assertThat(meterRegistry.counter("cloudinary.deletion.failures").count()).isEqualTo(1);
+	}
+
+	@Test
+	void backoffDoublesAndIsCappedAtMaxBackoff() throws Exception {
+		PendingAssetDeletion once = failed("idol_images/once", 1);
+		PendingAssetDeletion twice = failed("idol_images/twice", 2);
+		returnBatches(List.of(once, twice));
+		when(cloudinaryImageStore.deleteAll(anyList())).thenReturn(Set.of());
+
+		queue.drain();
+
+		LocalDateTime now = LocalDateTime.now();
+		// 1회 실패: 30초 * 2 = 1분, 2회 실패: 30초 * 4 = 2분이지만 max-backoff 1분으로 제한
+		assertThat(once.getNextAttemptAt()).isCloseTo(now.plusMinutes(1), within(5, ChronoUnit.SECONDS));
+		assertThat(twice.getNextAttemptAt()).isCloseTo(now.plusMinutes(1), within(5, ChronoUnit.SECONDS));
+		assertThat(once.getAttempts()).isEqualTo(2);
+		assertThat(twice.getAttempts()).isEqualTo(3);
+	}
+
+	@Test
+	void deletionIsDroppedAfterMaxAttempts() throws Exception {
+		PendingAssetDeletion exhausted = failed("idol_images/exhausted", 3);
+		returnBatches(List.of(exhausted));
+		when(cloudinaryImageStore.deleteAll(anyList())).thenReturn(Set.of());
+
+		queue.drain();
+
+		verify(repository).deleteAll(List.of(exhausted));
+		verify(repository).saveAll(List.of());
+		assertThat(meterRegistry.counter("cloudinary.deletion.dropped").count()).isEqualTo(1);
+		assertThat(meterRegistry.counter("cloudinary.deletion.failures").count()).isZero();
+	}
+
+	@Test
+	void batchFailureRecordsErrorForEveryItem() throws Exception {
+		PendingAssetDeletion first = new PendingAssetDeletion("idol_images/a");
+		PendingAssetDeletion second = new PendingAssetDeletion("idol_images/b");
+		returnBatches(List.of(first, second));
+		when(cloudinaryImageStore.deleteAll(anyList())).thenThrow(new RuntimeException("rate limited"));
+
+		queue.drain();
+
+		verify(repository).saveAll(List.of(first, second));
+		assertThat(first.getLastError()).isEqualTo("rate limited");
+		assertThat(second.getLastError()).isEqualTo("rate limited");
+		assertThat(meterRegistry.counter("cloudinary.deletion.failures").count()).isEqualTo(2);
+	}
+
+	@Test
+	void drainKeepsFetchingWhileBatchesAreFull() throws Exception {
+		returnBatches(
+			List.of(new PendingAssetDeletion("idol_images/a"), new PendingAssetDeletion("idol_images/b")),
+			List.of(new PendingAssetDeletion("idol_images/c")));
+		when(cloudinaryImageStore.deleteAll(anyList())).thenAnswer(invocation -> Set.copyOf(invocation.<List<String>>getArgument(0)));
+
+		queue.drain();
+
+		// 가득 찬 첫 batch 뒤에 한 번 더 조회하고, 덜 찬 batch에서 멈춤
+		verify(cloudinaryImageStore).deleteAll(List.of("idol_images/a", "idol_images/b"));
+		verify(cloudinaryImageStore).deleteAll(List.of("idol_images/c"));
+		verify(repository, times(2)).findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(any(LocalDateTime.class), any(Pageable.class));
+		assertThat(meterRegistry.counter("cloudinary.deletion.deleted").count()).isEqualTo(3);
+	}
+
+	@Test
+	void emptyQueueDoesNotCallCloudinary() throws Exception {
+		returnBatches(List.of());
+
+		queue.drain();
+
+		verify(cloudinaryImageStore, never()).deleteAll(anyList());
+	}
+
+	/**
+	 * 조회할 때마다 주어진 batch를 차례로 반환하고, 그 뒤로는 빈 목록 반환
+	 */
+	@SafeVarargs
+	private void returnBatches(List<PendingAssetDeletion>... batches) {
+		List<PendingAssetDeletion>[] rest = Arrays.copyOfRange(batches, 1, batches.length + 1);
+		rest[rest.length - 1] = List.of();
+		when(repository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(any(LocalDateTime.class), any(Pageable.class)))
+			.thenReturn(batches[0], rest);
+	}
+
+	private static PendingAssetDeletion failed(String publicId, int attempts) {
+		PendingAssetDeletion deletion = new PendingAssetDeletion(publicId);
+		for (int i = 0; i < attempts; i++) {
+			deletion.recordFailure("이전 실패", LocalDateTime.now());
+		}
+		return deletion;
+	}
+}
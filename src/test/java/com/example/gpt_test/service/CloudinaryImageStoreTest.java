@@ -0,0 +1,27 @@
+package com.example.gpt_test.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CloudinaryImageStoreTest {
+
+	@Test
+	void publicIdIsParsedFromSecureUrl() {
+		assertThat(CloudinaryImageStore.publicIdFromUrl(
+			"https://res.cloudinary.com/demo/image/upload/v1712345678/idol_images/abc123.jpg")).isEqualTo("idol_images/abc123");
+		// 버전 없는 URL, 확장자 없는 URL
+		assertThat(CloudinaryImageStore.publicIdFromUrl(
+			"https://res.cloudinary.com/demo/image/upload/idol_images/abc123.png")).isEqualTo("idol_images/abc123");
+		assertThat(CloudinaryImageStore.publicIdFromUrl(
+			"http://res.cloudinary.com/demo/image/upload/v1/idol_images/abc123")).isEqualTo("idol_images/abc123");
+	}
+
+	@Test
+	void nonCloudinaryUrlsHaveNoPublicId() {
+		assertThat(CloudinaryImageStore.publicIdFromUrl(null)).isNull();
+		assertThat(CloudinaryImageStore.publicIdFromUrl("")).isNull();
+		assertThat(CloudinaryImageStore.publicIdFromUrl("https://example.com/image/upload/idol_images/abc123.jpg")).isNull();
+		assertThat(CloudinaryImageStore.publicIdFromUrl("https://res.cloudinary.com/demo/video/upload/v1/clip.mp4")).isNull();
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.gpt_test.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GoogleLensEvidenceExtractorTest {
+
+	private final GoogleLensEvidenceExtractor extractor = new GoogleLensEvidenceExtractor(new ObjectMapper());
+
+	@Test
+	void extractsTitlesAndQueriesAndSkipsOtherFields() throws Exception {
+		String body = """
+			{
+			  "search_metadata": {"id": "abc", "nested": {"title": "무시"}},
+			  "visual_matches": [
+			    {"position": 1, "title": "IVE Wonyoung airport", "thumbnail": "https://t/1.jpg", "source": {"title": "무시"}},
+			    {"position": 2, "price": {"value": "$10"}, "title": "Wonyoung stage"},
+			    {"position": 3, "title": "   "},
+			    {"position": 4, "title": 42},
+			    "not an object",
+			    {"position": 5}
+			  ],
+			  "related_content": [{"query": "장원영", "link": "https://g"}, {"query": "ive wonyoung"}]
+			}
+			""";
+
+		LensEvidenceCache.LensEvidence evidence = extractor.extract(body.getBytes(StandardCharsets.UTF_8));
+
+		assertThat(evidence.getTitles()).containsExactly("IVE Wonyoung airport", "Wonyoung stage");
+		assertThat(evidence.getQueries()).containsExactly("장원영", "ive wonyoung");
+	}
+
+	@Test
+	void limitsTitlesAndQueriesAndStopsReadingWhenBothAreFull() throws Exception {
+		StringBuilder body = new StringBuilder("{\"visual_matches\": [");
+		for (int i = 0; i < 25; i++) {
+			body.append(i == 0 ? "" : ",").append("{\"title\": \"title ").append(i).append("\"}");
+		}
+		body.append("], \"related_content\": [");
+		for (int i = 0; i < 7; i++) {
+			body.append(i == 0 ? "" : ",").append("{\"query\": \"query ").append(i).append("\"}");
+		}
+		// 두 목록이 가득 찬 뒤의 내용은 읽지 않으므로 잘린 JSON이어도 실패하지 않음
+		body.append("], \"inline_images\": [{\"title\": ");
+
+		LensEvidenceCache.LensEvidence evidence = extractor.extract(
+			new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+
+		assertThat(evidence.getTitles()).hasSize(20).startsWith("title 0").endsWith("title 19");
+		assertThat(evidence.getQueries()).hasSize(5).endsWith("query 4");
+	}
+
+	@Test
+	void missingOrMalformedSectionsYieldEmptyEvidence() throws Exception {
+		LensEvidenceCache.LensEvidence evidence = extractor.extract(
+			"{\"visual_matches\": {\"title\": \"배열 아님\"}, \"error\": null}".getBytes(StandardCharsets.UTF_8));
+
+		assertThat(evidence.isEmpty()).isTrue();
+	}
+
+	@Test
+	void nonObjectResponseIsRejected() {
+		assertThatThrownBy(() -> extractor.extract("[]".getBytes(StandardCharsets.UTF_8)))
+			.isInstanceOf(IOException.class);
+		assertThatThrownBy(() -> extractor.extract(new byte[0]))
+			.isInstanceOf(IOException.class);
+	}
+}
@@ -0,0 +1,44 @@
+package com.example.gpt_test.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GptIdentificationCacheTest {
+
+	private final GptIdentificationCache cache = new GptIdentificationCache(100, Duration.ofHours(1), new SimpleMeterRegistry());
+
+	@Test
+	void keyIgnoresOrderCaseWhitespaceAndDuplicates() {
+		String key = GptIdentificationCache.key(List.of("aespa Karina", "airport"), List.of("karina"), "aespa", "karina");
+
+		assertThat(GptIdentificationCache.key(List.of("  AIRPORT ", "aespa \t karina", "airport"), List.of("Karina", ""), " AESPA", "Karina"))
+			.isEqualTo(key)
+			.hasSize(64);
+	}
+
+	@Test
+	void keySeparatesEvidenceFields() {
+		String asTitle = GptIdentificationCache.key(List.of("karina"), List.of(), "aespa", "karina");
+		String asQuery = GptIdentificationCache.key(List.of(), List.of("karina"), "aespa", "karina");
+		String otherFavorite = GptIdentificationCache.key(List.of("karina"), List.of(), "aespa", "winter");
+		String noFavorite = GptIdentificationCache.key(List.of("karina"), List.of(), null, null);
+
+		assertThat(List.of(asTitle, asQuery, otherFavorite, noFavorite)).doesNotHaveDuplicates();
+	}
+
+	@Test
+	void storesOnlyVerdictAnswers() {
+		cache.put("verdict", "{\"name\": \"karina\", \"is_match\": true}");
+		cache.put("error", "죄송합니다. GPT API 호출 중 오류가 발생했습니다");
+		cache.put("null", null);
+
+		assertThat(cache.get("verdict")).contains("\"is_match\"");
+		assertThat(cache.get("error")).isNull();
+		assertThat(cache.get("null")).isNull();
+	}
+}
@@ -0,0 +1,60 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.entity.IdolImage;
+import com.example.gpt_test.repository.IdolImageRepository;
+import com.example.gpt_test.util.MultiIndexHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GroupHashIndexServiceTest {
+
+	@Test
+	void rejectsReuseDistanceTheBandsCannotGuarantee() {
+		assertThatThrownBy(() -> new GroupHashIndexService(4, 4))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("idol.reuse.max-distance");
+		// 유사 이미지 검색 기본 거리(3)도 2개 band로는 보장할 수 없음
+		assertThatThrownBy(() -> new GroupHashIndexService(2, 1)).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void acceptsDistancesWithinBands() {
+		assertThat(new GroupHashIndexService(4, 3).size()).isZero();
+		assertThat(new GroupHashIndexService(8, 7).size()).isZero();
+	}
+
+	@Test
+	void loadsVerifiedGroupHashesAndAppliesUpdates() {
+		IdolImageRepository repository = mock(IdolImageRepository.class);
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[]{1L, "0000000000000000"});
+		rows.add(new Object[]{2L, "legacy"});
+		when(repository.findGroupDatabaseHashes()).thenReturn(rows);
+
+		GroupHashIndexService service = new GroupHashIndexService(4, 2);
+		ReflectionTestUtils.setField(service, "idolImageRepository", repository);
+		service.loadIndex();
+		assertThat(service.size()).isEqualTo(1);
+
+		IdolImage image = new IdolImage();
+		image.setId(3L);
+		image.setpHash("0000000000000003");
+		image.setIsInGroupDatabase(true);
+		image.setIsVerified(true);
+		service.add(image);
+
+		assertThat(service.findNearDuplicates(0L, 2)).extracting(MultiIndexHash.Match::getId).containsExactly(1L, 3L);
+		assertThat(service.findNearDuplicates(0L, 1)).extracting(MultiIndexHash.Match::getId).containsExactly(1L);
+
+		service.remove(image);
+		assertThat(service.size()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.dto.ChatResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdentificationBatcherTest {
+
+	private final IdentificationService identificationService = mock(IdentificationService.class);
+	private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+	@BeforeEach
+	void setUp() {
+		scheduler.initialize();
+		// 배치의 각 요청에 titles 첫 값을 답으로 돌려줌
+		when(identificationService.identifyBatchAsync(anyList())).thenAnswer(invocation -> {
+			List<IdentificationService.IdentificationItem> items = invocation.getArgument(0);
+			return CompletableFuture.completedFuture(items.stream()
+				.map(item -> new ChatResponseDto(item.getTitles().get(0)))
+				.toList());
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	void fullBatchIsSentImmediately() {
+		IdentificationBatcher batcher = batcher(Duration.ofMinutes(1), 2);
+
+		CompletableFuture<ChatResponseDto> first = batcher.submit(item("a"));
+		CompletableFuture<ChatResponseDto> second = batcher.submit(item("b"));
+
+		// window(1분)를 기다리지 않고 두 번째 submit 안에서 전송됨
+		assertThat(first.getNow(null).getAnswer()).isEqualTo("a");
+		assertThat(second.getNow(null).getAnswer()).isEqualTo("b");
+		assertThat(sentBatchSizes()).containsExactly(2);
+	}
+
+	@Test
+	void partialBatchIsSentAfterWindow() throws Exception {
+		IdentificationBatcher batcher = batcher(Duration.ofMillis(500), 8);
+
+		long start = System.nanoTime();
+		CompletableFuture<ChatResponseDto> first = batcher.submit(item("a"));
+		CompletableFuture<ChatResponseDto> second = batcher.submit(item("b"));
+
+		assertThat(first).isNotDone();
+		verify(identificationService, never()).identifyBatchAsync(anyList());
+
+		assertThat(first.get(5, TimeUnit.SECONDS).getAnswer()).isEqualTo("a");
+		assertThat(second.get(5, TimeUnit.SECONDS).getAnswer()).isEqualTo("b");
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(450);
+		assertThat(sentBatchSizes()).containsExactly(2);
+	}
+
+	@Test
+	void shutdownSendsPendingRequests() {
+		IdentificationBatcher batcher = batcher(Duration.ofMinutes(1), 8);
+
+		CompletableFuture<ChatResponseDto> pending = batcher.submit(item("a"));
+		batcher.shutdown();
+
+		assertThat(pending.getNow(null).getAnswer()).isEqualTo("a");
+	}
+
+	private IdentificationBatcher batcher(Duration window, int maxBatchSize) {
+		return new IdentificationBatcher(identificationService, scheduler, true, window, maxBatchSize, new SimpleMeterRegistry());
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Integer> sentBatchSizes() {
+		ArgumentCaptor<List<IdentificationService.IdentificationItem>> batches = ArgumentCaptor.forClass(List.class);
+		verify(identificationService, atLeast(0)).identifyBatchAsync(batches.capture());
+		return batches.getAllValues().stream().map(List::size).toList();
+	}
+
+	private static IdentificationService.IdentificationItem item(String title) {
+		return new IdentificationService.IdentificationItem(List.of(title), List.of(), "aespa", "karina");
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.gpt_test.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentificationPromptBuilderTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final IdentificationPromptBuilder builder = new IdentificationPromptBuilder(400, 40, 0.8, meterRegistry);
+
+	@Test
+	void requestSpecificContentComesAfterStablePrefix() {
+		String first = builder.single(new IdentificationService.IdentificationItem(
+			List.of("IVE Wonyoung"), List.of("장원영"), "ive", "wonyoung"));
+		String second = builder.single(new IdentificationService.IdentificationItem(
+			List.of("NewJeans Hanni"), List.of(), "newjeans", null));
+
+		// 선호 정보와 근거는 고정 지시사항 뒤에만 나타남
+		String prefix = first.substring(0, first.indexOf("User's favorite:"));
+		assertThat(prefix).endsWith("no additional text\n\n");
+		assertThat(second).startsWith(prefix);
+		assertThat(prefix).doesNotContain("ive", "IVE", "장원영");
+	}
+
+	@Test
+	void nearDuplicateTitlesAreRemovedAndLongTitlesTruncated() {
+		String longTitle = "Wonyoung " + "x".repeat(100);
+		String prompt = builder.single(new IdentificationService.IdentificationItem(
+			List.of("IVE Wonyoung airport fashion", "  IVE   wonyoung airport fashion! ", "Wonyoung stage", longTitle),
+			List.of(), null, null));
+
+		assertThat(prompt).contains("- IVE Wonyoung airport fashion\n", "- Wonyoung stage\n");
+		assertThat(prompt).doesNotContain("wonyoung airport fashion!");
+		assertThat(prompt).contains("- " + longTitle.substring(0, 40) + "…\n");
+		assertThat(prompt).doesNotContain(longTitle.substring(0, 41));
+		assertThat(prompt).doesNotContain("User's favorite:");
+	}
+
+	@Test
+	void evidenceIsCutToTokenBudgetWithQueriesFirst() {
+		// 예산 10토큰: 한글 query(3토큰+1)를 먼저 넣고 남은 예산만큼 title 추가
+		IdentificationPromptBuilder small = new IdentificationPromptBuilder(10, 120, 0.8, meterRegistry);
+		String prompt = small.single(new IdentificationService.IdentificationItem(
+			List.of("IVE Wonyoung", "NewJeans Hanni", "aespa Karina"), List.of("장원영"), null, null));
+
+		assertThat(prompt).contains("Related queries:\n- 장원영\n", "- IVE Wonyoung\n");
+		assertThat(prompt).doesNotContain("Hanni", "Karina");
+	}
+
+	@Test
+	void batchSharesFavoriteOnceOrRepeatsItPerImage() {
+		IdentificationService.IdentificationItem wonyoung = new IdentificationService.IdentificationItem(
+			List.of("IVE Wonyoung"), List.of(), "ive", "wonyoung");
+		IdentificationService.IdentificationItem yujin = new IdentificationService.IdentificationItem(
+			List.of("IVE Yujin"), List.of(), "ive", "wonyoung");
+		IdentificationService.IdentificationItem hanni = new IdentificationService.IdentificationItem(
+			List.of("NewJeans Hanni"), List.of(), "newjeans", "hanni");
+
+		String shared = builder.batch(List.of(wonyoung, yujin));
+		String separate = builder.batch(List.of(wonyoung, hanni));
+
+		assertThat(shared).containsOnlyOnce("User's favorite:");
+		assertThat(shared.indexOf("User's favorite:")).isLessThan(shared.indexOf("### Image 1"));
+		assertThat(shared).contains("There are 2 images.", "### Image 2\nSearch result titles:\n- IVE Yujin\n");
+		assertThat(separate.indexOf("User's favorite:")).isGreaterThan(separate.indexOf("### Image 1"));
+		assertThat(separate).contains("### Image 2\nUser's favorite:\n- Favorite person: hanni\n- Favorite group: newjeans\n");
+	}
+
+	@Test
+	void promptTokensAreRecordedPerMode() {
+		IdentificationService.IdentificationItem item = new IdentificationService.IdentificationItem(
+			List.of("IVE Wonyoung"), List.of(), null, null);
+
+		builder.single(item);
+		builder.batch(List.of(item, item));
+
+		assertThat(meterRegistry.get("gpt.identification.prompt.tokens").tag("mode", "single").summary().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("gpt.identification.prompt.tokens").tag("mode", "batch").summary().totalAmount()).isPositive();
+	}
+}
@@ -0,0 +1,275 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.dto.ChatRequestDto;
+import com.example.gpt_test.dto.ChatResponseDto;
+import com.example.gpt_test.dto.IdentificationVerdictDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdentificationServiceTest {
+
+	private final ChatService chatService = mock(ChatService.class);
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private IdentificationService service(boolean routingEnabled) {
+		LocalIdentificationScorer localIdentificationScorer = mock(LocalIdentificationScorer.class);
+		return new IdentificationService(chatService,
+			new GptIdentificationCache(100, Duration.ofHours(1), meterRegistry),
+			localIdentificationScorer,
+			new IdentificationPromptBuilder(400, 120, 0.8, meterRegistry),
+			new ObjectMapper(), meterRegistry,
+			true, 150, routingEnabled, "fast-model", 100, "strong-model");
+	}
+
+	@Test
+	void parsesValidVerdict() {
+		IdentificationVerdictDto verdict = service(false).parseVerdict(
+			"{\"name\": \"karina\", \"group_name\": \"aespa\", \"is_match\": true, \"match_reason\": \"same person\"}");
+
+		assertThat(verdict.getName()).isEqualTo("karina");
+		assertThat(verdict.getGroupName()).isEqualTo("aespa");
+		assertThat(verdict.isMatch()).isTrue();
+		assertThat(verdict.getMatchReason()).isEqualTo("same person");
+	}
+
+	@Test
+	void parsesVerdictInsideCodeFence() {
+		IdentificationVerdictDto verdict = service(false).parseVerdict(
+			"```json\n{\"name\": \"winter\", \"group_name\": \"aespa\", \"is_match\": false, \"match_reason\": \"different\"}\n```");
+
+		assertThat(verdict.getName()).isEqualTo("winter");
+		assertThat(verdict.isMatch()).isFalse();
+	}
+
+	@Test
+	void wrongTypedFieldFallsBackToUnknownNonMatch() {
+		IdentificationService service = service(false);
+
+		IdentificationVerdictDto wrongMatch = service.parseVerdict(
+			"{\"name\": \"karina\", \"group_name\": \"aespa\", \"is_match\": \"maybe\", \"match_reason\": \"x\"}");
+		IdentificationVerdictDto wrongName = service.parseVerdict(
+			"{\"name\": {\"first\": \"karina\"}, \"group_name\": \"aespa\", \"is_match\": true, \"match_reason\": \"x\"}");
+
+		assertThat(wrongMatch.getName()).isEqualTo("unknown");
+		assertThat(wrongMatch.isMatch()).isFalse();
+		assertThat(wrongName.getName()).isEqualTo("unknown");
+		assertThat(wrongName.isMatch()).isFalse();
+	}
+
+	@Test
+	void missingFieldsUseUnknownDefaults() {
+		IdentificationVerdictDto verdict = service(false).parseVerdict("{\"is_match\": false}");
+
+		assertThat(verdict.getName()).isEqualTo("unknown");
+		assertThat(verdict.getGroupName()).isEqualTo("unknown");
+		assertThat(service(false).parseVerdict("not json").getName()).isEqualTo("unknown");
+		assertThat(service(false).parseVerdict(null).isMatch()).isFalse();
+	}
+
+	@Test
+	void batchVerdictsAreOrderedByImageIndex() {
+		when(chatService.getChatResponseAsync(any(ChatRequestDto.class), any())).thenReturn(answer(
+			"{\"verdicts\": [" + verdict(2, "winter", false) + ", " + verdict(1, "karina", true) + "]}"));
+
+		List<ChatResponseDto> responses = service(false).identifyBatchAsync(List.of(item("a"), item("b"))).join();
+
+		assertThat(responses).extracting(ChatResponseDto::getAnswer)
+			.allSatisfy(answer -> assertThat(answer).doesNotContain("\"image\""));
+		assertThat(service(false).parseVerdict(responses.get(0).getAnswer()).getName()).isEqualTo("karina");
+		assertThat(service(false).parseVerdict(responses.get(1).getAnswer()).getName()).isEqualTo("winter");
+		verify(chatService, times(1)).getChatResponseAsync(any(ChatRequestDto.class), any());
+	}
+
+	@Test
+	void duplicatedImageIndexFallsBackToPerImageRequests() {
+		when(chatService.getChatResponseAsync(any(ChatRequestDto.class), any()))
+			.thenReturn(answer("{\"verdicts\": [" + verdict(1, "karina", true) + ", " + verdict(1, "winter", false) + "]}"))
+			.thenReturn(answer(verdict(0, "karina", true)))
+			.thenReturn(answer(verdict(0, "winter", false)));
+
+		List<ChatResponseDto> responses = service(false).identifyBatchAsync(List.of(item("a"), item("b"))).join();
+
+		// 배치 1번 + 이미지별 2번
+		verify(chatService, times(3)).getChatResponseAsync(any(ChatRequestDto.class), any());
+		assertThat(responses).hasSize(2).doesNotContainNull();
+	}
+
+	@Test
+	void wrongBatchSizeFallsBackToPerImageRequests() {
+		when(chatService.getChatResponseAsync(any(ChatRequestDto.class), any()))
+			.thenReturn(answer("{\"verdicts\": [" + verdict(1, "karina", true) + "]}"))
+			.thenReturn(answer(verdict(0, "karina", true)));
+
+		service(false).identifyBatchAsync(List.of(item("a"), item("b"))).join();
+
+		verify(chatService, times(3)).getChatResponseAsync(any(ChatRequestDto.class), any());
+	}
+
+	@Test
+	void repeatedEvidenceIsAnsweredFromCache() {
+		when(chatService.getChatResponse(any(ChatRequestDto.class), any())).thenReturn(new ChatResponseDto(verdict(0, "karina", true), "model", 1));
+		IdentificationService service = service(false);
+
+		service.identify(new IdentificationService.IdentificationItem(List.of("aespa karina"), List.of(), "aespa", "karina"));
+		ChatResponseDto cached = service.identify(new IdentificationService.IdentificationItem(List.of(" AESPA  Karina "), List.of(), "aespa", "karina"));
+
+		assertThat(cached.getModel()).isEqualTo("cache");
+		verify(chatService, times(1)).getChatResponse(any(ChatRequestDto.class), any());
+	}
+
+	@Test
+	void batchSkipsCachedItemsAndSendsOneRequestForTheRest() {
+		IdentificationService service = service(false);
+		when(chatService.getChatResponse(any(ChatRequestDto.class), any())).thenReturn(new ChatResponseDto(verdict(0, "karina", true), "model", 1));
+		service.identify(item("a"));
+		when(chatService.getChatResponseAsync(any(ChatRequestDto.class), any())).thenReturn(answer(
+			"{\"verdicts\": [" + verdict(1, "winter", false) + ", " + verdict(2, "giselle", false) + "]}"));
+
+		List<ChatResponseDto> responses = service.identifyBatchAsync(List.of(item("a"), item("b"), item("c"))).join();
+
+		assertThat(responses).extracting(ChatResponseDto::getModel).containsExactly("cache", "model", "model");
+		assertThat(service.parseVerdict(responses.get(2).getAnswer()).getName()).isEqualTo("giselle");
+		verify(chatService, times(1)).getChatResponseAsync(any(ChatRequestDto.class), any());
+	}
+
+	@Test
+	void singlePendingItemUsesSingleVerdictRequest() {
+		when(chatService.getChatResponseAsync(any(ChatRequestDto.class), any())).thenReturn(answer(verdict(0, "karina", true)));
+		ArgumentCaptor<ChatService.CompletionOptions> options = ArgumentCaptor.forClass(ChatService.CompletionOptions.class);
+
+		List<ChatResponseDto> responses = service(false).identifyBatchAsync(List.of(item("a"))).join();
+
+		verify(chatService).getChatResponseAsync(any(ChatRequestDto.class), options.capture());
+		assertThat(options.getValue().getMaxTokens()).isEqualTo(150 + 50);
+		assertThat(responses).hasSize(1);
+	}
+
+	@Test
+	void fastVerdictIsAcceptedWithoutStrongRequest() {
+		when(chatService.getChatResponse(forModel("fast-model"), any())).thenReturn(new ChatResponseDto(verdict(0, "karina", true), "fast-model", 1));
+		ArgumentCaptor<ChatService.CompletionOptions> options = ArgumentCaptor.forClass(ChatService.CompletionOptions.class);
+
+		ChatResponseDto response = service(true).identify(item("a"));
+
+		assertThat(response.getModel()).isEqualTo("fast-model");
+		verify(chatService).getChatResponse(forModel("fast-model"), options.capture());
+		verify(chatService, never()).getChatResponse(forModel("strong-model"), any());
+		// fast 모델은 작은 출력 한도 사용
+		assertThat(options.getValue().getMaxTokens()).isEqualTo(100 + 50);
+		assertThat(routingCount("accepted")).isEqualTo(1);
+		assertThat(routingCount("escalated")).isZero();
+		assertThat(meterRegistry.get("gpt.identification.latency").tag("tier", "fast").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void unknownFastVerdictEscalatesToStrongModel() {
+		IdentificationService service = service(true);
+		when(chatService.getChatResponseAsync(forModel("fast-model"), any())).thenReturn(answer(verdict(0, "unknown", false)));
+		when(chatService.getChatResponseAsync(forModel("strong-model"), any())).thenReturn(answer(verdict(0, "karina", true)));
+
+		ChatResponseDto response = service.identifyAsync(item("a")).join();
+
+		assertThat(service.parseVerdict(response.getAnswer()).getName()).isEqualTo("karina");
+		assertThat(routingCount("escalated")).isEqualTo(1);
+		// strong 모델 판정이 캐시되어 같은 근거는 다시 요청하지 않음
+		assertThat(service.identifyAsync(item("a")).join().getModel()).isEqualTo("cache");
+		verify(chatService, times(1)).getChatResponseAsync(forModel("strong-model"), any());
+	}
+
+	@Test
+	void schemaMismatchEscalatesToStrongModel() {
+		when(chatService.getChatResponse(forModel("fast-model"), any())).thenReturn(new ChatResponseDto(
+			"{\"name\": \"karina\", \"group_name\": \"aespa\", \"is_match\": \"yes\", \"match_reason\": \"reason\"}", "fast-model", 1));
+		when(chatService.getChatResponse(forModel("strong-model"), any())).thenReturn(new ChatResponseDto(verdict(0, "karina", true), "strong-model", 1));
+		ArgumentCaptor<ChatService.CompletionOptions> options = ArgumentCaptor.forClass(ChatService.CompletionOptions.class);
+
+		ChatResponseDto response = service(true).identify(item("a"));
+
+		assertThat(response.getModel()).isEqualTo("strong-model");
+		verify(chatService).getChatResponse(forModel("strong-model"), options.capture());
+		assertThat(options.getValue().getMaxTokens()).isEqualTo(150 + 50);
+		assertThat(routingCount("escalated")).isEqualTo(1);
+		assertThat(routingCount("accepted")).isZero();
+	}
+
+	@Test
+	void batchEscalatesOnlyUnknownVerdicts() {
+		IdentificationService service = service(true);
+		when(chatService.getChatResponseAsync(forModel("fast-model"), any())).thenReturn(answer(
+			"{\"verdicts\": [" + verdict(1, "winter", false) + ", " + verdict(2, "unknown", false) + "]}"));
+		when(chatService.getChatResponseAsync(forModel("strong-model"), any())).thenReturn(answer(verdict(0, "giselle", false)));
+
+		List<ChatResponseDto> responses = service.identifyBatchAsync(List.of(item("a"), item("b"))).join();
+
+		assertThat(responses).extracting(response -> service.parseVerdict(response.getAnswer()).getName())
+			.containsExactly("winter", "giselle");
+		verify(chatService, times(1)).getChatResponseAsync(forModel("strong-model"), any());
+		assertThat(routingCount("accepted")).isEqualTo(1);
+		assertThat(routingCount("escalated")).isEqualTo(1);
+	}
+
+	@Test
+	void malformedFastBatchEscalatesEveryImage() {
+		IdentificationService service = service(true);
+		when(chatService.getChatResponseAsync(forModel("fast-model"), any())).thenReturn(answer("판정할 수 없습니다"));
+		when(chatService.getChatResponseAsync(forModel("strong-model"), any())).thenReturn(answer(verdict(0, "karina", true)));
+
+		List<ChatResponseDto> responses = service.identifyBatchAsync(List.of(item("a"), item("b"), item("c"))).join();
+
+		assertThat(responses).hasSize(3).allSatisfy(response -> assertThat(response.getAnswer()).contains("karina"));
+		// fast 배치 한 번 뒤에 이미지별 strong 요청만 (fast 단건 재요청 없음)
+		verify(chatService, times(1)).getChatResponseAsync(forModel("fast-model"), any());
+		verify(chatService, times(3)).getChatResponseAsync(forModel("strong-model"), any());
+		assertThat(routingCount("escalated")).isEqualTo(3);
+	}
+
+	@Test
+	void disabledRoutingUsesStrongModelOnly() {
+		when(chatService.getChatResponse(any(ChatRequestDto.class), any())).thenReturn(new ChatResponseDto(verdict(0, "unknown", false), "strong-model", 1));
+
+		service(false).identify(item("a"));
+
+		verify(chatService).getChatResponse(forModel("strong-model"), any());
+		verify(chatService, never()).getChatResponse(forModel("fast-model"), any());
+		assertThat(routingCount("accepted") + routingCount("escalated")).isZero();
+	}
+
+	private double routingCount(String outcome) {
+		return meterRegistry.get("gpt.identification.routing").tag("outcome", outcome).counter().count();
+	}
+
+	private static ChatRequestDto forModel(String model) {
+		return argThat(request -> request != null && model.equals(request.getModel()));
+	}
+
+	static IdentificationService.IdentificationItem item(String title) {
+		return new IdentificationService.IdentificationItem(List.of(title), List.of(), "aespa", "karina");
+	}
+
+	/**
+	 * image가 0이면 번호 없는 단건 판정
+	 */
+	static String verdict(int image, String name, boolean match) {
+		String fields = "\"name\": \"" + name + "\", \"group_name\": \"aespa\", \"is_match\": " + match + ", \"match_reason\": \"reason\"";
+		return image == 0 ? "{" + fields + "}" : "{\"image\": " + image + ", " + fields + "}";
+	}
+
+	static CompletableFuture<ChatResponseDto> answer(String answer) {
+		return CompletableFuture.completedFuture(new ChatResponseDto(answer, "model", 1));
+	}
+}
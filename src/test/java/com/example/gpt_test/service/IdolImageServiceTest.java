@@ -0,0 +1,311 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.dto.IdentificationVerdictDto;
+import com.example.gpt_test.dto.IdolUploadResponseDto;
+import com.example.gpt_test.dto.PersonIdentificationResponseDto;
+import com.example.gpt_test.entity.AnalysisSource;
+import com.example.gpt_test.entity.GroupIdol;
+import com.example.gpt_test.entity.IdolImage;
+import com.example.gpt_test.entity.User;
+import com.example.gpt_test.repository.IdolImageRepository;
+import com.example.gpt_test.util.ImageHashUtil;
+import com.example.gpt_test.util.IngestedImage;
+import com.example.gpt_test.util.MultiIndexHash;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdolImageServiceTest {
+
+	@Mock
+	private IdolImageRepository idolImageRepository;
+	@Spy
+	private ImageHashUtil imageHashUtil = new ImageHashUtil();
+	@Mock
+	private ImageAnalysisService imageAnalysisService;
+	@Mock
+	private ProgressService progressService;
+	@Mock
+	private UserService userService;
+	@Mock
+	private GroupIdolService groupIdolService;
+	@Mock
+	private UserHashIndexService userHashIndexService;
+	@Mock
+	private GroupHashIndexService groupHashIndexService;
+	@Mock
+	private IdentificationService identificationService;
+	@Mock
+	private CloudinaryDeletionQueue cloudinaryDeletionQueue;
+
+	@InjectMocks
+	private IdolImageService idolImageService;
+
+	private final GroupIdol groupIdol = new GroupIdol("aespa", "karina");
+	private final List<IdolImage> saved = new ArrayList<>();
+	private MultipartFile[] files;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		ReflectionTestUtils.setField(idolImageService, "reuseEnabled", true);
+		ReflectionTestUtils.setField(idolImageService, "reuseMaxDistance", 2);
+		groupIdol.setId(1L);
+
+		User user = new User();
+		user.setId(7L);
+		SecurityContextHolder.getContext().setAuthentication(
+			new UsernamePasswordAuthenticationToken("tester", null, List.of()));
+		when(userService.findByUsername("tester")).thenReturn(Optional.of(user));
+		when(groupIdolService.findOrCreateGroupIdol("aespa", "karina")).thenReturn(groupIdol);
+		when(idolImageRepository.findFirstByContentHashAndIsInGroupDatabaseTrueAndIsVerifiedTrue(anyString())).thenReturn(Optional.empty());
+		when(groupHashIndexService.findNearDuplicates(anyLong(), anyInt())).thenReturn(List.of());
+		when(idolImageRepository.findByIdolNameAndGroupName(anyString(), anyString())).thenReturn(List.of());
+
+		AtomicLong ids = new AtomicLong(100);
+		when(idolImageRepository.save(any(IdolImage.class))).thenAnswer(invocation -> {
+			IdolImage image = invocation.getArgument(0);
+			image.setId(ids.incrementAndGet());
+			saved.add(image);
+			return image;
+		});
+
+		files = new MultipartFile[]{png("a.png", 0), png("b.png", 1), png("c.png", 2)};
+		// 재사용하지 않은 이미지는 불일치로 분석됨
+		when(imageAnalysisService.identifyPersonFromFileAsync(any(IngestedImage.class), anyString(), anyString()))
+			.thenAnswer(invocation -> CompletableFuture.completedFuture(
+				result("https://staged/" + ((IngestedImage) invocation.getArgument(0)).getOriginalFilename(), false)));
+		when(imageAnalysisService.storeWithReusedAnalysisAsync(any(IngestedImage.class), any(PersonIdentificationResponseDto.class)))
+			.thenAnswer(invocation -> {
+				PersonIdentificationResponseDto reused = invocation.getArgument(1);
+				reused.setImageUrl("https://own/" + ((IngestedImage) invocation.getArgument(0)).getOriginalFilename());
+				return CompletableFuture.completedFuture(reused);
+			});
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void exactReuploadIsRejectedBeforeHashing() throws IOException {
+		when(idolImageRepository.existsByUserAndContentHash(any(User.class), eq(IngestedImage.from(files[1]).getContentHash())))
+			.thenReturn(true);
+
+		IdolUploadResponseDto response = idolImageService.uploadAndAnalyzeIdolImages("karina", "aespa", files, "session");
+
+		assertThat(response.isSuccess()).isFalse();
+		assertThat(response.getMessage()).isEqualTo("2번째 이미지가 이미 내 갤러리에 존재하는 이미지와 동일합니다.");
+		verify(imageHashUtil, never()).computePHash(any(IngestedImage.class));
+		verify(imageAnalysisService, never()).identifyPersonFromFileAsync(any(IngestedImage.class), anyString(), anyString());
+	}
+
+	@Test
+	void identicalFilesInOneUploadAreRejectedBeforeHashing() throws IOException {
+		files[2] = new MockMultipartFile("images", "copy.png", "image/png", files[0].getBytes());
+
+		IdolUploadResponseDto response = idolImageService.uploadAndAnalyzeIdolImages("karina", "aespa", files, "session");
+
+		assertThat(response.isSuccess()).isFalse();
+		assertThat(response.getMessage()).isEqualTo("3번째 이미지가 다른 업로드 이미지와 중복됩니다.");
+		verify(imageHashUtil, never()).computePHash(any(IngestedImage.class));
+	}
+
+	@Test
+	void exactDuplicateReuseStoresOwnUploadAndIsNotAddedToGroupDatabaseAgain() throws IOException {
+		IdolImage source = groupSource(50L, "https://someone-else/source.png");
+		when(idolImageRepository.findFirstByContentHashAndIsInGroupDatabaseTrueAndIsVerifiedTrue(IngestedImage.from(files[0]).getContentHash()))
+			.thenReturn(Optional.of(source));
+		when(identificationService.parseVerdict(source.getGptAnalysis()))
+			.thenReturn(new IdentificationVerdictDto("karina", "aespa", true, "same person"));
+
+		IdolUploadResponseDto response = idolImageService.uploadAndAnalyzeIdolImages("karina", "aespa", files, "session");
+
+		assertThat(response.isSuccess()).isTrue();
+		IdolImage reused = saved.get(0);
+		assertThat(reused.getImageUrl()).isEqualTo("https://own/a.png");
+		assertThat(reused.getAnalysisSource()).isEqualTo(AnalysisSource.REUSED_EXACT_DUPLICATE);
+		assertThat(reused.getReusedFromImageId()).isEqualTo(50L);
+		assertThat(reused.getIsVerified()).isTrue();
+		assertThat(reused.getIsInGroupDatabase()).isFalse();
+		verify(groupIdolService, never()).incrementImageCount(any());
+	}
+
+	@Test
+	void nearDuplicateReuseTakesMatchFromSourceVerdict() {
+		IdolImage source = groupSource(60L, "https://someone-else/near.png");
+		when(groupHashIndexService.findNearDuplicates(anyLong(), eq(2)))
+			.thenReturn(List.of(new MultiIndexHash.Match(60L, 0L, 1)))
+			.thenReturn(List.of());
+		when(idolImageRepository.findById(60L)).thenReturn(Optional.of(source));
+		when(identificationService.parseVerdict(source.getGptAnalysis()))
+			.thenReturn(new IdentificationVerdictDto("winter", "aespa", false, "different person"));
+
+		idolImageService.uploadAndAnalyzeIdolImages("karina", "aespa", files, "session");
+
+		ArgumentCaptor<PersonIdentificationResponseDto> reusedResult = ArgumentCaptor.forClass(PersonIdentificationResponseDto.class);
+		verify(imageAnalysisService).storeWithReusedAnalysisAsync(any(IngestedImage.class), reusedResult.capture());
+		assertThat(reusedResult.getValue().isMatch()).isFalse();
+
+		IdolImage reused = saved.get(0);
+		assertThat(reused.getImageUrl()).isEqualTo("https://own/a.png");
+		assertThat(reused.getAnalysisSource()).isEqualTo(AnalysisSource.REUSED_NEAR_DUPLICATE);
+		assertThat(reused.getIsInGroupDatabase()).isFalse();
+		verify(groupIdolService, never()).incrementImageCount(any());
+	}
+
+	@Test
+	void nearDuplicateMatchIsAddedToGroupDatabaseWithOwnUpload() {
+		IdolImage source = groupSource(60L, "https://someone-else/near.png");
+		when(groupHashIndexService.findNearDuplicates(anyLong(), eq(2)))
+			.thenReturn(List.of(new MultiIndexHash.Match(60L, 0L, 1)))
+			.thenReturn(List.of());
+		when(idolImageRepository.findById(60L)).thenReturn(Optional.of(source));
+		when(identificationService.parseVerdict(source.getGptAnalysis()))
+			.thenReturn(new IdentificationVerdictDto("karina", "aespa", true, "same person"));
+
+		idolImageService.uploadAndAnalyzeIdolImages("karina", "aespa", files, "session");
+
+		IdolImage reused = saved.get(0);
+		assertThat(reused.getImageUrl()).isEqualTo("https://own/a.png");
+		assertThat(reused.getIsInGroupDatabase()).isTrue();
+		verify(groupIdolService).incrementImageCount(groupIdol);
+	}
+
+	@Test
+	void batchModeAnalysesAllNonReusedImagesInOneCall() {
+		ReflectionTestUtils.setField(idolImageService, "batchIdentificationEnabled", true);
+		when(imageAnalysisService.identifyPeopleFromFilesAsync(anyList(), anyString(), anyString()))
+			.thenReturn(CompletableFuture.completedFuture(List.of(
+				result(cloudinaryUrl("a"), true), result("https://staged/b.png", false), result(cloudinaryUrl("c"), true))));
+
+		IdolUploadResponseDto response = idolImageService.uploadAndAnalyzeIdolImages("karina", "aespa", files, "session");
+
+		assertThat(response.isSuccess()).isTrue();
+		verify(imageAnalysisService, times(1)).identifyPeopleFromFilesAsync(anyList(), eq("aespa"), eq("karina"));
+		verify(imageAnalysisService, never()).identifyPersonFromFileAsync(any(IngestedImage.class), anyString(), anyString());
+		assertThat(saved).extracting(IdolImage::getIsInGroupDatabase).containsExactly(true, false, true);
+		assertThat(saved).extracting(IdolImage::getImageUrl).containsExactly(cloudinaryUrl("a"), "https://staged/b.png", cloudinaryUrl("c"));
+	}
+
+	@Test
+	void analysisFailureWaitsForAllImagesAndEnqueuesKeptAssets() {
+		when(imageAnalysisService.identifyPersonFromFileAsync(any(IngestedImage.class), anyString(), anyString()))
+			.thenReturn(CompletableFuture.completedFuture(result(cloudinaryUrl("a"), true)))
+			.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("GPT 응답 없음")))
+			.thenReturn(CompletableFuture.completedFuture(result(cloudinaryUrl("c"), true)));
+
+		IdolUploadResponseDto response = idolImageService.uploadAndAnalyzeIdolImages("karina", "aespa", files, "session");
+
+		assertThat(response.isSuccess()).isFalse();
+		assertThat(response.getMessage()).isEqualTo("2번째 이미지 분석 중 오류가 발생했습니다: GPT 응답 없음");
+		// 실패 전후의 일치 이미지 모두 저장되지 않았으므로 보관된 자산을 삭제 큐에 등록
+		verify(cloudinaryDeletionQueue).enqueue("gpt_test_images/a");
+		verify(cloudinaryDeletionQueue).enqueue("gpt_test_images/c");
+		assertThat(saved).isEmpty();
+	}
+
+	@Test
+	void saveFailureEnqueuesOnlyUnsavedKeptAssets() {
+		when(imageAnalysisService.identifyPersonFromFileAsync(any(IngestedImage.class), anyString(), anyString()))
+			.thenReturn(CompletableFuture.completedFuture(result(cloudinaryUrl("a"), true)))
+			.thenReturn(CompletableFuture.completedFuture(result(cloudinaryUrl("b"), true)))
+			.thenReturn(CompletableFuture.completedFuture(result(cloudinaryUrl("c"), true)));
+		when(idolImageRepository.save(any(IdolImage.class)))
+			.thenAnswer(invocation -> {
+				IdolImage image = invocation.getArgument(0);
+				image.setId(1L);
+				saved.add(image);
+				return image;
+			})
+			.thenThrow(new IllegalStateException("DB 오류"));
+
+		IdolUploadResponseDto response = idolImageService.uploadAndAnalyzeIdolImages("karina", "aespa", files, "session");
+
+		assertThat(response.isSuccess()).isFalse();
+		assertThat(response.getMessage()).isEqualTo("2번째 이미지 저장 중 오류가 발생했습니다: DB 오류");
+		verify(cloudinaryDeletionQueue, never()).enqueue("gpt_test_images/a");
+		verify(cloudinaryDeletionQueue).enqueue("gpt_test_images/b");
+		verify(cloudinaryDeletionQueue).enqueue("gpt_test_images/c");
+		verify(cloudinaryDeletionQueue, times(2)).enqueue(anyString());
+	}
+
+	private static String cloudinaryUrl(String publicId) {
+		return "https://res.cloudinary.com/demo/image/upload/v1700000000/gpt_test_images/" + publicId + ".jpg";
+	}
+
+	private IdolImage groupSource(Long id, String imageUrl) {
+		IdolImage source = new IdolImage("karina", "aespa", imageUrl, "0000000000000000", "source.png", 1L, "image/png", new User(), groupIdol);
+		source.setId(id);
+		source.setGptAnalysis("{\"name\": \"karina\", \"group_name\": \"aespa\", \"is_match\": true, \"match_reason\": \"same person\"}");
+		source.addToGroupDatabase();
+		return source;
+	}
+
+	private static PersonIdentificationResponseDto result(String imageUrl, boolean match) {
+		return new PersonIdentificationResponseDto(imageUrl, new ArrayList<>(), new ArrayList<>(), "{}",
+			"unknown", "unknown", match, match ? "same person" : "different person", 10);
+	}
+
+	/**
+	 * 서로 pHash가 충분히 다른 테스트 이미지 (0: 가로 그라데이션, 1: 세로 줄무늬, 2: 체크무늬)
+	 */
+	static MockMultipartFile png(String name, int pattern) throws IOException {
+		int size = 128;
+		BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				boolean light = switch (pattern) {
+					case 0 -> x < size / 2;
+					case 1 -> (x / 16) % 2 == 0;
+					default -> ((x / 32) + (y / 32)) % 2 == 0;
+				};
+				image.setRGB(x, y, light ? Color.WHITE.getRGB() : Color.BLACK.getRGB());
+			}
+		}
+		graphics.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return new MockMultipartFile("images", name, "image/png", out.toByteArray());
+	}
+}
@@ -0,0 +1,144 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.config.ThrottledHttpClient;
+import com.example.gpt_test.dto.ChatResponseDto;
+import com.example.gpt_test.dto.IdentificationVerdictDto;
+import com.example.gpt_test.dto.PersonIdentificationResponseDto;
+import com.example.gpt_test.util.IngestedImage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ImageAnalysisServiceTest {
+
+	private static final String MATCH = "{\"is_match\": true}";
+	private static final String NO_MATCH = "{\"is_match\": false}";
+
+	private final ThrottledHttpClient httpClient = mock(ThrottledHttpClient.class);
+	private final IdentificationService identificationService = mock(IdentificationService.class);
+	private final IdentificationBatcher identificationBatcher = mock(IdentificationBatcher.class);
+	private final ImageStagingStore imageStagingStore = mock(ImageStagingStore.class);
+	private final LensEvidenceCache lensEvidenceCache =
+		new LensEvidenceCache(100, Duration.ofHours(1), Duration.ofMinutes(1), new SimpleMeterRegistry());
+	private ImageAnalysisService imageAnalysisService;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Executor direct = Runnable::run;
+		imageAnalysisService = new ImageAnalysisService(mock(RestTemplate.class), httpClient, mock(GoogleLensEvidenceExtractor.class),
+			identificationService, identificationBatcher, imageStagingStore, direct, direct, lensEvidenceCache);
+
+		// 근거 title이 "karina"면 일치, 아니면 불일치로 판정
+		when(identificationService.identify(any())).thenAnswer(invocation ->
+			gptAnswer(invocation.getArgument(0)));
+		when(identificationBatcher.submit(any())).thenAnswer(invocation ->
+			CompletableFuture.completedFuture(gptAnswer(invocation.getArgument(0))));
+		when(identificationBatcher.submitAll(anyList())).thenAnswer(invocation -> {
+			List<IdentificationService.IdentificationItem> items = invocation.getArgument(0);
+			List<ChatResponseDto> answers = new ArrayList<>();
+			for (IdentificationService.IdentificationItem item : items) {
+				answers.add(gptAnswer(item));
+			}
+			return CompletableFuture.completedFuture(answers);
+		});
+		when(identificationService.parseVerdict(anyString())).thenAnswer(invocation ->
+			new IdentificationVerdictDto("karina", "aespa", MATCH.equals(invocation.getArgument(0)), "reason"));
+
+		when(imageStagingStore.stage(any())).thenAnswer(invocation ->
+			new ImageStagingStore.StagedImage("https://staged/" + ((IngestedImage) invocation.getArgument(0)).getOriginalFilename(), "handle", null));
+		when(imageStagingStore.keep(any(), any())).thenAnswer(invocation ->
+			((ImageStagingStore.StagedImage) invocation.getArgument(0)).getUrl().replace("staged", "kept"));
+	}
+
+	@Test
+	void cachedNonMatchIsNeverStaged() throws IOException {
+		IngestedImage image = cached(IdolImageServiceTest.png("a.png", 0), "winter");
+
+		PersonIdentificationResponseDto result = imageAnalysisService.identifyPersonFromFile(image, "aespa", "karina");
+
+		assertThat(result.isMatch()).isFalse();
+		assertThat(result.getImageUrl()).isEmpty();
+		verifyNoInteractions(imageStagingStore, httpClient);
+	}
+
+	@Test
+	void cachedMatchIsStagedAndKept() throws IOException {
+		IngestedImage image = cached(IdolImageServiceTest.png("a.png", 0), "karina");
+
+		PersonIdentificationResponseDto result = imageAnalysisService.identifyPersonFromFile(image, "aespa", "karina");
+
+		assertThat(result.isMatch()).isTrue();
+		assertThat(result.getImageUrl()).isEqualTo("https://kept/a.png");
+		verify(imageStagingStore).stage(image);
+		verify(imageStagingStore, never()).discard(any());
+	}
+
+	@Test
+	void asyncCachedNonMatchIsNeverStaged() throws IOException {
+		IngestedImage image = cached(IdolImageServiceTest.png("a.png", 0), "winter");
+
+		PersonIdentificationResponseDto result = imageAnalysisService.identifyPersonFromFileAsync(image, "aespa", "karina").join();
+
+		assertThat(result.isMatch()).isFalse();
+		verify(identificationBatcher).submit(any());
+		verifyNoInteractions(imageStagingStore, httpClient);
+	}
+
+	@Test
+	void batchStagesOnlyCachedMatches() throws IOException {
+		IngestedImage match = cached(IdolImageServiceTest.png("a.png", 0), "karina");
+		IngestedImage nonMatch = cached(IdolImageServiceTest.png("b.png", 1), "winter");
+
+		List<PersonIdentificationResponseDto> results =
+			imageAnalysisService.identifyPeopleFromFilesAsync(List.of(match, nonMatch), "aespa", "karina").join();
+
+		assertThat(results).extracting(PersonIdentificationResponseDto::isMatch).containsExactly(true, false);
+		assertThat(results.get(0).getImageUrl()).isEqualTo("https://kept/a.png");
+		verify(imageStagingStore, times(1)).stage(any());
+		verify(imageStagingStore).stage(match);
+		verifyNoInteractions(httpClient);
+	}
+
+	@Test
+	void reusedNonMatchIsNeverStaged() throws IOException {
+		IngestedImage image = IngestedImage.from(IdolImageServiceTest.png("a.png", 0));
+		PersonIdentificationResponseDto reused = new PersonIdentificationResponseDto(null, new ArrayList<>(), new ArrayList<>(),
+			NO_MATCH, "winter", "aespa", false, "different person", 0);
+
+		PersonIdentificationResponseDto result = imageAnalysisService.storeWithReusedAnalysisAsync(image, reused).join();
+
+		assertThat(result.isMatch()).isFalse();
+		verifyNoInteractions(imageStagingStore);
+	}
+
+	private IngestedImage cached(MockMultipartFile file, String title) throws IOException {
+		IngestedImage image = IngestedImage.from(file);
+		lensEvidenceCache.put(LensEvidenceCache.key(image.getContentHash(), null),
+			new LensEvidenceCache.LensEvidence(List.of(title), List.of()));
+		return image;
+	}
+
+	private static ChatResponseDto gptAnswer(IdentificationService.IdentificationItem item) {
+		return new ChatResponseDto(item.getTitles().contains("karina") ? MATCH : NO_MATCH, "gpt", 1);
+	}
+}
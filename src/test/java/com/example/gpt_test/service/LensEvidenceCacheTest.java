@@ -0,0 +1,58 @@
+package com.example.gpt_test.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LensEvidenceCacheTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void keyPrefersContentHashOverUrl() {
+		assertThat(LensEvidenceCache.key("abc", "https://staged/1.jpg")).isEqualTo("sha256:abc");
+		assertThat(LensEvidenceCache.key("abc", "https://staged/2.jpg")).isEqualTo(LensEvidenceCache.key("abc", null));
+		assertThat(LensEvidenceCache.key(null, "https://staged/1.jpg")).isEqualTo("url:https://staged/1.jpg");
+	}
+
+	@Test
+	void storesEvidenceUntilTtl() throws InterruptedException {
+		LensEvidenceCache cache = new LensEvidenceCache(100, Duration.ofMillis(200), Duration.ofMillis(200), meterRegistry);
+		LensEvidenceCache.LensEvidence evidence = new LensEvidenceCache.LensEvidence(List.of("aespa karina"), List.of("karina"));
+
+		cache.put("sha256:abc", evidence);
+
+		assertThat(cache.get("sha256:abc")).isSameAs(evidence);
+		assertThat(cache.get("sha256:other")).isNull();
+		Thread.sleep(400);
+		assertThat(cache.get("sha256:abc")).isNull();
+	}
+
+	@Test
+	void emptyEvidenceExpiresSooner() throws InterruptedException {
+		LensEvidenceCache cache = new LensEvidenceCache(100, Duration.ofHours(1), Duration.ofMillis(100), meterRegistry);
+		LensEvidenceCache.LensEvidence empty = new LensEvidenceCache.LensEvidence(List.of(), List.of());
+		LensEvidenceCache.LensEvidence found = new LensEvidenceCache.LensEvidence(List.of("aespa"), List.of());
+
+		cache.put("sha256:empty", empty);
+		cache.put("sha256:found", found);
+		Thread.sleep(300);
+
+		assertThat(empty.isEmpty()).isTrue();
+		assertThat(cache.get("sha256:empty")).isNull();
+		assertThat(cache.get("sha256:found")).isSameAs(found);
+	}
+
+	@Test
+	void registersCacheMetrics() {
+		LensEvidenceCache cache = new LensEvidenceCache(100, Duration.ofHours(1), Duration.ofMinutes(10), meterRegistry);
+		cache.get("sha256:missing");
+
+		assertThat(meterRegistry.get("cache.gets").tag("cache", "lensEvidence").tag("result", "miss").functionCounter().count())
+			.isEqualTo(1.0);
+	}
+}
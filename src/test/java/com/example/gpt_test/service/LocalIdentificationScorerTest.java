@@ -0,0 +1,92 @@
+package com.example.gpt_test.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalIdentificationScorerTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private LocalIdentificationScorer scorer;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		scorer = new LocalIdentificationScorer(true, 5, 0.5, new ClassPathResource("idol-aliases.json"), new ObjectMapper(), meterRegistry);
+	}
+
+	@Test
+	void confidentMentionsProduceMatchVerdict() {
+		String verdict = scorer.score(item("aespa", "karina", repeat("aespa karina airport fashion", 5)));
+
+		assertThat(verdict).contains("\"name\": \"karina\"", "\"group_name\": \"aespa\"", "\"is_match\": true");
+		assertThat(meterRegistry.get("gpt.identification.local.bypass").counter().count()).isEqualTo(1.0);
+	}
+
+	@Test
+	void hangulAliasMatchesWithKnownParticleOnly() {
+		assertThat(scorer.score(item("에스파", "카리나", repeat("에스파 카리나의 무대 직캠", 5)))).isNotNull();
+		assertThat(scorer.score(item("에스파", "카리나", repeat("에스파 카리나님 출근길", 5)))).isNotNull();
+		// 조사가 아닌 글자가 붙은 토큰은 다른 단어로 봄
+		assertThat(scorer.score(item("에스파", "카리나", repeat("에스파 카리나스튜디오 신상", 5)))).isNull();
+	}
+
+	@Test
+	void ambiguousAliasCountsOnlyWithGroupMention() {
+		List<String> seasonal = repeat("winter coat outfit ideas", 6);
+		seasonal.add("aespa concert");
+		assertThat(scorer.score(item("aespa", "winter", seasonal))).isNull();
+
+		assertThat(scorer.score(item("aespa", "winter", repeat("aespa winter stage", 5))))
+			.contains("\"name\": \"winter\"");
+		// 가을(계절)도 그룹 없이 언급되면 세지 않음
+		assertThat(scorer.score(item("아이브", "가을", repeat("가을 단풍 여행 코디", 6)))).isNull();
+	}
+
+	@Test
+	void ambiguousRivalWithoutGroupMentionDoesNotBlockMatch() {
+		List<String> evidence = repeat("aespa karina", 5);
+		evidence.addAll(repeat("winter coat sale", 3));
+
+		assertThat(scorer.score(item("aespa", "karina", evidence))).isNotNull();
+	}
+
+	@Test
+	void dominantRivalOrTooFewMentionsDefersToGpt() {
+		List<String> shared = repeat("aespa karina winter", 5);
+		assertThat(scorer.score(item("aespa", "karina", shared))).isNull();
+
+		assertThat(scorer.score(item("aespa", "karina", repeat("aespa karina", 4)))).isNull();
+		assertThat(scorer.score(item("aespa", "karina", repeat("karina", 6)))).isNull();
+	}
+
+	@Test
+	void unknownOrMissingFavoriteIsNotScored() {
+		assertThat(scorer.score(item("aespa", "nobody", repeat("aespa nobody", 6)))).isNull();
+		assertThat(scorer.score(item("aespa", " ", repeat("aespa karina", 6)))).isNull();
+	}
+
+	@Test
+	void disabledScorerNeverDecides() throws IOException {
+		LocalIdentificationScorer disabled =
+			new LocalIdentificationScorer(false, 5, 0.5, new ClassPathResource("idol-aliases.json"), new ObjectMapper(), new SimpleMeterRegistry());
+
+		assertThat(disabled.score(item("aespa", "karina", repeat("aespa karina", 6)))).isNull();
+	}
+
+	private static IdentificationService.IdentificationItem item(String group, String name, List<String> titles) {
+		return new IdentificationService.IdentificationItem(titles, List.of(), group, name);
+	}
+
+	private static List<String> repeat(String line, int times) {
+		return new ArrayList<>(Collections.nCopies(times, line));
+	}
+}
@@ -0,0 +1,118 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.util.IngestedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LocalSignedUrlStagingStoreTest {
+
+	@TempDir
+	Path directory;
+
+	private final CloudinaryImageStore cloudinaryImageStore = mock(CloudinaryImageStore.class);
+	private LocalSignedUrlStagingStore store;
+	private IngestedImage image;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		store = store("secret", Duration.ofMinutes(10));
+		image = IngestedImage.from(IdolImageServiceTest.png("a.png", 0));
+	}
+
+	@Test
+	void stagedUrlIsSignedAndResolvesToFile() throws IOException {
+		ImageStagingStore.StagedImage staged = store.stage(image);
+		UriComponents url = UriComponentsBuilder.fromUriString(staged.getUrl()).build();
+
+		assertThat(url.getPath()).isEqualTo("/api/staging/" + staged.getHandle());
+		assertThat(staged.getHandle()).endsWith(".png");
+		assertThat(staged.getPermanentUrl()).isNull();
+
+		Path file = store.resolve(staged.getHandle(), expires(url), url.getQueryParams().getFirst("signature"));
+		assertThat(file).isNotNull();
+		assertThat(Files.readAllBytes(file)).isEqualTo(image.getBytes());
+		// 서명은 대소문자 구분 없이 비교
+		assertThat(store.resolve(staged.getHandle(), expires(url), url.getQueryParams().getFirst("signature").toUpperCase())).isEqualTo(file);
+	}
+
+	@Test
+	void tamperedOrForeignSignaturesAreRejected() throws IOException {
+		ImageStagingStore.StagedImage staged = store.stage(image);
+		UriComponents url = UriComponentsBuilder.fromUriString(staged.getUrl()).build();
+		String signature = url.getQueryParams().getFirst("signature");
+
+		// 만료 시각을 늘리거나 서명을 바꾸면 무효
+		assertThat(store.resolve(staged.getHandle(), expires(url) + 3600, signature)).isNull();
+		assertThat(store.resolve(staged.getHandle(), expires(url), signature.replace(signature.charAt(0), signature.charAt(0) == 'a' ? 'b' : 'a'))).isNull();
+		assertThat(store.resolve(staged.getHandle(), expires(url), null)).isNull();
+		// 다른 키로 서명한 URL은 무효
+		LocalSignedUrlStagingStore other = store("other-secret", Duration.ofMinutes(10));
+		assertThat(other.resolve(staged.getHandle(), expires(url), signature)).isNull();
+	}
+
+	@Test
+	void expiredUrlIsRejected() throws IOException {
+		LocalSignedUrlStagingStore expiredStore = store("secret", Duration.ofSeconds(-1));
+		ImageStagingStore.StagedImage staged = expiredStore.stage(image);
+		UriComponents url = UriComponentsBuilder.fromUriString(staged.getUrl()).build();
+
+		assertThat(expiredStore.resolve(staged.getHandle(), expires(url), url.getQueryParams().getFirst("signature"))).isNull();
+	}
+
+	@Test
+	void idsOutsideStagingPatternAreRejected() {
+		assertThat(store.resolve("../application.properties", Long.MAX_VALUE, "00")).isNull();
+		assertThat(store.resolve("00000000-0000-0000-0000-000000000000.exe", Long.MAX_VALUE, "00")).isNull();
+	}
+
+	@Test
+	void keepUploadsToCloudinaryAndRemovesLocalFile() throws IOException {
+		ImageStagingStore.StagedImage staged = store.stage(image);
+		when(cloudinaryImageStore.upload(image)).thenReturn(new CloudinaryImageStore.UploadResult("https://res.cloudinary.com/demo/a.jpg", "gpt_test_images/a"));
+
+		assertThat(store.keep(staged, image)).isEqualTo("https://res.cloudinary.com/demo/a.jpg");
+		verify(cloudinaryImageStore).upload(image);
+		assertThat(directory.resolve(staged.getHandle())).doesNotExist();
+	}
+
+	@Test
+	void discardRemovesLocalFileWithoutCloudinary() throws IOException {
+		ImageStagingStore.StagedImage staged = store.stage(image);
+
+		store.discard(staged);
+
+		assertThat(directory.resolve(staged.getHandle())).doesNotExist();
+		verifyNoInteractions(cloudinaryImageStore);
+	}
+
+	@Test
+	void rejectsNonImages() throws IOException {
+		IngestedImage text = IngestedImage.from(new MockMultipartFile("image", "a.txt", "text/plain", "hello".getBytes()));
+
+		assertThatThrownBy(() -> store.stage(text)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private LocalSignedUrlStagingStore store(String secret, Duration ttl) throws IOException {
+		return new LocalSignedUrlStagingStore(cloudinaryImageStore, directory.toString(), "https://app.example.com/", ttl, secret);
+	}
+
+	private static long expires(UriComponents url) {
+		return Long.parseLong(url.getQueryParams().getFirst("expires"));
+	}
+}
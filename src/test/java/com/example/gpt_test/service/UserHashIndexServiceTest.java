@@ -0,0 +1,98 @@
+package com.example.gpt_test.service;
+
+import com.example.gpt_test.entity.IdolImage;
+import com.example.gpt_test.entity.User;
+import com.example.gpt_test.repository.IdolImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserHashIndexServiceTest {
+
+	private IdolImageRepository idolImageRepository;
+	private UserHashIndexService service;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		idolImageRepository = mock(IdolImageRepository.class);
+		service = new UserHashIndexService();
+		ReflectionTestUtils.setField(service, "idolImageRepository", idolImageRepository);
+		user = new User();
+		user.setId(1L);
+	}
+
+	@Test
+	void loadsOnceFromRepositoryAndSkipsMalformedHashes() {
+		when(idolImageRepository.findHashesByUser(any())).thenReturn(rows(
+			new Object[]{10L, "0000000000000007"},
+			new Object[]{11L, "legacy"}));
+
+		assertThat(service.size(user)).isEqualTo(1);
+		assertThat(service.hasNearDuplicate(user, 0L, 3)).isTrue();
+		assertThat(service.hasNearDuplicate(user, 0L, 2)).isFalse();
+		verify(idolImageRepository, times(1)).findHashesByUser(any());
+	}
+
+	@Test
+	void addOfImageAlreadyInLoadedSnapshotIsNotCountedTwice() {
+		// 저장 직후 다른 요청이 인덱스를 로드하여 스냅샷에 이미 포함된 경우
+		when(idolImageRepository.findHashesByUser(any())).thenReturn(rows(new Object[]{10L, "00000000000000ff"}));
+		service.size(user);
+
+		IdolImage saved = image(10L, "00000000000000ff");
+		service.add(user, saved);
+		assertThat(service.size(user)).isEqualTo(1);
+
+		service.remove(user, saved);
+		assertThat(service.size(user)).isZero();
+		assertThat(service.hasNearDuplicate(user, 0xffL, 0)).isFalse();
+	}
+
+	@Test
+	void addBeforeLoadIsIgnoredAndRemoveOfUnknownImageIsNoOp() {
+		service.add(user, image(10L, "00000000000000ff"));
+
+		when(idolImageRepository.findHashesByUser(any())).thenReturn(rows());
+		assertThat(service.size(user)).isZero();
+
+		service.remove(user, image(99L, "00000000000000ff"));
+		assertThat(service.size(user)).isZero();
+	}
+
+	@Test
+	void differentImagesWithSameHashAreTrackedSeparately() {
+		when(idolImageRepository.findHashesByUser(any())).thenReturn(rows());
+		service.size(user);
+
+		IdolImage first = image(1L, "00000000000000ff");
+		IdolImage second = image(2L, "00000000000000ff");
+		service.add(user, first);
+		service.add(user, second);
+		service.remove(user, first);
+
+		assertThat(service.size(user)).isEqualTo(1);
+		assertThat(service.hasNearDuplicate(user, 0xffL, 0)).isTrue();
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return new ArrayList<>(List.of(rows));
+	}
+
+	private static IdolImage image(Long id, String pHash) {
+		IdolImage image = new IdolImage();
+		image.setId(id);
+		image.setpHash(pHash);
+		return image;
+	}
+}
@@ -0,0 +1,108 @@
+package com.example.gpt_test.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HammingBkTreeTest {
+
+	@Test
+	void containsWithinIncludesRadiusBoundary() {
+		HammingBkTree tree = new HammingBkTree();
+		tree.add(0b111L); // 0에서 거리 3
+
+		assertThat(tree.containsWithin(0L, 3)).isTrue();
+		assertThat(tree.containsWithin(0L, 2)).isFalse();
+		assertThat(tree.containsWithin(0b111L, 0)).isTrue();
+		assertThat(new HammingBkTree().containsWithin(0L, 64)).isFalse();
+	}
+
+	@Test
+	void duplicateHashesAreCounted() {
+		HammingBkTree tree = new HammingBkTree();
+		tree.add(42L);
+		tree.add(42L);
+
+		assertThat(tree.size()).isEqualTo(2);
+		assertThat(tree.remove(42L)).isTrue();
+		assertThat(tree.containsWithin(42L, 0)).isTrue();
+		assertThat(tree.remove(42L)).isTrue();
+		assertThat(tree.containsWithin(42L, 0)).isFalse();
+		assertThat(tree.remove(42L)).isFalse();
+		assertThat(tree.size()).isZero();
+	}
+
+	@Test
+	void tombstonedNodeStillRoutesSearchesToItsChildren() {
+		HammingBkTree tree = new HammingBkTree();
+		tree.add(0L);      // 루트
+		tree.add(0xffL);   // 루트의 자식 (거리 8)
+		tree.add(0x1ffL);  // 0xff의 자식 (거리 1)
+		tree.add(-1L);
+		tree.add(0xf0f0L);
+
+		assertThat(tree.remove(0L)).isTrue(); // 5개 노드 중 1개 tombstone: 재구성 없음
+
+		assertThat(tree.containsWithin(0L, 0)).isFalse();
+		assertThat(tree.containsWithin(0x1feL, 1)).isTrue();
+		assertThat(tree.containsWithin(0xffL, 0)).isTrue();
+		assertThat(tree.size()).isEqualTo(4);
+	}
+
+	@Test
+	void rebuildAfterManyRemovalsKeepsRemainingHashes() {
+		Random random = new Random(7);
+		List<Long> hashes = new ArrayList<>();
+		HammingBkTree tree = new HammingBkTree();
+		for (int i = 0; i < 200; i++) {
+			long hash = random.nextLong();
+			hashes.add(hash);
+			tree.add(hash);
+		}
+
+		// 절반 이상 삭제하여 재구성 유발
+		for (int i = 0; i < 150; i++) {
+			assertThat(tree.remove(hashes.get(i))).isTrue();
+		}
+
+		assertThat(tree.size()).isEqualTo(50);
+		for (int i = 0; i < 150; i++) {
+			assertThat(tree.containsWithin(hashes.get(i), 0)).isFalse();
+		}
+		for (int i = 150; i < 200; i++) {
+			assertThat(tree.containsWithin(hashes.get(i), 0)).isTrue();
+		}
+
+		// 재구성 후에도 추가/삭제가 정상 동작
+		tree.add(hashes.get(0));
+		assertThat(tree.containsWithin(hashes.get(0), 0)).isTrue();
+		assertThat(tree.size()).isEqualTo(51);
+	}
+
+	@Test
+	void matchesLinearScanForRandomQueries() {
+		Random random = new Random(11);
+		long[] hashes = new long[500];
+		HammingBkTree tree = new HammingBkTree();
+		for (int i = 0; i < hashes.length; i++) {
+			// 서로 가까운 해시가 생기도록 일부 비트만 뒤집은 값을 섞음
+			hashes[i] = i % 2 == 0 ? random.nextLong() : hashes[i - 1] ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+			tree.add(hashes[i]);
+		}
+
+		for (int q = 0; q < 200; q++) {
+			long query = hashes[random.nextInt(hashes.length)] ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64));
+			for (int maxDistance = 0; maxDistance <= 4; maxDistance++) {
+				boolean expected = false;
+				for (long hash : hashes) {
+					expected |= ImageHashUtil.hammingDistance(hash, query) <= maxDistance;
+				}
+				assertThat(tree.containsWithin(query, maxDistance)).isEqualTo(expected);
+			}
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package com.example.gpt_test.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageHashUtilTest {
+
+	private final ImageHashUtil imageHashUtil = new ImageHashUtil();
+
+	@Test
+	void packedIntInterleavedByteAndGetRgbRastersGiveSameHash() {
+		BufferedImage source = sampleImage(317, 241);
+
+		long intRgb = imageHashUtil.computePHash(copy(source, BufferedImage.TYPE_INT_RGB));
+		long intBgr = imageHashUtil.computePHash(copy(source, BufferedImage.TYPE_INT_BGR));
+		long byteBgr = imageHashUtil.computePHash(copy(source, BufferedImage.TYPE_3BYTE_BGR));
+		long byteAbgr = imageHashUtil.computePHash(copy(source, BufferedImage.TYPE_4BYTE_ABGR));
+		// 알파 선곱 래스터는 직접 접근하지 않고 getRGB 경로로 계산
+		long getRgb = imageHashUtil.computePHash(copy(source, BufferedImage.TYPE_INT_ARGB_PRE));
+
+		assertThat(intBgr).isEqualTo(intRgb);
+		assertThat(byteBgr).isEqualTo(intRgb);
+		assertThat(byteAbgr).isEqualTo(intRgb);
+		assertThat(getRgb).isEqualTo(intRgb);
+	}
+
+	@Test
+	void hashIsStableAcrossCallsOnSameThread() {
+		BufferedImage small = sampleImage(20, 12);
+		BufferedImage large = sampleImage(640, 480);
+
+		long first = imageHashUtil.computePHash(large);
+		imageHashUtil.computePHash(small); // 작업 공간 재사용 후에도 결과가 같아야 함
+		assertThat(imageHashUtil.computePHash(large)).isEqualTo(first);
+	}
+
+	@Test
+	void subsampledDecodeStaysWithinDuplicateDistance() throws IOException {
+		BufferedImage source = sampleImage(1600, 1200);
+		byte[] png = encodePng(source);
+
+		BufferedImage decoded = imageHashUtil.decodeForHash(new ByteArrayInputStream(png));
+
+		assertThat(decoded.getWidth()).isLessThan(source.getWidth());
+		assertThat(Math.min(decoded.getWidth(), decoded.getHeight())).isGreaterThanOrEqualTo(256);
+		assertThat(ImageHashUtil.hammingDistance(imageHashUtil.computePHash(decoded), imageHashUtil.computePHash(source)))
+			.isLessThanOrEqualTo(ImageHashUtil.DEFAULT_DUPLICATE_DISTANCE);
+	}
+
+	@Test
+	void decodeForHashReturnsNullForNonImage() throws IOException {
+		assertThat(imageHashUtil.decodeForHash(new ByteArrayInputStream("not an image".getBytes()))).isNull();
+	}
+
+	@Test
+	void similarImagesAreCloseAndDifferentImagesAreFar() {
+		BufferedImage source = sampleImage(400, 300);
+		BufferedImage brighter = copy(source, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < brighter.getHeight(); y++) {
+			for (int x = 0; x < brighter.getWidth(); x++) {
+				Color color = new Color(brighter.getRGB(x, y));
+				brighter.setRGB(x, y, new Color(Math.min(255, color.getRed() + 10), Math.min(255, color.getGreen() + 10),
+					Math.min(255, color.getBlue() + 10)).getRGB());
+			}
+		}
+		BufferedImage other = otherImage(400, 300);
+
+		long hash = imageHashUtil.computePHash(source);
+		assertThat(ImageHashUtil.hammingDistance(hash, imageHashUtil.computePHash(brighter)))
+			.isLessThanOrEqualTo(ImageHashUtil.DEFAULT_DUPLICATE_DISTANCE);
+		assertThat(ImageHashUtil.hammingDistance(hash, imageHashUtil.computePHash(other)))
+			.isGreaterThan(ImageHashUtil.DEFAULT_DUPLICATE_DISTANCE);
+	}
+
+	@Test
+	void hexRoundTrip() {
+		assertThat(ImageHashUtil.toHex(0L)).isEqualTo("0000000000000000");
+		assertThat(ImageHashUtil.toHex(0xabcL)).isEqualTo("0000000000000abc");
+		assertThat(ImageHashUtil.toHex(-1L)).isEqualTo("ffffffffffffffff");
+		assertThat(ImageHashUtil.toHex(Long.MIN_VALUE)).isEqualTo("8000000000000000");
+
+		Random random = new Random(42);
+		for (int i = 0; i < 1000; i++) {
+			long hash = random.nextLong();
+			assertThat(ImageHashUtil.parseHash(ImageHashUtil.toHex(hash))).isEqualTo(hash);
+		}
+	}
+
+	@Test
+	void parseHashRejectsMalformedValues() {
+		assertThatThrownBy(() -> ImageHashUtil.parseHash(null)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ImageHashUtil.parseHash("abc")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> ImageHashUtil.parseHash("zzzzzzzzzzzzzzzz")).isInstanceOf(IllegalArgumentException.class);
+
+		// 이전 형식(길이가 다른 문자열)은 배열 변환 시 건너뜀
+		assertThat(ImageHashUtil.parseHashes(List.of("00000000000000ff", "1010", "ffffffffffffffff")))
+			.containsExactly(0xffL, -1L);
+	}
+
+	@Test
+	void knownDistancePairs() {
+		assertThat(ImageHashUtil.hammingDistance(0L, 0L)).isZero();
+		assertThat(ImageHashUtil.hammingDistance(0L, 0b111L)).isEqualTo(3);
+		assertThat(ImageHashUtil.hammingDistance(0L, -1L)).isEqualTo(64);
+		assertThat(ImageHashUtil.hammingDistance(Long.MIN_VALUE, 1L)).isEqualTo(2);
+
+		assertThat(imageHashUtil.calculateSimilarity(0L, 0b1111L)).isEqualTo(1.0 - 4 / 64.0);
+		assertThat(imageHashUtil.calculateSimilarity("0000000000000000", "000000000000000f")).isEqualTo(1.0 - 4 / 64.0);
+		assertThat(imageHashUtil.calculateSimilarity("0000000000000000", "1010")).isZero();
+
+		long[] existing = {-1L, 0b1111L, 0b111L};
+		assertThat(imageHashUtil.findDuplicateHash(0L, existing, existing.length)).isEqualTo(2);
+		assertThat(imageHashUtil.findDuplicateHash(0L, existing, existing.length, 4)).isEqualTo(1);
+		assertThat(imageHashUtil.findDuplicateHash(0L, existing, 2)).isEqualTo(-1);
+	}
+
+	static BufferedImage sampleImage(int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int red = x * 255 / width;
+				int green = y * 255 / height;
+				int blue = (x + y) * 127 / (width + height);
+				image.setRGB(x, y, (red << 16) | (green << 8) | blue);
+			}
+		}
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.WHITE);
+		graphics.fillOval(width / 4, height / 4, width / 3, height / 3);
+		graphics.setColor(Color.BLACK);
+		graphics.fillRect(width * 2 / 3, height / 2, width / 5, height / 4);
+		graphics.dispose();
+		return image;
+	}
+
+	private static BufferedImage otherImage(int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.DARK_GRAY);
+		graphics.fillRect(0, 0, width, height);
+		graphics.setColor(Color.YELLOW);
+		for (int i = 0; i < 6; i++) {
+			graphics.fillRect(i * width / 6, 0, width / 12, height);
+		}
+		graphics.dispose();
+		return image;
+	}
+
+	private static BufferedImage copy(BufferedImage source, int type) {
+		BufferedImage copy = new BufferedImage(source.getWidth(), source.getHeight(), type);
+		Graphics2D graphics = copy.createGraphics();
+		graphics.drawImage(source, 0, 0, null);
+		graphics.dispose();
+		return copy;
+	}
+
+	private static byte[] encodePng(BufferedImage image) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+}
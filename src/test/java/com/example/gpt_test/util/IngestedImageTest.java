@@ -0,0 +1,78 @@
+package com.example.gpt_test.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestedImageTest {
+
+	@Test
+	void detectsFormatFromMagicBytes() throws IOException {
+		assertThat(ingest(bytes(0xFF, 0xD8, 0xFF, 0xE0, 0, 0)).getFormat()).isEqualTo(IngestedImage.ImageFormat.JPEG);
+		assertThat(ingest(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0)).getFormat()).isEqualTo(IngestedImage.ImageFormat.PNG);
+		assertThat(ingest(bytes('G', 'I', 'F', '8', '9', 'a')).getFormat()).isEqualTo(IngestedImage.ImageFormat.GIF);
+		assertThat(ingest(bytes('G', 'I', 'F', '8', '7', 'a')).getFormat()).isEqualTo(IngestedImage.ImageFormat.GIF);
+		assertThat(ingest(bytes('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P')).getFormat()).isEqualTo(IngestedImage.ImageFormat.WEBP);
+	}
+
+	@Test
+	void rejectsUnknownOrTruncatedSignatures() throws IOException {
+		assertThat(ingest("<html></html>".getBytes()).getFormat()).isNull();
+		// 시그니처보다 짧은 파일
+		assertThat(ingest(bytes(0x89, 'P', 'N')).getFormat()).isNull();
+		assertThat(ingest(bytes('G', 'I', 'F', '8', '8', 'a')).getFormat()).isNull();
+		// RIFF지만 WEBP가 아닌 파일 (WAV 등)
+		assertThat(ingest(bytes('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'A', 'V', 'E')).getFormat()).isNull();
+		assertThat(ingest(new byte[0]).isEmpty()).isTrue();
+	}
+
+	@Test
+	void contentTypeComesFromDetectedFormat() throws IOException {
+		// 클라이언트가 보낸 Content-Type보다 실제 형식을 우선
+		IngestedImage png = IngestedImage.from(new MockMultipartFile("image", "a.jpg", "image/jpeg",
+			bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)));
+		IngestedImage unknown = IngestedImage.from(new MockMultipartFile("image", "a.bin", "application/octet-stream", bytes(1, 2, 3)));
+
+		assertThat(png.getContentType()).isEqualTo("image/png");
+		assertThat(png.getDeclaredContentType()).isEqualTo("image/jpeg");
+		assertThat(unknown.getContentType()).isEqualTo("application/octet-stream");
+	}
+
+	@Test
+	void sharesSingleBufferAcrossReaders() throws IOException {
+		byte[] data = bytes(0xFF, 0xD8, 0xFF, 1, 2, 3);
+		IngestedImage image = ingest(data);
+
+		assertThat(image.getSize()).isEqualTo(data.length);
+		assertThat(image.getBytes()).isSameAs(image.getBytes());
+		assertThat(image.openStream().readAllBytes()).isEqualTo(data);
+		assertThat(image.openStream().readAllBytes()).isEqualTo(data);
+	}
+
+	@Test
+	void computesSha256WhileReading() throws IOException {
+		byte[] data = bytes(0xFF, 0xD8, 0xFF, 4, 5, 6);
+
+		IngestedImage image = ingest(data);
+
+		assertThat(image.getContentHash()).isEqualTo(DigestUtils.sha256Hex(data)).hasSize(64);
+		assertThat(ingest(data.clone()).getContentHash()).isEqualTo(image.getContentHash());
+		assertThat(ingest(bytes(0xFF, 0xD8, 0xFF, 4, 5, 7)).getContentHash()).isNotEqualTo(image.getContentHash());
+	}
+
+	private static IngestedImage ingest(byte[] data) throws IOException {
+		return IngestedImage.from(new MockMultipartFile("image", "image", "image/png", data));
+	}
+
+	private static byte[] bytes(int... values) {
+		byte[] data = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			data[i] = (byte) values[i];
+		}
+		return data;
+	}
+}
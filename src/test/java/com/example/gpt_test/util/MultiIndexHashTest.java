@@ -0,0 +1,94 @@
+package com.example.gpt_test.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultiIndexHashTest {
+
+	@Test
+	void candidateMatchingSeveralBandsIsReportedOnce() {
+		MultiIndexHash index = new MultiIndexHash(4);
+		index.add(0x0123456789abcdefL, 1L);
+		index.add(0x0123456789abcdeeL, 2L); // 마지막 band만 다르므로 나머지 3개 band에서 모두 후보
+
+		List<MultiIndexHash.Match> matches = index.findWithin(0x0123456789abcdefL, 3);
+
+		assertThat(matches).extracting(MultiIndexHash.Match::getId).containsExactly(1L, 2L);
+		assertThat(matches).extracting(MultiIndexHash.Match::getDistance).containsExactly(0, 1);
+	}
+
+	@Test
+	void findsEveryHashUpToBandsMinusOneAgainstLinearScan() {
+		Random random = new Random(3);
+		for (int bands : new int[]{2, 4, 8, 16}) {
+			MultiIndexHash index = new MultiIndexHash(bands);
+			List<Long> hashes = new ArrayList<>();
+			for (long id = 0; id < 400; id++) {
+				long hash = id % 2 == 0 ? random.nextLong() : flipBits(hashes.get((int) id - 1), random, random.nextInt(bands + 2));
+				hashes.add(hash);
+				index.add(hash, id);
+			}
+
+			for (int q = 0; q < 100; q++) {
+				long query = flipBits(hashes.get(random.nextInt(hashes.size())), random, random.nextInt(bands));
+				for (int maxDistance = 0; maxDistance < bands; maxDistance++) {
+					List<Long> expected = new ArrayList<>();
+					for (int id = 0; id < hashes.size(); id++) {
+						if (ImageHashUtil.hammingDistance(hashes.get(id), query) <= maxDistance) {
+							expected.add((long) id);
+						}
+					}
+					assertThat(index.findWithin(query, maxDistance))
+						.extracting(MultiIndexHash.Match::getId)
+						.containsExactlyInAnyOrderElementsOf(expected);
+				}
+			}
+		}
+	}
+
+	@Test
+	void resultsAreSortedByDistance() {
+		MultiIndexHash index = new MultiIndexHash(4);
+		index.add(0b111L, 3L);
+		index.add(0b1L, 1L);
+		index.add(0L, 0L);
+		index.add(0b11L, 2L);
+
+		assertThat(index.findWithin(0L, 3)).extracting(MultiIndexHash.Match::getDistance).containsExactly(0, 1, 2, 3);
+	}
+
+	@Test
+	void distanceAboveBandsMinusOneIsRejected() {
+		MultiIndexHash index = new MultiIndexHash(4);
+
+		assertThat(index.maxSearchDistance()).isEqualTo(3);
+		assertThatThrownBy(() -> index.findWithin(0L, 4)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new MultiIndexHash(3)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void removeDropsOnlyTheMatchingId() {
+		MultiIndexHash index = new MultiIndexHash(4);
+		index.add(42L, 1L);
+		index.add(42L, 2L);
+
+		assertThat(index.remove(42L, 1L)).isTrue();
+		assertThat(index.remove(42L, 1L)).isFalse();
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.findWithin(42L, 0)).extracting(MultiIndexHash.Match::getId).containsExactly(2L);
+	}
+
+	private static long flipBits(long hash, Random random, int count) {
+		long result = hash;
+		while (ImageHashUtil.hammingDistance(result, hash) < count) {
+			result ^= 1L << random.nextInt(64);
+		}
+		return result;
+	}
+}